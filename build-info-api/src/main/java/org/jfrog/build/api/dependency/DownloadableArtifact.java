@@ -19,6 +19,11 @@ public class DownloadableArtifact implements Serializable {
     private PatternType patternType;
     private String sourcePattern;
     private boolean explode;
+    // Metadata known from the search result, used to avoid requesting it again before the download
+    private Long size;
+    private String md5;
+    private String sha1;
+    private String sha256;
 
     public DownloadableArtifact() {
     }
@@ -101,4 +106,36 @@ public class DownloadableArtifact implements Serializable {
     public void setExplode(boolean explode) {
         this.explode = explode;
     }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    public String getMd5() {
+        return md5;
+    }
+
+    public void setMd5(String md5) {
+        this.md5 = md5;
+    }
+
+    public String getSha1() {
+        return sha1;
+    }
+
+    public void setSha1(String sha1) {
+        this.sha1 = sha1;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
 }
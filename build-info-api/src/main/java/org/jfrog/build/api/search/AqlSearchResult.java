@@ -27,6 +27,8 @@ public class AqlSearchResult {
         private String name;
         private String actualSha1;
         private String actualMd5;
+        private String sha256;
+        private Long size;
         private String[] virtualRepos = new String[]{};
         private HashMap<String, String> properties = new HashMap<>();
 
@@ -52,6 +54,16 @@ public class AqlSearchResult {
             this.actualMd5 = actualMd5;
         }
 
+        @JsonProperty("sha256")
+        public void setSha256(String sha256) {
+            this.sha256 = sha256;
+        }
+
+        @JsonProperty("size")
+        public void setSize(Long size) {
+            this.size = size;
+        }
+
         @JsonProperty("virtual_repos")
         public void setVirtualRepos(String[] virtualRepos) {
             this.virtualRepos = virtualRepos;
@@ -88,6 +100,19 @@ public class AqlSearchResult {
             return actualMd5;
         }
 
+        @JsonProperty("sha256")
+        public String getSha256() {
+            return sha256;
+        }
+
+        /**
+         * @return the file size in bytes, or null if the size wasn't included in the search result
+         */
+        @JsonProperty("size")
+        public Long getSize() {
+            return size;
+        }
+
         @JsonProperty("virtual_repos")
         public String[] getVirtualRepos() {
             return virtualRepos;
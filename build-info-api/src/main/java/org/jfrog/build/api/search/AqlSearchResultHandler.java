@@ -0,0 +1,17 @@
+package org.jfrog.build.api.search;
+
+import java.io.IOException;
+
+/**
+ * Handles the entries of an AQL search result one by one, as they are parsed from the response.
+ */
+public interface AqlSearchResultHandler {
+
+    /**
+     * Handles a single search result entry.
+     *
+     * @param entry - The search result entry
+     * @throws IOException in case of an error handling the entry. Stops the search.
+     */
+    void handle(AqlSearchResult.SearchEntry entry) throws IOException;
+}
@@ -0,0 +1,356 @@
+package org.jfrog.build.api.util;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * Content-addressed cache of file checksums, consulted by {@link FileChecksumCalculator}.
+ * A file is identified by its canonical path, size, last modification time and file key (inode where available),
+ * so any change to the file invalidates its cached checksums.
+ * <p>
+ * Like the racy-git check, an entry of a file which was modified within {@value #TIMESTAMP_GRANULARITY_MILLIS} ms
+ * before its checksums were calculated is not trusted, since the file could be rewritten with the same size and
+ * modification time. Such a file is hashed again on its next lookup, which caches it as a trusted entry.
+ * The cache has an in-memory LRU tier and an optional on-disk tier, shared between builds.
+ * <p>
+ * Configuration is done using system properties:
+ * <ul>
+ * <li>{@value #PROP_ENABLED} - Set to false to disable the cache. Default: true.</li>
+ * <li>{@value #PROP_MAX_ENTRIES} - Maximum number of in-memory entries. Default: {@value #DEFAULT_MAX_ENTRIES}.</li>
+ * <li>{@value #PROP_DISK_ENABLED} - Set to true to enable the on-disk tier. Default: false.</li>
+ * <li>{@value #PROP_DISK_DIR} - The on-disk tier directory. Setting it implies {@value #PROP_DISK_ENABLED}.
+ * Default: ~/.jfrog/build-info/checksums</li>
+ * </ul>
+ */
+public class ChecksumCache {
+
+    public static final String CHECKSUM_CACHE_PREFIX = "buildInfo.checksumCache.";
+    public static final String PROP_ENABLED = CHECKSUM_CACHE_PREFIX + "enabled";
+    public static final String PROP_MAX_ENTRIES = CHECKSUM_CACHE_PREFIX + "maxEntries";
+    public static final String PROP_DISK_ENABLED = CHECKSUM_CACHE_PREFIX + "disk";
+    public static final String PROP_DISK_DIR = CHECKSUM_CACHE_PREFIX + "dir";
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+    // The coarsest modification time resolution of common file systems (FAT)
+    static final long TIMESTAMP_GRANULARITY_MILLIS = 2000;
+
+    private static final String SIZE_KEY = "size";
+    private static final String LAST_MODIFIED_KEY = "lastModified";
+    private static final String FILE_KEY_KEY = "fileKey";
+    private static final String HASH_TIME_KEY = "hashTime";
+    private static final String CHECKSUM_KEY_PREFIX = "checksum.";
+
+    private static volatile ChecksumCache instance;
+
+    private final Map<String, Entry> memoryCache;
+    private final Path diskDir;
+
+    public ChecksumCache(int maxEntries, Path diskDir) {
+        this.memoryCache = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.diskDir = diskDir;
+    }
+
+    /**
+     * Returns the process-wide cache, configured from system properties, or null if the cache is disabled.
+     */
+    public static ChecksumCache getInstance() {
+        if (!Boolean.parseBoolean(System.getProperty(PROP_ENABLED, "true"))) {
+            return null;
+        }
+        if (instance == null) {
+            synchronized (ChecksumCache.class) {
+                if (instance == null) {
+                    instance = createFromSystemProperties();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private static ChecksumCache createFromSystemProperties() {
+        int maxEntries = DEFAULT_MAX_ENTRIES;
+        String maxEntriesValue = System.getProperty(PROP_MAX_ENTRIES);
+        if (StringUtils.isNumeric(maxEntriesValue)) {
+            maxEntries = Integer.parseInt(maxEntriesValue);
+        }
+        Path diskDir = null;
+        String diskDirValue = System.getProperty(PROP_DISK_DIR);
+        if (StringUtils.isNotBlank(diskDirValue)) {
+            diskDir = Paths.get(diskDirValue);
+        } else if (Boolean.parseBoolean(System.getProperty(PROP_DISK_ENABLED))) {
+            diskDir = Paths.get(System.getProperty("user.home"), ".jfrog", "build-info", "checksums");
+        }
+        return new ChecksumCache(maxEntries, diskDir);
+    }
+
+    /**
+     * Returns the identity of the file in its current state.
+     *
+     * @param file - The file to identify
+     * @return the file identity
+     * @throws IOException in case of an error reading the file attributes
+     */
+    public static FileIdentity identify(File file) throws IOException {
+        Path path = file.toPath();
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        Object fileKey = attributes.fileKey();
+        return new FileIdentity(file.getCanonicalPath(), attributes.size(), attributes.lastModifiedTime().toMillis(),
+                fileKey == null ? "" : fileKey.toString());
+    }
+
+    /**
+     * Returns the cached checksums of the file, if all the requested algorithms are cached.
+     *
+     * @param identity   - The file identity, as returned by {@link #identify(File)}
+     * @param algorithms - The requested algorithms
+     * @return a new map with algorithm keys and checksum values, or null if any of the algorithms is missing
+     */
+    public Map<String, String> get(FileIdentity identity, String... algorithms) {
+        Entry entry = getEntry(identity);
+        if (entry == null) {
+            return null;
+        }
+        Map<String, String> result = new HashMap<>();
+        for (String algorithm : algorithms) {
+            String checksum = entry.checksums.get(algorithm);
+            if (checksum == null) {
+                return null;
+            }
+            result.put(algorithm, checksum);
+        }
+        return result;
+    }
+
+    /**
+     * Returns all cached checksums of the file, or an empty map if none are cached.
+     *
+     * @param identity - The file identity, as returned by {@link #identify(File)}
+     * @return a new map with algorithm keys and checksum values
+     */
+    public Map<String, String> getAll(FileIdentity identity) {
+        Entry entry = getEntry(identity);
+        return entry == null ? new HashMap<>() : new HashMap<>(entry.checksums);
+    }
+
+    /**
+     * Adds checksums of the file to the cache. Existing checksums of other algorithms are kept.
+     * The checksums are considered to be calculated at the time the identity was created.
+     *
+     * @param identity  - The file identity, as returned by {@link #identify(File)} before the checksums were calculated
+     * @param checksums - Map with algorithm keys and checksum values
+     */
+    public void put(FileIdentity identity, Map<String, String> checksums) {
+        // The on-disk entry is read and written outside the lock, so other lookups don't wait for the disk
+        Map<String, String> merged = getAll(identity);
+        Entry entry;
+        // Merge with the in-memory entry under the lock, so concurrent puts of different algorithms don't drop each
+        // other's checksums in memory
+        synchronized (memoryCache) {
+            Entry current = memoryCache.get(identity.path);
+            if (current != null && current.identity.equals(identity) && !current.isRacy()) {
+                merged.putAll(current.checksums);
+            }
+            merged.putAll(checksums);
+            entry = new Entry(identity, merged, identity.identifiedTime);
+            memoryCache.put(identity.path, entry);
+        }
+        if (diskDir != null) {
+            // Concurrent writes of the same file are atomic, and the last one wins. The on-disk entry may therefore
+            // miss some of the algorithms, which are then calculated again on a lookup from another build.
+            writeToDisk(entry);
+        }
+    }
+
+    /**
+     * Removes all in-memory entries. The on-disk tier is kept.
+     */
+    public void clear() {
+        synchronized (memoryCache) {
+            memoryCache.clear();
+        }
+    }
+
+    private Entry getEntry(FileIdentity identity) {
+        Entry entry;
+        synchronized (memoryCache) {
+            entry = memoryCache.get(identity.path);
+        }
+        if (entry != null && entry.identity.equals(identity)) {
+            return entry.isRacy() ? null : entry;
+        }
+        if (diskDir == null) {
+            return null;
+        }
+        entry = readFromDisk(identity);
+        if (entry == null || entry.isRacy()) {
+            return null;
+        }
+        synchronized (memoryCache) {
+            memoryCache.put(identity.path, entry);
+        }
+        return entry;
+    }
+
+    private Path getDiskEntryPath(String canonicalPath) {
+        return diskDir.resolve(DigestUtils.sha1Hex(canonicalPath));
+    }
+
+    private Entry readFromDisk(FileIdentity identity) {
+        Path entryPath = getDiskEntryPath(identity.path);
+        if (!Files.isRegularFile(entryPath)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream inputStream = Files.newInputStream(entryPath)) {
+            properties.load(inputStream);
+        } catch (IOException e) {
+            // A corrupted or concurrently replaced entry is treated as a cache miss
+            return null;
+        }
+        FileIdentity diskIdentity;
+        long hashTime;
+        try {
+            diskIdentity = new FileIdentity(identity.path,
+                    Long.parseLong(properties.getProperty(SIZE_KEY, "-1")),
+                    Long.parseLong(properties.getProperty(LAST_MODIFIED_KEY, "-1")),
+                    properties.getProperty(FILE_KEY_KEY, ""));
+            hashTime = Long.parseLong(properties.getProperty(HASH_TIME_KEY, "-1"));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (!diskIdentity.equals(identity)) {
+            return null;
+        }
+        Map<String, String> checksums = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(CHECKSUM_KEY_PREFIX)) {
+                checksums.put(key.substring(CHECKSUM_KEY_PREFIX.length()), properties.getProperty(key));
+            }
+        }
+        return new Entry(identity, checksums, hashTime);
+    }
+
+    private void writeToDisk(Entry entry) {
+        Properties properties = new Properties();
+        properties.setProperty(SIZE_KEY, String.valueOf(entry.identity.size));
+        properties.setProperty(LAST_MODIFIED_KEY, String.valueOf(entry.identity.lastModified));
+        properties.setProperty(FILE_KEY_KEY, entry.identity.fileKey);
+        properties.setProperty(HASH_TIME_KEY, String.valueOf(entry.hashTime));
+        entry.checksums.forEach((algorithm, checksum) -> properties.setProperty(CHECKSUM_KEY_PREFIX + algorithm, checksum));
+        Path tempFile = null;
+        try {
+            Files.createDirectories(diskDir);
+            tempFile = Files.createTempFile(diskDir, "checksums", ".tmp");
+            try (OutputStream outputStream = Files.newOutputStream(tempFile)) {
+                properties.store(outputStream, entry.identity.path);
+            }
+            Path entryPath = getDiskEntryPath(entry.identity.path);
+            try {
+                Files.move(tempFile, entryPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, entryPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            // The on-disk tier is best effort - the checksums are still cached in memory
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException ignored) {
+                    // Ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * Identifies a file in a specific state.
+     * The time the identity was created is kept, but is not part of the identity.
+     */
+    public static class FileIdentity {
+        private final String path;
+        private final long size;
+        private final long lastModified;
+        private final String fileKey;
+        private final long identifiedTime = System.currentTimeMillis();
+
+        public FileIdentity(String path, long size, long lastModified, String fileKey) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.fileKey = fileKey;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public String getFileKey() {
+            return fileKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            FileIdentity that = (FileIdentity) o;
+            return size == that.size && lastModified == that.lastModified &&
+                    Objects.equals(path, that.path) && Objects.equals(fileKey, that.fileKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, size, lastModified, fileKey);
+        }
+    }
+
+    private static class Entry {
+        private final FileIdentity identity;
+        private final Map<String, String> checksums;
+        private final long hashTime;
+
+        private Entry(FileIdentity identity, Map<String, String> checksums, long hashTime) {
+            this.identity = identity;
+            this.checksums = checksums;
+            this.hashTime = hashTime;
+        }
+
+        /**
+         * Returns true if the file could have been rewritten with the same modification time after it was hashed.
+         */
+        private boolean isRacy() {
+            return identity.lastModified + TIMESTAMP_GRANULARITY_MILLIS >= hashTime;
+        }
+    }
+}
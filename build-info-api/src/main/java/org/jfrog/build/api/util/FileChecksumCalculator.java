@@ -21,6 +21,11 @@ public abstract class FileChecksumCalculator {
     public static final String SHA1_ALGORITHM = "SHA1";
     public static final String MD5_ALGORITHM = "MD5";
     private static final int BUFFER_SIZE = 32768;
+    /**
+     * Files of at least this size are digested with the {@link ParallelChecksumCalculator}, if it's enabled and more
+     * than one CPU is available
+     */
+    private static final long PARALLEL_CALCULATION_MIN_SIZE = 16 * 1024 * 1024;
 
     /**
      * Calculates the given file's checksums
@@ -57,7 +62,29 @@ public abstract class FileChecksumCalculator {
             return new HashMap<>();
         }
 
-        return calculate(fileToCalculate, algorithms);
+        ChecksumCache checksumCache = ChecksumCache.getInstance();
+        if (checksumCache == null) {
+            return calculate(fileToCalculate, algorithms);
+        }
+        return calculateCached(checksumCache, fileToCalculate, algorithms);
+    }
+
+    /**
+     * Returns the given file's checksums from the checksum cache, calculating and caching the missing ones.
+     * The checksums are cached only if the file didn't change during the calculation.
+     */
+    private static Map<String, String> calculateCached(ChecksumCache checksumCache, File fileToCalculate, String... algorithms)
+            throws NoSuchAlgorithmException, IOException {
+        ChecksumCache.FileIdentity identity = ChecksumCache.identify(fileToCalculate);
+        Map<String, String> checksumMap = checksumCache.get(identity, algorithms);
+        if (checksumMap != null) {
+            return checksumMap;
+        }
+        checksumMap = calculate(fileToCalculate, algorithms);
+        if (identity.equals(ChecksumCache.identify(fileToCalculate))) {
+            checksumCache.put(identity, checksumMap);
+        }
+        return checksumMap;
     }
 
     /**
@@ -73,11 +100,13 @@ public abstract class FileChecksumCalculator {
      */
     private static Map<String, String> calculate(File fileToCalculate, String... algorithms)
             throws NoSuchAlgorithmException, IOException {
-        Map<String, MessageDigest> digestMap = new HashMap<>();
-        Map<String, String> checksumMap = new HashMap<>();
-
-        for (String algorithm : algorithms) {
-            digestMap.put(algorithm, MessageDigest.getInstance(algorithm));
+        if (algorithms.length > 1 && fileToCalculate.length() >= PARALLEL_CALCULATION_MIN_SIZE &&
+                ParallelChecksumCalculator.isEnabled() && Runtime.getRuntime().availableProcessors() > 1) {
+            return new ParallelChecksumCalculator().calculate(fileToCalculate, algorithms);
+        }
+        MessageDigest[] digests = new MessageDigest[algorithms.length];
+        for (int i = 0; i < algorithms.length; i++) {
+            digests[i] = MessageDigest.getInstance(algorithms[i]);
         }
 
         try (FileInputStream inputStream = new FileInputStream(fileToCalculate)) {
@@ -85,26 +114,35 @@ public abstract class FileChecksumCalculator {
             int size = inputStream.read(buffer, 0, BUFFER_SIZE);
 
             while (size >= 0) {
-                for (String algorithm : algorithms) {
-                    digestMap.get(algorithm).update(buffer, 0, size);
+                for (MessageDigest digest : digests) {
+                    digest.update(buffer, 0, size);
                 }
                 size = inputStream.read(buffer, 0, BUFFER_SIZE);
             }
         }
 
-        for (String algorithm : algorithms) {
-            byte[] bytes = digestMap.get(algorithm).digest();
-            StringBuilder sb = new StringBuilder();
-            for (byte aBinaryData : bytes) {
-                String t = Integer.toHexString(aBinaryData & 0xff);
-                if (t.length() == 1) {
-                    sb.append("0");
-                }
-                sb.append(t);
-            }
-            checksumMap.put(algorithm, sb.toString().trim());
+        Map<String, String> checksumMap = new HashMap<>();
+        for (int i = 0; i < algorithms.length; i++) {
+            checksumMap.put(algorithms[i], toHex(digests[i].digest()));
         }
-
         return checksumMap;
     }
-}
\ No newline at end of file
+
+    /**
+     * Converts a digest to its lowercase hexadecimal representation
+     *
+     * @param bytes The digest bytes
+     * @return The checksum value
+     */
+    static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte aBinaryData : bytes) {
+            String t = Integer.toHexString(aBinaryData & 0xff);
+            if (t.length() == 1) {
+                sb.append("0");
+            }
+            sb.append(t);
+        }
+        return sb.toString().trim();
+    }
+}
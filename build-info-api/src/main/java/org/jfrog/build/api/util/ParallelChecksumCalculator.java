@@ -0,0 +1,225 @@
+package org.jfrog.build.api.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Multi-digest checksum engine for large files.
+ * The file is read once into a small ring of large buffers, while every digest is updated on its own thread.
+ * Reading and digesting are pipelined, so the wall time approaches the time of the slowest digest rather than the
+ * sum of all digests.
+ * Heap buffers are used, since digests are updated directly from their backing arrays.
+ * <p>
+ * {@link FileChecksumCalculator} uses this engine for large files only if {@value #PROP_ENABLED} is set to true.
+ * It's disabled by default, since it only pays off with free CPUs: on a single CPU, it's a few percent slower than
+ * a sequential calculation.
+ * <p>
+ * Note: This class expects validated File objects from calling code, see {@link FileChecksumCalculator}.
+ */
+public class ParallelChecksumCalculator {
+
+    public static final String PROP_ENABLED = "buildInfo.checksums.parallel";
+    public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+    private static final int CHUNKS_COUNT = 4;
+
+    private static final ExecutorService DIGEST_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "checksum-digest-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final int chunkSize;
+
+    /**
+     * Returns true if {@link FileChecksumCalculator} should use this engine for large files.
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty(PROP_ENABLED));
+    }
+
+    public ParallelChecksumCalculator() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    public ParallelChecksumCalculator(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive.");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Calculates the given file's checksums
+     *
+     * @param fileToCalculate File to calculate
+     * @param algorithms      Algorithms to use for calculation
+     * @return Map with algorithm keys and checksum values
+     * @throws NoSuchAlgorithmException Thrown if any of the given algorithms aren't supported
+     * @throws IOException              Thrown if any error occurs while reading the file or calculating the checksums
+     */
+    public Map<String, String> calculate(File fileToCalculate, String... algorithms)
+            throws NoSuchAlgorithmException, IOException {
+        List<DigestWorker> workers = new ArrayList<>();
+        for (String algorithm : algorithms) {
+            workers.add(new DigestWorker(algorithm, MessageDigest.getInstance(algorithm)));
+        }
+        BlockingQueue<Chunk> freeChunks = new ArrayBlockingQueue<>(CHUNKS_COUNT);
+        for (int i = 0; i < CHUNKS_COUNT; i++) {
+            freeChunks.add(new Chunk(ByteBuffer.allocate(chunkSize), freeChunks));
+        }
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (DigestWorker worker : workers) {
+            futures.add(DIGEST_EXECUTOR.submit(worker));
+        }
+        try {
+            readChunks(fileToCalculate, freeChunks, workers);
+        } catch (IOException | RuntimeException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while calculating checksums of " + fileToCalculate.getAbsolutePath(), e);
+        }
+
+        Map<String, String> checksumMap = new HashMap<>();
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while calculating checksums of " + fileToCalculate.getAbsolutePath(), e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed calculating checksums of " + fileToCalculate.getAbsolutePath(), e.getCause());
+        }
+        for (DigestWorker worker : workers) {
+            checksumMap.put(worker.algorithm, FileChecksumCalculator.toHex(worker.digest.digest()));
+        }
+        return checksumMap;
+    }
+
+    /**
+     * Reads the file into the free chunks and hands every full chunk to all digest workers.
+     * Signals the end of the file by sending the END chunk to all workers.
+     */
+    private void readChunks(File fileToCalculate, BlockingQueue<Chunk> freeChunks, List<DigestWorker> workers)
+            throws IOException, InterruptedException {
+        try (FileChannel channel = FileChannel.open(fileToCalculate.toPath(), StandardOpenOption.READ)) {
+            boolean eof = false;
+            while (!eof) {
+                Chunk chunk = freeChunks.take();
+                ByteBuffer buffer = chunk.buffer;
+                buffer.clear();
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) {
+                        eof = true;
+                        break;
+                    }
+                }
+                buffer.flip();
+                if (!buffer.hasRemaining()) {
+                    freeChunks.put(chunk);
+                    break;
+                }
+                chunk.pendingDigests.set(workers.size());
+                for (DigestWorker worker : workers) {
+                    worker.chunks.put(chunk);
+                }
+            }
+        } finally {
+            for (DigestWorker worker : workers) {
+                worker.chunks.put(Chunk.END);
+            }
+        }
+    }
+
+    /**
+     * A buffer shared by all digest workers. Returned to the free chunks queue once all workers digested it.
+     */
+    private static class Chunk {
+        private static final Chunk END = new Chunk(ByteBuffer.allocate(0), null);
+
+        private final ByteBuffer buffer;
+        private final BlockingQueue<Chunk> freeChunks;
+        private final AtomicInteger pendingDigests = new AtomicInteger();
+
+        private Chunk(ByteBuffer buffer, BlockingQueue<Chunk> freeChunks) {
+            this.buffer = buffer;
+            this.freeChunks = freeChunks;
+        }
+
+        private void release() throws InterruptedException {
+            if (pendingDigests.decrementAndGet() == 0) {
+                freeChunks.put(this);
+            }
+        }
+    }
+
+    /**
+     * Updates a single digest with the chunks, in the order they were read.
+     */
+    private static class DigestWorker implements Runnable {
+        private final BlockingQueue<Chunk> chunks = new ArrayBlockingQueue<>(CHUNKS_COUNT + 1);
+        private final String algorithm;
+        private final MessageDigest digest;
+
+        private DigestWorker(String algorithm, MessageDigest digest) {
+            this.algorithm = algorithm;
+            this.digest = digest;
+        }
+
+        @Override
+        public void run() {
+            RuntimeException failure = null;
+            try {
+                while (true) {
+                    Chunk chunk = chunks.take();
+                    if (chunk == Chunk.END) {
+                        break;
+                    }
+                    try {
+                        if (failure == null) {
+                            // Each worker reads through its own view, so the position of the shared buffer isn't modified
+                            digest.update(chunk.buffer.duplicate());
+                        }
+                    } catch (RuntimeException e) {
+                        // Keep releasing the chunks, so the reader doesn't wait forever
+                        failure = e;
+                    } finally {
+                        chunk.release();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package org.jfrog.build.api.util;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.jfrog.build.api.util.FileChecksumCalculator.*;
+import static org.testng.Assert.*;
+
+/**
+ * Tests the behavior of the checksum cache
+ */
+@Test
+public class ChecksumCacheTest {
+    private Path tempDir;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("checksum-cache-test");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(tempDir.toFile());
+    }
+
+    public void testMemoryTier() throws Exception {
+        File file = createFile("a.txt", "content");
+        ChecksumCache cache = new ChecksumCache(10, null);
+        ChecksumCache.FileIdentity identity = ChecksumCache.identify(file);
+        assertNull(cache.get(identity, MD5_ALGORITHM));
+
+        cache.put(identity, createChecksums("md5-value", null));
+        assertEquals(cache.get(identity, MD5_ALGORITHM).get(MD5_ALGORITHM), "md5-value");
+        // SHA1 was never cached, so the lookup must miss
+        assertNull(cache.get(identity, MD5_ALGORITHM, SHA1_ALGORITHM));
+
+        // Existing algorithms are kept when adding new ones
+        cache.put(identity, createChecksums(null, "sha1-value"));
+        Map<String, String> checksums = cache.get(identity, MD5_ALGORITHM, SHA1_ALGORITHM);
+        assertEquals(checksums.get(MD5_ALGORITHM), "md5-value");
+        assertEquals(checksums.get(SHA1_ALGORITHM), "sha1-value");
+    }
+
+    public void testModifiedFileInvalidatesEntry() throws Exception {
+        File file = createFile("a.txt", "content");
+        ChecksumCache cache = new ChecksumCache(10, null);
+        ChecksumCache.FileIdentity identity = ChecksumCache.identify(file);
+        cache.put(identity, createChecksums("md5-value", null));
+
+        FileUtils.writeStringToFile(file, "modified content", StandardCharsets.UTF_8);
+        assertNull(cache.get(ChecksumCache.identify(file), MD5_ALGORITHM));
+    }
+
+    public void testLruEviction() throws Exception {
+        ChecksumCache cache = new ChecksumCache(1, null);
+        ChecksumCache.FileIdentity first = ChecksumCache.identify(createFile("a.txt", "a"));
+        ChecksumCache.FileIdentity second = ChecksumCache.identify(createFile("b.txt", "b"));
+        cache.put(first, createChecksums("md5-a", null));
+        cache.put(second, createChecksums("md5-b", null));
+        assertNull(cache.get(first, MD5_ALGORITHM));
+        assertNotNull(cache.get(second, MD5_ALGORITHM));
+    }
+
+    public void testDiskTier() throws Exception {
+        File file = createFile("a.txt", "content");
+        Path diskDir = tempDir.resolve("cache");
+        ChecksumCache.FileIdentity identity = ChecksumCache.identify(file);
+        new ChecksumCache(10, diskDir).put(identity, createChecksums("md5-value", "sha1-value"));
+
+        // A new cache instance simulates a new build
+        ChecksumCache cache = new ChecksumCache(10, diskDir);
+        Map<String, String> checksums = cache.get(identity, MD5_ALGORITHM, SHA1_ALGORITHM);
+        assertNotNull(checksums);
+        assertEquals(checksums.get(MD5_ALGORITHM), "md5-value");
+        assertEquals(checksums.get(SHA1_ALGORITHM), "sha1-value");
+    }
+
+    public void testCalculatorUsesCache() throws Exception {
+        File file = createFile("a.txt", "API/FileChecksumCalculatorTest - This is a test file");
+        Map<String, String> first = FileChecksumCalculator.calculateChecksums(file, MD5_ALGORITHM, SHA1_ALGORITHM, SHA256_ALGORITHM);
+        ChecksumCache cache = ChecksumCache.getInstance();
+        assertNotNull(cache);
+        assertEquals(cache.get(ChecksumCache.identify(file), MD5_ALGORITHM, SHA1_ALGORITHM, SHA256_ALGORITHM), first);
+        assertEquals(FileChecksumCalculator.calculateChecksums(file, SHA1_ALGORITHM).get(SHA1_ALGORITHM), first.get(SHA1_ALGORITHM));
+    }
+
+    public void testSameSizeAndModificationTimeRewrite() throws Exception {
+        File file = tempDir.resolve("a.txt").toFile();
+        FileUtils.writeStringToFile(file, "content-1", StandardCharsets.UTF_8);
+        long lastModified = file.lastModified();
+        Map<String, String> first = FileChecksumCalculator.calculateChecksums(file, SHA1_ALGORITHM);
+
+        // Rewrite the file within the timestamp granularity, keeping its size and modification time
+        FileUtils.writeStringToFile(file, "content-2", StandardCharsets.UTF_8);
+        assertTrue(file.setLastModified(lastModified));
+        Map<String, String> second = FileChecksumCalculator.calculateChecksums(file, SHA1_ALGORITHM);
+        assertNotEquals(second.get(SHA1_ALGORITHM), first.get(SHA1_ALGORITHM));
+        assertEquals(second.get(SHA1_ALGORITHM), DigestUtils.sha1Hex("content-2"));
+    }
+
+    public void testRacyEntryIsNotTrusted() throws Exception {
+        File file = tempDir.resolve("a.txt").toFile();
+        FileUtils.writeStringToFile(file, "content", StandardCharsets.UTF_8);
+        ChecksumCache cache = new ChecksumCache(10, tempDir.resolve("cache"));
+        ChecksumCache.FileIdentity identity = ChecksumCache.identify(file);
+        cache.put(identity, createChecksums("md5-value", null));
+        assertNull(cache.get(identity, MD5_ALGORITHM));
+        assertNull(new ChecksumCache(10, tempDir.resolve("cache")).get(identity, MD5_ALGORITHM));
+
+        // Once hashed after the timestamp granularity, the entry is trusted
+        assertTrue(file.setLastModified(System.currentTimeMillis() - 2 * ChecksumCache.TIMESTAMP_GRANULARITY_MILLIS));
+        identity = ChecksumCache.identify(file);
+        cache.put(identity, createChecksums("md5-value", null));
+        assertEquals(cache.get(identity, MD5_ALGORITHM).get(MD5_ALGORITHM), "md5-value");
+    }
+
+    /**
+     * Creates a file modified long enough ago for its cache entries to be trusted.
+     */
+    private File createFile(String name, String content) throws IOException {
+        File file = tempDir.resolve(name).toFile();
+        FileUtils.writeStringToFile(file, content, StandardCharsets.UTF_8);
+        assertTrue(file.setLastModified(System.currentTimeMillis() - 60_000));
+        return file;
+    }
+
+    private Map<String, String> createChecksums(String md5, String sha1) {
+        Map<String, String> checksums = new HashMap<>();
+        if (md5 != null) {
+            checksums.put(MD5_ALGORITHM, md5);
+        }
+        if (sha1 != null) {
+            checksums.put(SHA1_ALGORITHM, sha1);
+        }
+        return checksums;
+    }
+}
@@ -0,0 +1,53 @@
+package org.jfrog.build.api.util;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Random;
+
+import static org.jfrog.build.api.util.FileChecksumCalculator.*;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests the behavior of the parallel checksum calculator
+ */
+@Test
+public class ParallelChecksumCalculatorTest {
+    private static final int CHUNK_SIZE = 1024;
+
+    @DataProvider
+    private Object[][] fileSizesProvider() {
+        return new Object[][]{
+                {0},
+                {1},
+                {CHUNK_SIZE - 1},
+                {CHUNK_SIZE},
+                {CHUNK_SIZE + 1},
+                {CHUNK_SIZE * 10},
+                {CHUNK_SIZE * 10 + 7},
+        };
+    }
+
+    @Test(dataProvider = "fileSizesProvider")
+    public void testChecksums(int fileSize) throws IOException, NoSuchAlgorithmException {
+        byte[] content = new byte[fileSize];
+        new Random(fileSize).nextBytes(content);
+        File file = File.createTempFile("parallel-checksum", "test");
+        try {
+            Files.write(file.toPath(), content);
+            Map<String, String> checksums = new ParallelChecksumCalculator(CHUNK_SIZE)
+                    .calculate(file, MD5_ALGORITHM, SHA1_ALGORITHM, SHA256_ALGORITHM);
+            assertEquals(checksums.get(MD5_ALGORITHM), DigestUtils.md5Hex(content));
+            assertEquals(checksums.get(SHA1_ALGORITHM), DigestUtils.sha1Hex(content));
+            assertEquals(checksums.get(SHA256_ALGORITHM), DigestUtils.sha256Hex(content));
+        } finally {
+            Files.delete(file.toPath());
+        }
+    }
+}
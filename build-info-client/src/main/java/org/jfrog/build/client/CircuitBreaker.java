@@ -0,0 +1,121 @@
+package org.jfrog.build.client;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker of a host. Each {@link PreemptiveHttpClient} keeps a circuit breaker per host, shared by the threads
+ * sending requests through it.
+ * After a number of consecutive failures, the circuit opens for a cooldown period, during which new requests and
+ * retries wait instead of adding load to an overloaded or restarting server. After the cooldown, the circuit is
+ * half-open: a single request is sent as a probe while the others keep waiting. A successful probe closes the circuit,
+ * and a failed one opens it again. If the probe doesn't report its result within the cooldown period, another request
+ * is sent as a probe.
+ * <p>
+ * Configuration is done using system properties:
+ * <ul>
+ * <li>{@value #PROP_THRESHOLD} - Number of consecutive failures which open the circuit. Set to 0 to disable the
+ * circuit breaker. Default: {@value #DEFAULT_THRESHOLD}.</li>
+ * <li>{@value #PROP_COOLDOWN_MS} - Cooldown period in milliseconds. Default: {@value #DEFAULT_COOLDOWN_MS}.</li>
+ * </ul>
+ */
+public class CircuitBreaker {
+    public static final String PROP_THRESHOLD = PreemptiveHttpClientBuilder.HTTP_PREFIX + "circuitBreakerThreshold";
+    public static final String PROP_COOLDOWN_MS = PreemptiveHttpClientBuilder.HTTP_PREFIX + "circuitBreakerCooldownMs";
+    public static final int DEFAULT_THRESHOLD = 5;
+    public static final long DEFAULT_COOLDOWN_MS = 10000;
+
+    private enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int threshold;
+    private final long cooldownNanos;
+    private int consecutiveFailures;
+    private State state = State.CLOSED;
+    // The end of the cooldown while open, or the deadline of the probe while half-open
+    private long deadline;
+
+    public CircuitBreaker(int threshold, long cooldownMillis) {
+        this.threshold = threshold;
+        this.cooldownNanos = TimeUnit.MILLISECONDS.toNanos(cooldownMillis);
+    }
+
+    /**
+     * Returns a circuit breaker configured from system properties.
+     */
+    public static CircuitBreaker fromSystemProperties() {
+        return new CircuitBreaker((int) getLongProperty(PROP_THRESHOLD, DEFAULT_THRESHOLD),
+                getLongProperty(PROP_COOLDOWN_MS, DEFAULT_COOLDOWN_MS));
+    }
+
+    private static long getLongProperty(String key, long defaultValue) {
+        String value = System.getProperty(key);
+        return StringUtils.isNumeric(value) ? Long.parseLong(value) : defaultValue;
+    }
+
+    /**
+     * Records a successful request. A successful probe closes the circuit.
+     */
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) {
+            state = State.CLOSED;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Records a failed request. A failed probe opens the circuit again.
+     *
+     * @return true if the failure opened the circuit
+     */
+    public synchronized boolean recordFailure() {
+        if (threshold <= 0 || state == State.OPEN) {
+            return false;
+        }
+        if (state == State.CLOSED && ++consecutiveFailures < threshold) {
+            return false;
+        }
+        consecutiveFailures = 0;
+        state = State.OPEN;
+        deadline = System.nanoTime() + cooldownNanos;
+        return true;
+    }
+
+    /**
+     * Returns the remaining cooldown time, or 0 if the circuit is not open.
+     */
+    public synchronized long getRemainingOpenMillis() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        long remaining = deadline - System.nanoTime();
+        return remaining <= 0 ? 0 : Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining));
+    }
+
+    /**
+     * Waits until the circuit is closed, or until the caller may send the probe of a half-open circuit.
+     *
+     * @throws InterruptedIOException if interrupted while waiting
+     */
+    public synchronized void awaitClosed() throws InterruptedIOException {
+        try {
+            while (state != State.CLOSED) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    // The cooldown ended, or the previous probe didn't report its result in time
+                    state = State.HALF_OPEN;
+                    deadline = System.nanoTime() + cooldownNanos;
+                    return;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the circuit breaker to close");
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.jfrog.build.client;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with full jitter: the delay before a retry is random, between zero and the base delay
+ * multiplied by two to the power of the previous retries, and at most the maximum delay.
+ * A delay requested by the server is honored, up to the maximum delay.
+ * <p>
+ * Configuration is done using system properties:
+ * <ul>
+ * <li>{@value #PROP_BASE_DELAY_MS} - Base delay in milliseconds. Set to 0 to retry immediately.
+ * Default: {@value #DEFAULT_BASE_DELAY_MS}.</li>
+ * <li>{@value #PROP_MAX_DELAY_MS} - Maximum delay in milliseconds. Default: {@value #DEFAULT_MAX_DELAY_MS}.</li>
+ * </ul>
+ */
+public class ExponentialBackoffRetryPolicy implements RetryPolicy {
+    public static final String PROP_BASE_DELAY_MS = PreemptiveHttpClientBuilder.HTTP_PREFIX + "retryBaseDelayMs";
+    public static final String PROP_MAX_DELAY_MS = PreemptiveHttpClientBuilder.HTTP_PREFIX + "retryMaxDelayMs";
+    public static final long DEFAULT_BASE_DELAY_MS = 500;
+    public static final long DEFAULT_MAX_DELAY_MS = 30000;
+
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    public ExponentialBackoffRetryPolicy(long baseDelayMillis, long maxDelayMillis) {
+        this.baseDelayMillis = Math.max(0, baseDelayMillis);
+        this.maxDelayMillis = Math.max(0, maxDelayMillis);
+    }
+
+    public static ExponentialBackoffRetryPolicy fromSystemProperties() {
+        return new ExponentialBackoffRetryPolicy(getLongProperty(PROP_BASE_DELAY_MS, DEFAULT_BASE_DELAY_MS),
+                getLongProperty(PROP_MAX_DELAY_MS, DEFAULT_MAX_DELAY_MS));
+    }
+
+    private static long getLongProperty(String key, long defaultValue) {
+        String value = System.getProperty(key);
+        return StringUtils.isNumeric(value) ? Long.parseLong(value) : defaultValue;
+    }
+
+    @Override
+    public long getRetryDelayMillis(int attempt, long retryAfterMillis) {
+        if (retryAfterMillis >= 0) {
+            return Math.min(retryAfterMillis, maxDelayMillis);
+        }
+        if (baseDelayMillis == 0) {
+            return 0;
+        }
+        // Avoid overflow of the exponent
+        int exponent = Math.min(Math.max(attempt - 1, 0), 30);
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << exponent);
+        if (ceiling < 0 || ceiling > maxDelayMillis) {
+            ceiling = maxDelayMillis;
+        }
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ExponentialBackoffRetryPolicy that = (ExponentialBackoffRetryPolicy) o;
+        return baseDelayMillis == that.baseDelayMillis && maxDelayMillis == that.maxDelayMillis;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(baseDelayMillis, maxDelayMillis);
+    }
+}
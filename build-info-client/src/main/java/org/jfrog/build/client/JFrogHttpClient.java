@@ -20,8 +20,10 @@ public class JFrogHttpClient implements AutoCloseable {
     public static final int DEFAULT_CONNECTION_RETRY = 3;
     private final String url;
     private final PreemptiveHttpClientBuilder clientBuilder;
+    private final VersionCache<ArtifactoryVersion> artifactoryVersionCache = new VersionCache<>();
 
     private PreemptiveHttpClient deployClient;
+    private boolean sharedClient;
     private Log log;
 
     private JFrogHttpClient(String url, String username, String password, String accessToken, Log log) {
@@ -91,6 +93,10 @@ public class JFrogHttpClient implements AutoCloseable {
         clientBuilder.setSslContext(sslContext);
     }
 
+    public int getMaxConnectionsPerRoute() {
+        return clientBuilder.getMaxConnectionsPerRoute();
+    }
+
     public int getConnectionRetries() {
         return clientBuilder.connectionRetries;
     }
@@ -114,17 +120,26 @@ public class JFrogHttpClient implements AutoCloseable {
 
     /**
      * Release all connection and cleanup resources.
+     * A shared client is released, and is closed by the {@link PreemptiveHttpClientRegistry} once it's not in use.
      */
     @Override
-    public void close() {
-        if (deployClient != null) {
+    public synchronized void close() {
+        if (deployClient == null) {
+            return;
+        }
+        if (sharedClient) {
+            PreemptiveHttpClientRegistry.getInstance().release(deployClient);
+        } else {
             deployClient.close();
         }
+        deployClient = null;
     }
 
-    public PreemptiveHttpClient getHttpClient() {
+    public synchronized PreemptiveHttpClient getHttpClient() {
         if (deployClient == null) {
-            deployClient = clientBuilder.build();
+            sharedClient = PreemptiveHttpClientRegistry.isEnabled();
+            deployClient = sharedClient ?
+                    PreemptiveHttpClientRegistry.getInstance().acquire(url, clientBuilder) : clientBuilder.build();
         }
         return deployClient;
     }
@@ -134,7 +149,14 @@ public class JFrogHttpClient implements AutoCloseable {
         PreemptiveHttpClient client = getHttpClient();
         String url = request.getURI().toString();
         request.setURI(URI.create((this.url + "/" + StringUtils.removeStart(url, "/"))));
-        return client.execute(request);
+        return client.execute(request, log);
+    }
+
+    /**
+     * Returns the cache of the Artifactory version, shared by all the services executed by this client.
+     */
+    public VersionCache<ArtifactoryVersion> getArtifactoryVersionCache() {
+        return artifactoryVersionCache;
     }
 
     public Log getLog() {
@@ -10,6 +10,8 @@ import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.ServiceUnavailableRetryStrategy;
 import org.apache.http.client.methods.*;
 import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.client.utils.URIUtils;
 import org.apache.http.impl.auth.BasicScheme;
 import org.apache.http.impl.client.*;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
@@ -19,13 +21,20 @@ import org.jfrog.build.api.util.Log;
 
 import javax.net.ssl.SSLException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Date;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Wrapper of HttpClient that forces preemptive BASIC authentication if user credentials exist.
+ * Failed requests are retried after the delay of the {@link RetryPolicy}, and the failures are reported to the
+ * {@link CircuitBreaker} of the host. The circuit breakers are kept per client.
  *
  * @author Yossi Shaul
  */
@@ -36,16 +45,29 @@ public class PreemptiveHttpClient implements AutoCloseable {
      * Used for storing the original host name, before a redirect to a new URL, on the request context.
      */
     private static final String ORIGINAL_HOST_CONTEXT_PARAM = "original.host.context.param";
+    /**
+     * Used for storing the log of the caller on the request context, so a shared client logs to the caller's log.
+     */
+    private static final String LOG_CONTEXT_PARAM = "log.context.param";
+    private static final int SC_TOO_MANY_REQUESTS = 429;
     BasicCredentialsProvider basicCredentialsProvider;
     private final PoolingHttpClientConnectionManager connectionManager;
     private final String accessToken;
     private final AuthCache authCache;
     private final CloseableHttpClient httpClient;
     private final int connectionRetries;
+    private final RetryPolicy retryPolicy;
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
     private Log log;
 
     public PreemptiveHttpClient(PoolingHttpClientConnectionManager connectionManager, BasicCredentialsProvider credentialsProvider, String accessToken, AuthCache authCache, HttpClientBuilder clientBuilder, int connectionRetries, Log log) {
+        this(connectionManager, credentialsProvider, accessToken, authCache, clientBuilder, connectionRetries,
+                ExponentialBackoffRetryPolicy.fromSystemProperties(), log);
+    }
+
+    public PreemptiveHttpClient(PoolingHttpClientConnectionManager connectionManager, BasicCredentialsProvider credentialsProvider, String accessToken, AuthCache authCache, HttpClientBuilder clientBuilder, int connectionRetries, RetryPolicy retryPolicy, Log log) {
         this.connectionManager = connectionManager;
+        this.retryPolicy = retryPolicy;
         this.basicCredentialsProvider = credentialsProvider;
         this.accessToken = accessToken;
         this.authCache = authCache;
@@ -64,6 +86,19 @@ public class PreemptiveHttpClient implements AutoCloseable {
         return execute(request, clientContext);
     }
 
+    /**
+     * Executes the request, and logs its retries and redirects to the given log instead of the log of the client.
+     *
+     * @param request - The request to execute
+     * @param log     - The log of the caller
+     * @return the response
+     */
+    public CloseableHttpResponse execute(HttpUriRequest request, Log log) throws IOException {
+        HttpClientContext clientContext = HttpClientContext.create();
+        clientContext.setAttribute(LOG_CONTEXT_PARAM, log);
+        return execute(request, clientContext);
+    }
+
     public CloseableHttpResponse execute(HttpUriRequest request, HttpClientContext clientContext) throws IOException {
         if (StringUtils.isNotEmpty(accessToken)) {
             clientContext.setUserToken(accessToken);
@@ -73,7 +108,77 @@ public class PreemptiveHttpClient implements AutoCloseable {
         if (authCache != null) {
             clientContext.setAuthCache(authCache);
         }
-        return httpClient.execute(request, clientContext);
+        CircuitBreaker circuitBreaker = getCircuitBreaker(URIUtils.extractHost(request.getURI()));
+        if (circuitBreaker != null) {
+            circuitBreaker.awaitClosed();
+        }
+        CloseableHttpResponse response = httpClient.execute(request, clientContext);
+        if (circuitBreaker != null && !isRetriableStatus(response.getStatusLine().getStatusCode())) {
+            circuitBreaker.recordSuccess();
+        }
+        return response;
+    }
+
+    /**
+     * Returns the log of the request, or the log of the client if the request has none.
+     */
+    private Log getLog(HttpContext context) {
+        Log requestLog = (Log) context.getAttribute(LOG_CONTEXT_PARAM);
+        return requestLog != null ? requestLog : log;
+    }
+
+    private CircuitBreaker getCircuitBreaker(HttpHost host) {
+        return host == null ? null : circuitBreakers.computeIfAbsent(host.toHostString(), key -> CircuitBreaker.fromSystemProperties());
+    }
+
+    private static boolean isRetriableStatus(int statusCode) {
+        return statusCode >= 500 || statusCode == SC_TOO_MANY_REQUESTS;
+    }
+
+    /**
+     * Returns the delay requested by the Retry-After header, in seconds or as a date, or -1 if there is none.
+     */
+    static long getRetryAfterMillis(HttpResponse response) {
+        Header header = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+        if (header == null || StringUtils.isBlank(header.getValue())) {
+            return -1;
+        }
+        String value = header.getValue().trim();
+        if (StringUtils.isNumeric(value)) {
+            return Long.parseLong(value) * 1000;
+        }
+        Date date = DateUtils.parseDate(value);
+        return date == null ? -1 : Math.max(0, date.getTime() - System.currentTimeMillis());
+    }
+
+    /**
+     * Reports the failure to the circuit breaker of the target host, and returns the delay before the retry.
+     */
+    private long onRetriableFailure(HttpContext context, int executionCount, long retryAfterMillis) {
+        CircuitBreaker circuitBreaker = getCircuitBreaker(HttpClientContext.adapt(context).getTargetHost());
+        if (circuitBreaker != null && circuitBreaker.recordFailure()) {
+            getLog(context).warn("Too many consecutive failures of " + HttpClientContext.adapt(context).getTargetHost() +
+                    ". Pausing requests to it.");
+        }
+        return retryPolicy.getRetryDelayMillis(executionCount, retryAfterMillis);
+    }
+
+    /**
+     * Waits until the circuit breaker of the target host lets the retry through.
+     *
+     * @return false if interrupted while waiting
+     */
+    private boolean awaitCircuitClosed(HttpContext context) {
+        CircuitBreaker circuitBreaker = getCircuitBreaker(HttpClientContext.adapt(context).getTargetHost());
+        if (circuitBreaker == null) {
+            return true;
+        }
+        try {
+            circuitBreaker.awaitClosed();
+            return true;
+        } catch (InterruptedIOException e) {
+            return false;
+        }
     }
 
     @Override
@@ -86,6 +191,16 @@ public class PreemptiveHttpClient implements AutoCloseable {
         connectionManager.close();
     }
 
+    /**
+     * Closes the expired connections, and the connections which were idle for longer than the given time.
+     *
+     * @param idleTimeoutSecs - The idle time in seconds
+     */
+    void closeIdleConnections(long idleTimeoutSecs) {
+        connectionManager.closeExpiredConnections();
+        connectionManager.closeIdleConnections(idleTimeoutSecs, TimeUnit.SECONDS);
+    }
+
     public void setLog(Log log) {
         this.log = log;
     }
@@ -151,20 +266,25 @@ public class PreemptiveHttpClient implements AutoCloseable {
     }
 
     /**
-     * Class to handle retries when 5xx errors occurs.
+     * Class to handle retries when 5xx or 429 errors occurs.
      */
 
     private class PreemptiveRetryStrategy implements ServiceUnavailableRetryStrategy {
+        // The interval is requested by the executing thread right after retryRequest returns true
+        private final ThreadLocal<Long> retryInterval = new ThreadLocal<>();
 
         @Override
         public boolean retryRequest(HttpResponse response, int executionCount, HttpContext context) {
-            if (response.getStatusLine().getStatusCode() >= 500) {
+            if (isRetriableStatus(response.getStatusLine().getStatusCode())) {
                 HttpClientContext clientContext = HttpClientContext.adapt(context);
+                Log log = getLog(context);
                 log.warn("Error occurred for request " + clientContext.getRequest().getRequestLine().toString() +
                         ". Received status code " + response.getStatusLine().getStatusCode() +
                         " and message: " + response.getStatusLine().getReasonPhrase() + ".");
-                if (executionCount <= connectionRetries) {
-                    log.warn("Attempting retry #" + executionCount);
+                long delay = onRetriableFailure(context, executionCount, getRetryAfterMillis(response));
+                if (executionCount <= connectionRetries && awaitCircuitClosed(context)) {
+                    log.warn("Attempting retry #" + executionCount + (delay > 0 ? " in " + delay + " ms" : ""));
+                    retryInterval.set(delay);
                     return true;
                 }
             }
@@ -174,7 +294,9 @@ public class PreemptiveHttpClient implements AutoCloseable {
 
         @Override
         public long getRetryInterval() {
-            return 0;
+            Long interval = retryInterval.get();
+            retryInterval.remove();
+            return interval == null ? 0 : interval;
         }
     }
 
@@ -191,14 +313,24 @@ public class PreemptiveHttpClient implements AutoCloseable {
         @Override
         public boolean retryRequest(IOException exception, int executionCount, HttpContext context) {
             HttpClientContext clientContext = HttpClientContext.adapt(context);
+            Log log = getLog(context);
             log.warn("Error occurred for request " + clientContext.getRequest().getRequestLine().toString() + ": " + exception.getMessage() + ".");
             if (executionCount > connectionRetries) {
                 return false;
             }
             boolean shouldRetry = super.retryRequest(exception, executionCount, context);
             if (shouldRetry) {
-                log.warn("Attempting retry #" + executionCount);
-                return true;
+                long delay = onRetriableFailure(context, executionCount, -1);
+                log.warn("Attempting retry #" + executionCount + (delay > 0 ? " in " + delay + " ms" : ""));
+                if (delay > 0) {
+                    try {
+                        Thread.sleep(delay);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }
+                return awaitCircuitClosed(context);
             }
 
             return false;
@@ -221,6 +353,8 @@ public class PreemptiveHttpClient implements AutoCloseable {
                 HttpHead.METHOD_NAME.toLowerCase(),
                 HttpDelete.METHOD_NAME.toLowerCase(),
                 HttpPut.METHOD_NAME.toLowerCase());
+        // The log of the request, set by the executing thread while checking whether to redirect
+        private final ThreadLocal<Log> requestLog = new ThreadLocal<>();
 
         @Override
         public HttpUriRequest getRedirect(HttpRequest request, HttpResponse response, HttpContext context) throws ProtocolException {
@@ -228,7 +362,7 @@ public class PreemptiveHttpClient implements AutoCloseable {
             String originalHost = getHost(request);
             context.setAttribute(ORIGINAL_HOST_CONTEXT_PARAM, originalHost);
             URI uri = getLocationURI(request, response, context);
-            log.debug("Redirecting to " + uri);
+            getLog(context).debug("Redirecting to " + uri);
             return RequestBuilder.copy(request).setUri(uri).build();
         }
 
@@ -242,8 +376,19 @@ public class PreemptiveHttpClient implements AutoCloseable {
             return uri.getHost();
         }
 
+        @Override
+        public boolean isRedirected(HttpRequest request, HttpResponse response, HttpContext context) throws ProtocolException {
+            requestLog.set(getLog(context));
+            try {
+                return super.isRedirected(request, response, context);
+            } finally {
+                requestLog.remove();
+            }
+        }
+
         @Override
         protected boolean isRedirectable(String method) {
+            Log log = requestLog.get() != null ? requestLog.get() : PreemptiveHttpClient.this.log;
             String message = "The method " + method;
             if (redirectableMethods.contains(method.toLowerCase())) {
                 log.debug(message + " can be redirected.");
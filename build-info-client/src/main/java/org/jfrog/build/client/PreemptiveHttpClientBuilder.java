@@ -1,5 +1,7 @@
 package org.jfrog.build.client;
 
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpHost;
 import org.apache.http.auth.AuthScope;
@@ -36,12 +38,37 @@ import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Properties;
-
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds {@link PreemptiveHttpClient}s.
+ * <p>
+ * The connection pool is configured using system properties:
+ * <ul>
+ * <li>{@value #PROP_MAX_CONNECTIONS} - Maximum number of connections. Default: {@value #CONNECTION_POOL_SIZE}.</li>
+ * <li>{@value #PROP_MAX_CONNECTIONS_PER_ROUTE} - Maximum number of connections per route.
+ * Default: {@value #CONNECTION_POOL_SIZE}.</li>
+ * <li>{@value #PROP_IDLE_TIMEOUT_SECS} - Idle connections are closed after this number of seconds.
+ * Default: {@value #DEFAULT_IDLE_TIMEOUT_SECS}.</li>
+ * <li>{@value #PROP_CONNECTION_TTL_SECS} - Connections are not reused after this number of seconds.
+ * Default: unlimited.</li>
+ * </ul>
+ */
 public class PreemptiveHttpClientBuilder {
 
     public static final int CONNECTION_POOL_SIZE = 10;
+    public static final String HTTP_PREFIX = "buildInfo.http.";
+    public static final String PROP_MAX_CONNECTIONS = HTTP_PREFIX + "maxConnections";
+    public static final String PROP_MAX_CONNECTIONS_PER_ROUTE = HTTP_PREFIX + "maxConnectionsPerRoute";
+    public static final String PROP_IDLE_TIMEOUT_SECS = HTTP_PREFIX + "idleTimeoutSecs";
+    public static final String PROP_CONNECTION_TTL_SECS = HTTP_PREFIX + "connectionTtlSecs";
+    public static final int DEFAULT_IDLE_TIMEOUT_SECS = 60;
     private static final String CLIENT_VERSION;
 
     protected final BasicCredentialsProvider credentialsProvider = new BasicCredentialsProvider();
@@ -61,6 +88,11 @@ public class PreemptiveHttpClientBuilder {
     private boolean insecureTls;
     private HttpHost proxy;
     private int timeout;
+    private int maxConnections = getIntProperty(PROP_MAX_CONNECTIONS, CONNECTION_POOL_SIZE);
+    private int maxConnectionsPerRoute = getIntProperty(PROP_MAX_CONNECTIONS_PER_ROUTE, CONNECTION_POOL_SIZE);
+    private int idleTimeoutSecs = getIntProperty(PROP_IDLE_TIMEOUT_SECS, DEFAULT_IDLE_TIMEOUT_SECS);
+    private int connectionTtlSecs = getIntProperty(PROP_CONNECTION_TTL_SECS, -1);
+    private RetryPolicy retryPolicy = ExponentialBackoffRetryPolicy.fromSystemProperties();
 
     static {
         // initialize client version
@@ -73,6 +105,11 @@ public class PreemptiveHttpClientBuilder {
         CLIENT_VERSION = properties.getProperty("client.version", "unknown");
     }
 
+    private static int getIntProperty(String key, int defaultValue) {
+        String value = System.getProperty(key);
+        return StringUtils.isNumeric(value) ? Integer.parseInt(value) : defaultValue;
+    }
+
     public PreemptiveHttpClientBuilder setUserAgent(String userAgent) {
         this.userAgent = userAgent;
         return this;
@@ -135,11 +172,87 @@ public class PreemptiveHttpClientBuilder {
         return this;
     }
 
+    public PreemptiveHttpClientBuilder setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+        return this;
+    }
+
+    public PreemptiveHttpClientBuilder setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        return this;
+    }
+
+    /**
+     * @param idleTimeoutSecs - Idle connections are closed after this number of seconds. Zero or negative to keep them.
+     */
+    public PreemptiveHttpClientBuilder setIdleTimeoutSecs(int idleTimeoutSecs) {
+        this.idleTimeoutSecs = idleTimeoutSecs;
+        return this;
+    }
+
+    /**
+     * @param connectionTtlSecs - Connections are not reused after this number of seconds. Zero or negative for unlimited.
+     */
+    public PreemptiveHttpClientBuilder setConnectionTtlSecs(int connectionTtlSecs) {
+        this.connectionTtlSecs = connectionTtlSecs;
+        return this;
+    }
+
+    public PreemptiveHttpClientBuilder setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public int getIdleTimeoutSecs() {
+        return idleTimeoutSecs;
+    }
+
+    /**
+     * Returns the settings which affect the built clients. Builders with equal keys build equivalent clients.
+     * The credentials are included as a hash, so the key can be kept without holding them in plaintext.
+     */
+    List<Object> getConfigurationKey() {
+        List<Object> proxyKey = proxyConfiguration == null ? null : Arrays.asList(proxyConfiguration.host,
+                proxyConfiguration.port, hashCredentials(proxyConfiguration.username, proxyConfiguration.password));
+        return Arrays.asList(hashCredentials(userName, password, accessToken), noAnonymousUser, proxyKey, insecureTls,
+                sslContext, timeout, connectionRetries, userAgent, maxConnections, maxConnectionsPerRoute,
+                idleTimeoutSecs, connectionTtlSecs, retryPolicy);
+    }
+
+    private static String hashCredentials(String... credentials) {
+        MessageDigest digest = DigestUtils.getSha256Digest();
+        for (String credential : credentials) {
+            digest.update(String.valueOf(credential).getBytes(StandardCharsets.UTF_8));
+            // Separate the values, so different credentials can't have the same concatenation
+            digest.update((byte) 0);
+        }
+        return Hex.encodeHexString(digest.digest());
+    }
+
     public PreemptiveHttpClient build() {
+        return build(log, true);
+    }
+
+    /**
+     * Builds a client.
+     *
+     * @param log              - The default log of the client
+     * @param evictConnections - True to close the idle connections of the client in a background thread of its own
+     * @return the client
+     */
+    PreemptiveHttpClient build(Log log, boolean evictConnections) {
         buildConnectionManager();
         HttpClientBuilder httpClientBuilder = createHttpClientBuilder();
+        if (evictConnections && idleTimeoutSecs > 0) {
+            // Close idle connections in the background, so an unused pool doesn't hold open sockets
+            httpClientBuilder.evictExpiredConnections().evictIdleConnections(idleTimeoutSecs, TimeUnit.SECONDS);
+        }
         createCredentialsAndAuthCache();
-        return new PreemptiveHttpClient(connectionManager, credentialsProvider, accessToken, authCache, httpClientBuilder, connectionRetries, log);
+        return new PreemptiveHttpClient(connectionManager, credentialsProvider, accessToken, authCache, httpClientBuilder, connectionRetries, retryPolicy, log);
     }
 
     /**
@@ -178,8 +291,8 @@ public class PreemptiveHttpClientBuilder {
         } catch (GeneralSecurityException e) {
             throw new RuntimeException(e);
         }
-        connectionManager.setMaxTotal(CONNECTION_POOL_SIZE);
-        connectionManager.setDefaultMaxPerRoute(CONNECTION_POOL_SIZE);
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
     }
 
     /**
@@ -224,9 +337,10 @@ public class PreemptiveHttpClientBuilder {
      * @throws GeneralSecurityException - In case of an error during the creation of the SSL context of the insecure TLS strategy
      */
     private PoolingHttpClientConnectionManager createConnectionManager() throws GeneralSecurityException {
+        long connectionTtl = connectionTtlSecs > 0 ? connectionTtlSecs : -1;
         if (!insecureTls && sslContext == null) {
             // Return default connection manager
-            return new PoolingHttpClientConnectionManager();
+            return new PoolingHttpClientConnectionManager(connectionTtl, TimeUnit.SECONDS);
         }
         SSLConnectionSocketFactory sslConnectionSocketFactory;
         HostnameVerifier hostnameVerifier = new DefaultHostnameVerifier();
@@ -243,7 +357,7 @@ public class PreemptiveHttpClientBuilder {
                 .register("http", PlainConnectionSocketFactory.getSocketFactory())
                 .register("https", sslConnectionSocketFactory)
                 .build();
-        return new PoolingHttpClientConnectionManager(socketFactoryRegistry);
+        return new PoolingHttpClientConnectionManager(socketFactoryRegistry, null, null, null, connectionTtl, TimeUnit.SECONDS);
     }
 
     /**
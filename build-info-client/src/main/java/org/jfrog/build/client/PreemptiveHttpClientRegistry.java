@@ -0,0 +1,168 @@
+package org.jfrog.build.client;
+
+import org.jfrog.build.api.util.NullLog;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-wide registry of reference-counted {@link PreemptiveHttpClient}s.
+ * Clients with the same URL, credentials, proxy, TLS and pool settings share a single client and connection pool, so
+ * consecutive Artifactory managers reuse warm connections instead of opening new connections and TLS sessions.
+ * <p>
+ * A released client stays open for the idle timeout of its pool, and is closed after that unless it was acquired
+ * again. A single background thread of the registry closes the idle connections of the shared clients and the expired
+ * clients, every {@value #EVICTION_INTERVAL_SECS} seconds. It runs only while the registry holds clients.
+ * <p>
+ * Shared clients don't keep the log of the builder which created them. Callers should pass their own log to
+ * {@link PreemptiveHttpClient#execute(org.apache.http.client.methods.HttpUriRequest, org.jfrog.build.api.util.Log)}.
+ * <p>
+ * Set the {@value #PROP_SHARED_CLIENTS} system property to false to build a separate client for each Artifactory
+ * manager.
+ */
+public class PreemptiveHttpClientRegistry {
+    public static final String PROP_SHARED_CLIENTS = PreemptiveHttpClientBuilder.HTTP_PREFIX + "sharedClients";
+
+    static final int EVICTION_INTERVAL_SECS = 5;
+
+    private static final PreemptiveHttpClientRegistry instance = new PreemptiveHttpClientRegistry();
+
+    private final Map<List<Object>, SharedClient> clients = new HashMap<>();
+    private ScheduledExecutorService evictor;
+
+    PreemptiveHttpClientRegistry() {
+    }
+
+    public static PreemptiveHttpClientRegistry getInstance() {
+        return instance;
+    }
+
+    public static boolean isEnabled() {
+        return !Boolean.FALSE.toString().equalsIgnoreCase(System.getProperty(PROP_SHARED_CLIENTS));
+    }
+
+    /**
+     * Returns a client built by the builder, or a shared client built by an equivalent builder.
+     * Each call must be followed by a call to {@link #release(PreemptiveHttpClient)} once the client is not needed.
+     *
+     * @param url     - The server URL
+     * @param builder - The client builder
+     * @return the shared client
+     */
+    public synchronized PreemptiveHttpClient acquire(String url, PreemptiveHttpClientBuilder builder) {
+        closeExpiredClients();
+        List<Object> key = new ArrayList<>(builder.getConfigurationKey());
+        key.add(url);
+        SharedClient sharedClient = clients.get(key);
+        if (sharedClient == null) {
+            sharedClient = new SharedClient(builder.build(new NullLog(), false), builder.getIdleTimeoutSecs());
+            clients.put(key, sharedClient);
+            startEvictor();
+        }
+        sharedClient.references++;
+        return sharedClient.client;
+    }
+
+    /**
+     * Releases a client returned by {@link #acquire(String, PreemptiveHttpClientBuilder)}.
+     *
+     * @param client - The client to release
+     */
+    public synchronized void release(PreemptiveHttpClient client) {
+        for (SharedClient sharedClient : clients.values()) {
+            if (sharedClient.client == client && sharedClient.references > 0) {
+                sharedClient.references--;
+                sharedClient.releaseTime = System.nanoTime();
+                break;
+            }
+        }
+        closeExpiredClients();
+    }
+
+    /**
+     * Closes all the clients which are not in use.
+     */
+    public synchronized void closeUnusedClients() {
+        Iterator<SharedClient> iterator = clients.values().iterator();
+        while (iterator.hasNext()) {
+            SharedClient sharedClient = iterator.next();
+            if (sharedClient.references == 0) {
+                sharedClient.client.close();
+                iterator.remove();
+            }
+        }
+        stopEvictorIfEmpty();
+    }
+
+    synchronized int size() {
+        return clients.size();
+    }
+
+    synchronized boolean isEvictorRunning() {
+        return evictor != null;
+    }
+
+    /**
+     * Closes the expired clients, and the idle connections of the others.
+     */
+    synchronized void evict() {
+        closeExpiredClients();
+        for (SharedClient sharedClient : clients.values()) {
+            if (sharedClient.idleTimeoutSecs > 0) {
+                sharedClient.client.closeIdleConnections(sharedClient.idleTimeoutSecs);
+            }
+        }
+    }
+
+    private void startEvictor() {
+        if (evictor != null) {
+            return;
+        }
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "http-client-registry-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(this::evict, EVICTION_INTERVAL_SECS, EVICTION_INTERVAL_SECS, TimeUnit.SECONDS);
+    }
+
+    private void stopEvictorIfEmpty() {
+        if (evictor != null && clients.isEmpty()) {
+            evictor.shutdown();
+            evictor = null;
+        }
+    }
+
+    private void closeExpiredClients() {
+        long now = System.nanoTime();
+        Iterator<SharedClient> iterator = clients.values().iterator();
+        while (iterator.hasNext()) {
+            SharedClient sharedClient = iterator.next();
+            if (sharedClient.references == 0 && now - sharedClient.releaseTime >= sharedClient.keepAliveNanos) {
+                sharedClient.client.close();
+                iterator.remove();
+            }
+        }
+        stopEvictorIfEmpty();
+    }
+
+    private static class SharedClient {
+        private final PreemptiveHttpClient client;
+        private final int idleTimeoutSecs;
+        private final long keepAliveNanos;
+        private int references;
+        private long releaseTime;
+
+        private SharedClient(PreemptiveHttpClient client, int idleTimeoutSecs) {
+            this.client = client;
+            this.idleTimeoutSecs = idleTimeoutSecs;
+            this.keepAliveNanos = TimeUnit.SECONDS.toNanos(Math.max(0, idleTimeoutSecs));
+        }
+    }
+}
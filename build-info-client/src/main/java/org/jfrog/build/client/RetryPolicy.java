@@ -0,0 +1,17 @@
+package org.jfrog.build.client;
+
+/**
+ * Decides how long to wait before retrying a failed request.
+ */
+public interface RetryPolicy {
+
+    /**
+     * Returns the delay before the given retry.
+     *
+     * @param attempt          - The retry number, starting from 1
+     * @param retryAfterMillis - The delay requested by the server in the Retry-After header, or a negative number if
+     *                         the server didn't request a delay
+     * @return the delay in milliseconds
+     */
+    long getRetryDelayMillis(int attempt, long retryAfterMillis);
+}
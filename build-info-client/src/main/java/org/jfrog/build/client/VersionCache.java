@@ -0,0 +1,70 @@
+package org.jfrog.build.client;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Memoizes the version of a server for a limited time, so version-gated requests don't query the version every time.
+ * Concurrent callers wait for a single version request. Failures are not cached.
+ * <p>
+ * The time to live is configured using the {@value #PROP_TTL_SECONDS} system property.
+ * Default: {@value #DEFAULT_TTL_SECONDS} seconds. Set to 0 to disable the cache.
+ *
+ * @param <T> - The version type
+ */
+public class VersionCache<T extends Version> {
+    public static final String PROP_TTL_SECONDS = "buildInfo.versionCache.ttlSeconds";
+    public static final long DEFAULT_TTL_SECONDS = 600;
+
+    private final long ttlNanos;
+    private T version;
+    private long expiration;
+
+    /**
+     * Fetches the version from the server.
+     */
+    public interface VersionFetcher<T> {
+        T fetch() throws IOException;
+    }
+
+    public VersionCache() {
+        this(getTtlSecondsFromSystemProperties(), TimeUnit.SECONDS);
+    }
+
+    public VersionCache(long ttl, TimeUnit unit) {
+        this.ttlNanos = unit.toNanos(ttl);
+    }
+
+    private static long getTtlSecondsFromSystemProperties() {
+        String value = System.getProperty(PROP_TTL_SECONDS);
+        return StringUtils.isNumeric(value) ? Long.parseLong(value) : DEFAULT_TTL_SECONDS;
+    }
+
+    /**
+     * Returns the cached version, or fetches it if it's missing or expired.
+     *
+     * @param fetcher - Fetches the version from the server
+     * @return the version
+     * @throws IOException in case of an error fetching the version
+     */
+    public synchronized T get(VersionFetcher<T> fetcher) throws IOException {
+        if (version != null && System.nanoTime() - expiration < 0) {
+            return version;
+        }
+        T fetched = fetcher.fetch();
+        if (ttlNanos > 0) {
+            version = fetched;
+            expiration = System.nanoTime() + ttlNanos;
+        }
+        return fetched;
+    }
+
+    /**
+     * Removes the cached version, so the next call fetches it again.
+     */
+    public synchronized void invalidate() {
+        version = null;
+    }
+}
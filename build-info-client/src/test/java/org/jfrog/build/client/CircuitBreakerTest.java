@@ -0,0 +1,89 @@
+package org.jfrog.build.client;
+
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.testng.Assert.*;
+
+@Test
+public class CircuitBreakerTest {
+
+    public void testOpensAfterConsecutiveFailures() throws IOException {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(3, 200);
+        assertFalse(circuitBreaker.recordFailure());
+        assertFalse(circuitBreaker.recordFailure());
+        // A success resets the consecutive failures
+        circuitBreaker.recordSuccess();
+        assertFalse(circuitBreaker.recordFailure());
+        assertFalse(circuitBreaker.recordFailure());
+        assertEquals(circuitBreaker.getRemainingOpenMillis(), 0);
+        assertTrue(circuitBreaker.recordFailure());
+        assertTrue(circuitBreaker.getRemainingOpenMillis() > 0);
+
+        long start = System.nanoTime();
+        circuitBreaker.awaitClosed();
+        assertTrue(System.nanoTime() - start >= 150_000_000L);
+        assertEquals(circuitBreaker.getRemainingOpenMillis(), 0);
+    }
+
+    public void testDisabled() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(0, 200);
+        for (int i = 0; i < 10; i++) {
+            assertFalse(circuitBreaker.recordFailure());
+        }
+        assertEquals(circuitBreaker.getRemainingOpenMillis(), 0);
+    }
+
+    public void testHalfOpenLetsOneProbeThrough() throws Exception {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, 100);
+        assertTrue(circuitBreaker.recordFailure());
+        // The first caller after the cooldown is the probe
+        circuitBreaker.awaitClosed();
+
+        AtomicBoolean waiterPassed = new AtomicBoolean();
+        Thread waiter = new Thread(() -> {
+            try {
+                circuitBreaker.awaitClosed();
+                waiterPassed.set(true);
+            } catch (InterruptedIOException e) {
+                // Fail below
+            }
+        });
+        waiter.start();
+        waiter.join(50);
+        assertFalse(waiterPassed.get());
+
+        // A successful probe closes the circuit and releases the waiting callers
+        circuitBreaker.recordSuccess();
+        waiter.join(TimeUnit.SECONDS.toMillis(10));
+        assertTrue(waiterPassed.get());
+    }
+
+    public void testFailedProbeReopens() throws IOException {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(3, 100);
+        assertFalse(circuitBreaker.recordFailure());
+        assertFalse(circuitBreaker.recordFailure());
+        assertTrue(circuitBreaker.recordFailure());
+        circuitBreaker.awaitClosed();
+        assertEquals(circuitBreaker.getRemainingOpenMillis(), 0);
+
+        // A single failure of the probe opens the circuit again
+        assertTrue(circuitBreaker.recordFailure());
+        assertTrue(circuitBreaker.getRemainingOpenMillis() > 0);
+    }
+
+    public void testProbeWithoutResult() throws IOException {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, 100);
+        assertTrue(circuitBreaker.recordFailure());
+        circuitBreaker.awaitClosed();
+
+        // Another probe is sent if the first doesn't report its result within the cooldown
+        long start = System.nanoTime();
+        circuitBreaker.awaitClosed();
+        assertTrue(System.nanoTime() - start >= 50_000_000L);
+    }
+}
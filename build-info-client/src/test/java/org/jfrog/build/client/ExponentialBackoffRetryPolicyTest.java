@@ -0,0 +1,32 @@
+package org.jfrog.build.client;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+@Test
+public class ExponentialBackoffRetryPolicyTest {
+
+    public void testDelayIsBounded() {
+        ExponentialBackoffRetryPolicy retryPolicy = new ExponentialBackoffRetryPolicy(100, 1000);
+        for (int attempt = 1; attempt <= 40; attempt++) {
+            long ceiling = Math.min(1000, 100L << Math.min(attempt - 1, 30));
+            for (int i = 0; i < 100; i++) {
+                long delay = retryPolicy.getRetryDelayMillis(attempt, -1);
+                assertTrue(delay >= 0 && delay <= ceiling, "Attempt " + attempt + " delay " + delay);
+            }
+        }
+    }
+
+    public void testRetryAfterIsHonored() {
+        ExponentialBackoffRetryPolicy retryPolicy = new ExponentialBackoffRetryPolicy(100, 1000);
+        assertEquals(retryPolicy.getRetryDelayMillis(1, 700), 700);
+        // Capped by the maximum delay
+        assertEquals(retryPolicy.getRetryDelayMillis(1, 5000), 1000);
+        assertEquals(retryPolicy.getRetryDelayMillis(3, 0), 0);
+    }
+
+    public void testNoBackoff() {
+        assertEquals(new ExponentialBackoffRetryPolicy(0, 1000).getRetryDelayMillis(5, -1), 0);
+    }
+}
@@ -0,0 +1,113 @@
+package org.jfrog.build.client;
+
+import org.jfrog.build.api.util.NullLog;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+@Test
+public class PreemptiveHttpClientRegistryTest {
+    private static final String URL = "http://localhost:8081/artifactory";
+
+    private PreemptiveHttpClientRegistry registry;
+    private List<PreemptiveHttpClient> acquired;
+
+    @BeforeMethod
+    public void setUp() {
+        registry = new PreemptiveHttpClientRegistry();
+        acquired = new ArrayList<>();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        acquired.forEach(registry::release);
+        registry.closeUnusedClients();
+    }
+
+    public void testEquivalentClientsAreShared() {
+        PreemptiveHttpClient first = acquire(URL, createBuilder("user", 60));
+        PreemptiveHttpClient second = acquire(URL, createBuilder("user", 60));
+        assertSame(first, second);
+
+        // A different user, URL or pool configuration gets a separate client
+        assertNotSame(acquire(URL, createBuilder("other-user", 60)), first);
+        assertNotSame(acquire(URL + "2", createBuilder("user", 60)), first);
+        assertNotSame(acquire(URL, createBuilder("user", 60).setMaxConnections(20)), first);
+        assertEquals(registry.size(), 4);
+    }
+
+    public void testReleasedClientIsReused() {
+        PreemptiveHttpClient first = registry.acquire(URL, createBuilder("user", 60));
+        registry.release(first);
+        // The client stays open for its idle timeout
+        assertSame(acquire(URL, createBuilder("user", 60)), first);
+    }
+
+    public void testUnusedClientIsClosed() {
+        PreemptiveHttpClient first = registry.acquire(URL, createBuilder("user", 0));
+        PreemptiveHttpClient second = registry.acquire(URL, createBuilder("user", 0));
+        registry.release(first);
+        assertEquals(registry.size(), 1);
+        registry.release(second);
+        assertEquals(registry.size(), 0);
+        assertNotSame(acquire(URL, createBuilder("user", 0)), first);
+    }
+
+    public void testCredentialsAreHashed() {
+        PreemptiveHttpClientBuilder builder = createBuilder("user", 60).setAccessToken("token");
+        ProxyConfiguration proxyConfiguration = new ProxyConfiguration();
+        proxyConfiguration.host = "proxy.example.com";
+        proxyConfiguration.port = 8888;
+        proxyConfiguration.username = "proxy-user";
+        proxyConfiguration.password = "proxy-password";
+        builder.setProxyConfiguration(proxyConfiguration);
+        String key = builder.getConfigurationKey().toString();
+        for (String credential : new String[]{"user", "password", "token", "proxy-user", "proxy-password"}) {
+            assertFalse(key.contains(credential), key);
+        }
+        assertNotEquals(createBuilder("user", 60).setPassword("other").getConfigurationKey(),
+                createBuilder("user", 60).getConfigurationKey());
+    }
+
+    public void testEvictorRunsWhileClientsExist() {
+        assertFalse(registry.isEvictorRunning());
+        PreemptiveHttpClient first = registry.acquire(URL, createBuilder("user", 0));
+        acquire(URL, createBuilder("other-user", 60));
+        assertTrue(registry.isEvictorRunning());
+        registry.release(first);
+        registry.evict();
+        assertEquals(registry.size(), 1);
+        assertTrue(registry.isEvictorRunning());
+        registry.closeUnusedClients();
+        assertTrue(registry.isEvictorRunning());
+    }
+
+    public void testEvictorStopsWhenEmpty() {
+        PreemptiveHttpClient client = registry.acquire(URL, createBuilder("user", 0));
+        assertTrue(registry.isEvictorRunning());
+        registry.release(client);
+        assertEquals(registry.size(), 0);
+        assertFalse(registry.isEvictorRunning());
+    }
+
+    private PreemptiveHttpClient acquire(String url, PreemptiveHttpClientBuilder builder) {
+        PreemptiveHttpClient client = registry.acquire(url, builder);
+        acquired.add(client);
+        return client;
+    }
+
+    private PreemptiveHttpClientBuilder createBuilder(String user, int idleTimeoutSecs) {
+        return new PreemptiveHttpClientBuilder()
+                .setConnectionRetries(3)
+                .setTimeout(300)
+                .setLog(new NullLog())
+                .setUserName(user)
+                .setPassword("password")
+                .setIdleTimeoutSecs(idleTimeoutSecs);
+    }
+}
@@ -0,0 +1,102 @@
+package org.jfrog.build.client;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.message.BasicHttpResponse;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.api.util.NullLog;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+@Test
+public class PreemptiveHttpClientTest {
+
+    public void testRetryAfterHeader() {
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 503, "Service Unavailable");
+        assertEquals(PreemptiveHttpClient.getRetryAfterMillis(response), -1);
+        response.setHeader(HttpHeaders.RETRY_AFTER, "3");
+        assertEquals(PreemptiveHttpClient.getRetryAfterMillis(response), 3000);
+        response.setHeader(HttpHeaders.RETRY_AFTER, DateUtils.formatDate(new Date(System.currentTimeMillis() + 60_000)));
+        long delay = PreemptiveHttpClient.getRetryAfterMillis(response);
+        assertTrue(delay > 50_000 && delay <= 60_000, String.valueOf(delay));
+        response.setHeader(HttpHeaders.RETRY_AFTER, "invalid");
+        assertEquals(PreemptiveHttpClient.getRetryAfterMillis(response), -1);
+    }
+
+    public void testTooManyRequestsIsRetriedAfterDelay() throws IOException {
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            if (requests.incrementAndGet() == 1) {
+                exchange.getResponseHeaders().add(HttpHeaders.RETRY_AFTER, "1");
+                exchange.sendResponseHeaders(429, -1);
+            } else {
+                exchange.sendResponseHeaders(200, -1);
+            }
+            exchange.close();
+        });
+        server.start();
+        PreemptiveHttpClientBuilder builder = new PreemptiveHttpClientBuilder()
+                .setConnectionRetries(3)
+                .setTimeout(30)
+                .setLog(new NullLog())
+                .setRetryPolicy(new ExponentialBackoffRetryPolicy(0, 5000));
+        try (PreemptiveHttpClient client = builder.build()) {
+            long start = System.nanoTime();
+            String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/api/system/ping";
+            try (CloseableHttpResponse response = client.execute(new HttpGet(url))) {
+                assertEquals(response.getStatusLine().getStatusCode(), 200);
+            }
+            assertEquals(requests.get(), 2);
+            assertTrue(System.nanoTime() - start >= 900_000_000L);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    public void testRequestLog() throws IOException {
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(requests.incrementAndGet() == 1 ? 503 : 200, -1);
+            exchange.close();
+        });
+        server.start();
+        PreemptiveHttpClientBuilder builder = new PreemptiveHttpClientBuilder()
+                .setConnectionRetries(3)
+                .setTimeout(30)
+                .setLog(new NullLog())
+                .setRetryPolicy(new ExponentialBackoffRetryPolicy(0, 0));
+        List<String> warnings = new ArrayList<>();
+        Log requestLog = new NullLog() {
+            @Override
+            public void warn(String message) {
+                warnings.add(message);
+            }
+        };
+        try (PreemptiveHttpClient client = builder.build()) {
+            String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/api/system/ping";
+            try (CloseableHttpResponse response = client.execute(new HttpGet(url), requestLog)) {
+                assertEquals(response.getStatusLine().getStatusCode(), 200);
+            }
+            // The retry is logged to the log of the request rather than to the log of the client
+            assertFalse(warnings.isEmpty());
+            assertTrue(warnings.get(0).contains("503"), warnings.get(0));
+        } finally {
+            server.stop(0);
+        }
+    }
+}
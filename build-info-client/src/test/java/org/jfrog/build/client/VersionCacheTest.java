@@ -0,0 +1,50 @@
+package org.jfrog.build.client;
+
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+@Test
+public class VersionCacheTest {
+
+    public void testVersionIsMemoized() throws IOException {
+        VersionCache<ArtifactoryVersion> cache = new VersionCache<>(1, TimeUnit.HOURS);
+        AtomicInteger requests = new AtomicInteger();
+        for (int i = 0; i < 5; i++) {
+            ArtifactoryVersion version = cache.get(() -> {
+                requests.incrementAndGet();
+                return new ArtifactoryVersion("7.41.0");
+            });
+            assertEquals(version.toString(), "7.41.0");
+        }
+        assertEquals(requests.get(), 1);
+
+        cache.invalidate();
+        cache.get(() -> {
+            requests.incrementAndGet();
+            return new ArtifactoryVersion("7.41.0");
+        });
+        assertEquals(requests.get(), 2);
+    }
+
+    public void testExpiredVersionIsFetchedAgain() throws IOException {
+        VersionCache<ArtifactoryVersion> cache = new VersionCache<>(0, TimeUnit.SECONDS);
+        AtomicInteger requests = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            cache.get(() -> new ArtifactoryVersion(String.valueOf(requests.incrementAndGet())));
+        }
+        assertEquals(requests.get(), 3);
+    }
+
+    public void testFailureIsNotCached() throws IOException {
+        VersionCache<ArtifactoryVersion> cache = new VersionCache<>(1, TimeUnit.HOURS);
+        assertThrows(IOException.class, () -> cache.get(() -> {
+            throw new IOException("Connection refused");
+        }));
+        assertEquals(cache.get(() -> new ArtifactoryVersion("7.41.0")).toString(), "7.41.0");
+    }
+}
@@ -1,12 +1,12 @@
 package org.jfrog.build.extractor.docker.extractor;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.jfrog.build.api.multiMap.ListMultimap;
 import org.jfrog.build.api.multiMap.Multimap;
 import org.jfrog.build.api.util.Log;
+import org.jfrog.build.extractor.JsonMappers;
 import org.jfrog.build.extractor.ci.BuildInfo;
 import org.jfrog.build.extractor.ci.Module;
 import org.jfrog.build.extractor.clientConfiguration.ArtifactoryClientConfiguration;
@@ -31,7 +31,6 @@ import java.util.Objects;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static org.jfrog.build.extractor.BuildInfoExtractorUtils.createMapper;
 import static org.jfrog.build.extractor.packageManager.PackageManagerUtils.createArtifactoryClientConfiguration;
 
 public class BuildDockerCreator extends PackageManagerExtractor {
@@ -181,7 +180,6 @@ public class BuildDockerCreator extends PackageManagerExtractor {
      * @return the image file with names and digests extracted.
      */
     private List<ImageFileWithDigest> getJibImageFilesWithDigests(String jibImageFiles) {
-        ObjectMapper mapper = createMapper();
         String baseDir = UploadSpecHelper.getWildcardBaseDir(new File(""), jibImageFiles);
         String newPattern = UploadSpecHelper.prepareWildcardPattern(new File(""), jibImageFiles, baseDir);
         String regexPath = PathsUtils.pathToRegExp(newPattern);
@@ -193,7 +191,7 @@ public class BuildDockerCreator extends PackageManagerExtractor {
             files.forEach(jibImageFile -> {
                 JsonNode jsonNode;
                 try {
-                    jsonNode = mapper.readTree(jibImageFile.toFile());
+                    jsonNode = JsonMappers.getMapper().readTree(jibImageFile.toFile());
                 } catch (IOException e) {
                     throw new RuntimeException("Couldn't read image file \"" + jibImageFiles + "\".");
                 }
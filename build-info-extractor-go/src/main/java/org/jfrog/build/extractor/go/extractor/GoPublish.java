@@ -1,6 +1,5 @@
 package org.jfrog.build.extractor.go.extractor;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
@@ -10,6 +9,7 @@ import org.jfrog.build.api.multiMap.Multimap;
 import org.jfrog.build.api.util.FileChecksumCalculator;
 import org.jfrog.build.api.util.Log;
 import org.jfrog.build.client.ArtifactoryUploadResponse;
+import org.jfrog.build.extractor.JsonMappers;
 import org.jfrog.build.extractor.builder.ArtifactBuilder;
 import org.jfrog.build.extractor.builder.ModuleBuilder;
 import org.jfrog.build.extractor.ci.Artifact;
@@ -19,6 +19,7 @@ import org.jfrog.build.extractor.clientConfiguration.ArtifactoryClientConfigurat
 import org.jfrog.build.extractor.clientConfiguration.ArtifactoryManagerBuilder;
 import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
 import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
+import org.jfrog.build.extractor.clientConfiguration.deploy.UploadScheduler;
 import org.jfrog.build.extractor.go.GoDriver;
 
 import java.io.File;
@@ -178,7 +179,6 @@ public class GoPublish extends GoCommand {
      */
     private File writeInfoFile(String localInfoPath) throws IOException {
         File infoFile = new File(localInfoPath);
-        ObjectMapper mapper = new ObjectMapper();
         Map<String, String> infoMap = new HashMap<>();
         Date date = new Date();
         Instant instant = date.toInstant();
@@ -186,7 +186,7 @@ public class GoPublish extends GoCommand {
         infoMap.put("Version", version);
         infoMap.put("Time", instant.toString());
 
-        mapper.writeValue(infoFile, infoMap);
+        JsonMappers.writer().writeValue(infoFile, infoMap);
         return infoFile;
     }
 
@@ -206,7 +206,7 @@ public class GoPublish extends GoCommand {
                 .packageType(DeployDetails.PackageType.GO)
                 .build();
 
-        ArtifactoryUploadResponse response = artifactoryManager.upload(deployDetails);
+        ArtifactoryUploadResponse response = UploadScheduler.getInstance().upload(artifactoryManager, deployDetails, null);
 
         return new ArtifactBuilder(moduleName + ":" + artifactName)
                 .md5(response.getChecksums().getMd5())
@@ -22,6 +22,8 @@ import org.jfrog.build.extractor.clientConfiguration.PatternMatcher;
 import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
 import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
 import org.jfrog.build.extractor.clientConfiguration.deploy.DeployableArtifactsUtils;
+import org.jfrog.build.extractor.clientConfiguration.deploy.UploadPreflight;
+import org.jfrog.build.extractor.clientConfiguration.deploy.UploadScheduler;
 import org.jfrog.build.extractor.retention.Utils;
 import org.jfrog.gradle.plugin.artifactory.ArtifactoryPluginUtil;
 import org.jfrog.gradle.plugin.artifactory.extractor.*;
@@ -291,6 +293,7 @@ public class DeployTask extends DefaultTask {
     private void deployArtifacts(Set<GradleDeployDetails> allDeployDetails, ArtifactoryManager artifactoryManager,
                                  IncludeExcludePatterns patterns, String logPrefix, int minChecksumDeploySizeKb)
             throws IOException {
+        List<DeployDetails> deployableArtifacts = new ArrayList<>();
         for (GradleDeployDetails detail : allDeployDetails) {
             DeployDetails deployDetails = detail.getDeployDetails();
             String artifactPath = deployDetails.getArtifactPath();
@@ -299,13 +302,23 @@ public class DeployTask extends DefaultTask {
                         "' due to the defined include-exclude patterns.");
                 continue;
             }
+            deployableArtifacts.add(deployDetails);
+        }
+        UploadPreflight preflight = UploadPreflight.fromSystemProperties(artifactoryManager);
+        if (preflight != null) {
+            preflight.check(deployableArtifacts);
+        }
+        for (DeployDetails deployDetails : deployableArtifacts) {
+            if (preflight != null && preflight.skipIfDeployed(deployDetails, logPrefix)) {
+                continue;
+            }
             try {
-                ArtifactoryUploadResponse response = artifactoryManager.upload(deployDetails, logPrefix, minChecksumDeploySizeKb);
-                detail.getDeployDetails().setDeploySucceeded(true);
-                detail.getDeployDetails().setSha256(response.getChecksums().getSha256());
+                ArtifactoryUploadResponse response = UploadScheduler.getInstance().upload(artifactoryManager, deployDetails, logPrefix, minChecksumDeploySizeKb);
+                deployDetails.setDeploySucceeded(true);
+                deployDetails.setSha256(response.getChecksums().getSha256());
             } catch (IOException e) {
-                detail.getDeployDetails().setDeploySucceeded(false);
-                detail.getDeployDetails().setSha256("");
+                deployDetails.setDeploySucceeded(false);
+                deployDetails.setSha256("");
                 throw e;
             }
         }
@@ -33,6 +33,7 @@ import org.jfrog.build.extractor.clientConfiguration.PatternMatcher;
 import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
 import org.jfrog.build.extractor.clientConfiguration.util.PathSanitizer;
 import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
+import org.jfrog.build.extractor.clientConfiguration.deploy.UploadScheduler;
 import org.jfrog.build.extractor.packageManager.PackageManagerUtils;
 import org.jfrog.build.extractor.retention.Utils;
 import org.jfrog.build.extractor.trigger.ArtifactoryBuildInfoTrigger;
@@ -383,7 +384,7 @@ public class ArtifactoryBuildListener implements BuildListener {
                         "' due to the defined include-exclude patterns.", Project.MSG_INFO);
                 continue;
             }
-            artifactoryManager.upload(deployDetail);
+            UploadScheduler.getInstance().upload(artifactoryManager, deployDetail, null);
         }
     }
 
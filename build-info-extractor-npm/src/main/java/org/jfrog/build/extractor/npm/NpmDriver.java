@@ -1,12 +1,12 @@
 package org.jfrog.build.extractor.npm;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.jfrog.build.api.util.Log;
+import org.jfrog.build.extractor.JsonMappers;
 import org.jfrog.build.extractor.executor.CommandExecutor;
 import org.jfrog.build.extractor.executor.CommandResults;
 
@@ -23,7 +23,7 @@ import java.util.stream.Stream;
 public class NpmDriver implements Serializable {
     private static final long serialVersionUID = 1L;
 
-    private static ObjectReader jsonReader = new ObjectMapper().reader();
+    private static final ObjectReader jsonReader = JsonMappers.getMapper().reader();
     private CommandExecutor commandExecutor;
 
     public NpmDriver(Map<String, String> env) {
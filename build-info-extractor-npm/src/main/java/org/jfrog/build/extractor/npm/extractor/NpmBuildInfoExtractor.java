@@ -31,7 +31,6 @@ import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
-import static org.jfrog.build.client.PreemptiveHttpClientBuilder.CONNECTION_POOL_SIZE;
 
 /**
  * @author Yahav Itzhak
@@ -292,6 +291,8 @@ public class NpmBuildInfoExtractor implements BuildInfoExtractor<NpmProject> {
      */
     private List<Dependency> collectDependencies(Path workingDir) throws Exception {
         Map<String, Dependency> dependencies = new ConcurrentHashMap<>();
+        // Search every package once in all the scopes
+        NpmChecksumsSearcher checksumsSearcher = new NpmChecksumsSearcher(NpmChecksumsSearcher.DEFAULT_BATCH_SIZE, logger);
         List<NpmScope> scopes = getNpmScopes();
         if (scopes.isEmpty()) {
             return new ArrayList<>();
@@ -300,7 +301,7 @@ public class NpmBuildInfoExtractor implements BuildInfoExtractor<NpmProject> {
             List<String> extraListArgs = new ArrayList<>();
             extraListArgs.add("--" + scope);
             JsonNode jsonNode = npmDriver.list(workingDir.toFile(), extraListArgs);
-            populateDependenciesMap(dependencies, getDependenciesMapFromLatestBuild(), jsonNode, scope, workingDir);
+            populateDependenciesMap(dependencies, getDependenciesMapFromLatestBuild(), checksumsSearcher, jsonNode, scope, workingDir);
         }
 
         return new ArrayList<>(dependencies.values());
@@ -333,10 +334,11 @@ public class NpmBuildInfoExtractor implements BuildInfoExtractor<NpmProject> {
     /**
      * Populate the dependencies map for the specified scope by:
      * 1. Create npm dependency tree from root node of 'npm ls' command tree. Populate each node with name, version and scope.
-     * 2. For each dependency, retrieve sha1 and md5 from Artifactory. Use the producer-consumer mechanism to parallelize it.
+     * 2. For each dependency, retrieve sha1 and md5 from Artifactory. Use the producer-consumer mechanism to parallelize it,
+     * and search the dependencies in batches.
      */
     private void populateDependenciesMap(Map<String, Dependency> dependencies, Map<String, Dependency> previousBuildDependencies,
-                                         JsonNode npmDependencyTree, NpmScope scope, Path workingDir) throws Exception {
+                                         NpmChecksumsSearcher checksumsSearcher, JsonNode npmDependencyTree, NpmScope scope, Path workingDir) throws Exception {
         // Set of packages that could not be found in Artifactory.
         Set<NpmPackageInfo> badPackages = Collections.synchronizedSet(new HashSet<>());
         DefaultMutableTreeNode rootNode = NpmDependencyTree.createDependencyTree(npmDependencyTree, scope, workingDir);
@@ -345,12 +347,13 @@ public class NpmBuildInfoExtractor implements BuildInfoExtractor<NpmProject> {
             ProducerRunnableBase[] producerRunnable = new ProducerRunnableBase[]{new NpmExtractorProducer(rootNode)};
             // Create consumer Runnables.
             ConsumerRunnableBase[] consumerRunnables = new ConsumerRunnableBase[]{
-                    new NpmExtractorConsumer(artifactoryManager, dependencies, previousBuildDependencies, badPackages),
-                    new NpmExtractorConsumer(artifactoryManager, dependencies, previousBuildDependencies, badPackages),
-                    new NpmExtractorConsumer(artifactoryManager, dependencies, previousBuildDependencies, badPackages)
+                    new NpmExtractorConsumer(artifactoryManager, checksumsSearcher, dependencies, previousBuildDependencies, badPackages),
+                    new NpmExtractorConsumer(artifactoryManager, checksumsSearcher, dependencies, previousBuildDependencies, badPackages),
+                    new NpmExtractorConsumer(artifactoryManager, checksumsSearcher, dependencies, previousBuildDependencies, badPackages)
             };
-            // Create the deployment executor.
-            ProducerConsumerExecutor deploymentExecutor = new ProducerConsumerExecutor(logger, producerRunnable, consumerRunnables, CONNECTION_POOL_SIZE);
+            // Create the deployment executor. The queue holds a full batch for every consumer.
+            ProducerConsumerExecutor deploymentExecutor = new ProducerConsumerExecutor(logger, producerRunnable, consumerRunnables,
+                    NpmChecksumsSearcher.DEFAULT_BATCH_SIZE * consumerRunnables.length);
             deploymentExecutor.start();
             if (!badPackages.isEmpty()) {
                 logger.info((Arrays.toString(badPackages.toArray())));
@@ -0,0 +1,131 @@
+package org.jfrog.build.extractor.npm.extractor;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.jfrog.build.api.search.AqlSearchResult;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.extractor.JsonMappers;
+import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
+import org.jfrog.build.extractor.npm.types.NpmPackageInfo;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Searches the checksums of npm packages in Artifactory, using a single AQL query per batch of packages.
+ * Every package is searched once, even if it's requested by several consumers or in several scopes. Consumers which
+ * request a package searched by another consumer wait for its result.
+ */
+class NpmChecksumsSearcher {
+    static final int DEFAULT_BATCH_SIZE = 200;
+
+    private static final String NPM_NAME = "npm.name";
+    private static final String NPM_VERSION = "npm.version";
+    private static final String INCLUDE = ".include(\"name\", \"repo\", \"path\", \"actual_sha1\", \"actual_md5\", \"@" +
+            NPM_NAME + "\", \"@" + NPM_VERSION + "\")";
+
+    // The search result of every package by its id. A null result means the package was not found.
+    private final Map<String, CompletableFuture<AqlSearchResult.SearchEntry>> results = new ConcurrentHashMap<>();
+    private final int batchSize;
+    private final Log log;
+
+    NpmChecksumsSearcher(int batchSize, Log log) {
+        this.batchSize = batchSize;
+        this.log = log;
+    }
+
+    /**
+     * Searches the packages in Artifactory.
+     *
+     * @param artifactoryManager - The Artifactory manager to search with
+     * @param packages           - The packages to search
+     * @return the found items by the packages ids. Packages which were not found are not included.
+     */
+    Map<String, AqlSearchResult.SearchEntry> search(ArtifactoryManager artifactoryManager, Collection<NpmPackageInfo> packages) {
+        Map<String, CompletableFuture<AqlSearchResult.SearchEntry>> requested = new HashMap<>();
+        // The packages this call is responsible to search, deduplicated by their ids
+        Map<String, NpmPackageInfo> toSearch = new LinkedHashMap<>();
+        for (NpmPackageInfo npmPackageInfo : packages) {
+            String id = getId(npmPackageInfo.getName(), npmPackageInfo.getVersion());
+            if (requested.containsKey(id)) {
+                continue;
+            }
+            CompletableFuture<AqlSearchResult.SearchEntry> result = new CompletableFuture<>();
+            CompletableFuture<AqlSearchResult.SearchEntry> existing = results.putIfAbsent(id, result);
+            if (existing == null) {
+                toSearch.put(id, npmPackageInfo);
+                requested.put(id, result);
+            } else {
+                requested.put(id, existing);
+            }
+        }
+        try {
+            List<NpmPackageInfo> batch = new ArrayList<>(Math.min(batchSize, toSearch.size()));
+            for (NpmPackageInfo npmPackageInfo : toSearch.values()) {
+                batch.add(npmPackageInfo);
+                if (batch.size() == batchSize) {
+                    searchBatch(artifactoryManager, batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                searchBatch(artifactoryManager, batch);
+            }
+        } finally {
+            // Release the consumers waiting for the packages which were not found
+            toSearch.keySet().forEach(id -> results.get(id).complete(null));
+        }
+
+        // Wait for the packages searched by other consumers
+        Map<String, AqlSearchResult.SearchEntry> found = new HashMap<>();
+        requested.forEach((id, result) -> {
+            AqlSearchResult.SearchEntry entry = result.join();
+            if (entry != null) {
+                found.put(id, entry);
+            }
+        });
+        return found;
+    }
+
+    private void searchBatch(ArtifactoryManager artifactoryManager, List<NpmPackageInfo> batch) {
+        try {
+            artifactoryManager.searchArtifactsByAql(createQuery(batch), entry -> {
+                CompletableFuture<AqlSearchResult.SearchEntry> result = results.get(getId(
+                        entry.getProperties().get(NPM_NAME), entry.getProperties().get(NPM_VERSION)));
+                if (result != null) {
+                    // Use the first found item of every package
+                    result.complete(entry);
+                }
+            });
+        } catch (IOException e) {
+            log.error(ExceptionUtils.getStackTrace(e), e);
+        }
+    }
+
+    /**
+     * Creates an AQL query which finds the items of all the packages.
+     */
+    static String createQuery(Collection<NpmPackageInfo> packages) {
+        ArrayNode criteria = JsonMappers.getMapper().createArrayNode();
+        for (NpmPackageInfo npmPackageInfo : packages) {
+            criteria.addObject()
+                    .put("@" + NPM_NAME, npmPackageInfo.getName())
+                    .put("@" + NPM_VERSION, npmPackageInfo.getVersion());
+        }
+        ObjectNode query = JsonMappers.getMapper().createObjectNode();
+        query.set("$or", criteria);
+        return "items.find(" + query + ")" + INCLUDE;
+    }
+
+    static String getId(String name, String version) {
+        return name + ":" + version;
+    }
+}
@@ -1,6 +1,5 @@
 package org.jfrog.build.extractor.npm.extractor;
 
-import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.jfrog.build.extractor.builder.DependencyBuilder;
 import org.jfrog.build.extractor.ci.Dependency;
 import org.jfrog.build.api.producerConsumer.ProducerConsumerItem;
@@ -11,32 +10,31 @@ import org.jfrog.build.extractor.npm.types.NpmPackageInfo;
 import org.jfrog.build.extractor.producerConsumer.ConsumerRunnableBase;
 import org.jfrog.build.extractor.producerConsumer.ProducerConsumerExecutor;
 
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 /**
  * Consumes PackageInfos and fills the dependencies map with sha1 and md5.
- * Retrieves sha1 and md5 information from Artifactory by running an AQL.
+ * Retrieves sha1 and md5 information from Artifactory by running an AQL per batch of PackageInfos.
  *
  * @author Yahav Itzhak
  */
 public class NpmExtractorConsumer extends ConsumerRunnableBase {
-    private static final String NPM_AQL_FORMAT =
-            "items.find({" +
-                    "\"@npm.name\": \"%s\"," +
-                    "\"@npm.version\": \"%s\"" +
-                    "}).include(\"name\", \"repo\", \"path\", \"actual_sha1\", \"actual_md5\")";
     private Map<String, Dependency> previousBuildDependencies;
     private final ArtifactoryManager artifactoryManager;
+    private final NpmChecksumsSearcher checksumsSearcher;
     private Map<String, Dependency> dependencies;
     private ProducerConsumerExecutor executor;
     private Set<NpmPackageInfo> badPackages;
     private Log log;
 
-    NpmExtractorConsumer(ArtifactoryManager artifactoryManager, Map<String, Dependency> dependencies,
+    NpmExtractorConsumer(ArtifactoryManager artifactoryManager, NpmChecksumsSearcher checksumsSearcher, Map<String, Dependency> dependencies,
                          Map<String, Dependency> previousBuildDependencies, Set<NpmPackageInfo> badPackages) {
         this.artifactoryManager = artifactoryManager;
+        this.checksumsSearcher = checksumsSearcher;
         this.dependencies = dependencies;
         this.previousBuildDependencies = previousBuildDependencies;
         this.badPackages = badPackages;
@@ -46,35 +44,56 @@ public class NpmExtractorConsumer extends ConsumerRunnableBase {
     public void consumerRun() {
         while (!Thread.interrupted()) {
             try {
-                ProducerConsumerItem item = executor.take();
-                if (item == executor.TERMINATE) {
-                    // If reached the TERMINATE NpmPackageInfo, return it to the queue and exit.
-                    executor.put(item);
+                List<ProducerConsumerItem> items = executor.takeBatch(NpmChecksumsSearcher.DEFAULT_BATCH_SIZE);
+                if (items.isEmpty()) {
+                    // All the items were consumed
                     break;
                 }
-                NpmPackageInfo npmPackageInfo = (NpmPackageInfo) item;
-                // Try to extract sha1 and md5 for 'npmPackageInfo'. If it doesn't exist in Artifactory's cache, add it to the 'badPackages' list.
-                if (!appendDependency(npmPackageInfo)) {
-                    badPackages.add(npmPackageInfo);
-                }
+                appendDependencies(items);
             } catch (InterruptedException e) {
                 return;
             }
         }
     }
 
+    /**
+     * Search sha1 and md5 of the new packages in Artifactory, and append the packages to the dependencies map.
+     * Packages which don't exist in Artifactory's cache are added to the 'badPackages' list.
+     *
+     * @param items - The npm packages information.
+     */
+    private void appendDependencies(List<ProducerConsumerItem> items) {
+        List<NpmPackageInfo> newPackages = new ArrayList<>();
+        for (ProducerConsumerItem item : items) {
+            NpmPackageInfo npmPackageInfo = (NpmPackageInfo) item;
+            String id = NpmChecksumsSearcher.getId(npmPackageInfo.getName(), npmPackageInfo.getVersion());
+            if (!dependencies.containsKey(id) && !previousBuildDependencies.containsKey(id)) {
+                newPackages.add(npmPackageInfo);
+            }
+        }
+        Map<String, AqlSearchResult.SearchEntry> searchEntries = newPackages.isEmpty() ? Collections.emptyMap() :
+                checksumsSearcher.search(artifactoryManager, newPackages);
+        for (ProducerConsumerItem item : items) {
+            NpmPackageInfo npmPackageInfo = (NpmPackageInfo) item;
+            if (!appendDependency(npmPackageInfo, searchEntries)) {
+                badPackages.add(npmPackageInfo);
+            }
+        }
+    }
+
     /**
      * If package is included in the dependencies map, add the current scope for the dependency.
-     * Otherwise, retrieve sha1 and md5 from Artifactory and add the dependency to the dependencies map.
+     * Otherwise, add the dependency to the dependencies map, with sha1 and md5 from the previous build or Artifactory.
      *
      * @param npmPackageInfo - The npm package information.
+     * @param searchEntries  - The items found in Artifactory by the packages ids.
      * @return True if the package is legal. False in case of an error such as an absence in Artifactory's cache.
      */
-    private boolean appendDependency(NpmPackageInfo npmPackageInfo) {
-        String id = npmPackageInfo.getName() + ":" + npmPackageInfo.getVersion();
+    private boolean appendDependency(NpmPackageInfo npmPackageInfo, Map<String, AqlSearchResult.SearchEntry> searchEntries) {
+        String id = NpmChecksumsSearcher.getId(npmPackageInfo.getName(), npmPackageInfo.getVersion());
         Dependency dependency = dependencies.get(id);
         if (dependency == null) {
-            dependency = createDependency(npmPackageInfo, id);
+            dependency = createDependency(npmPackageInfo, id, searchEntries.get(id));
             if (dependency == null) {
                 return false;
             }
@@ -93,42 +112,34 @@ public class NpmExtractorConsumer extends ConsumerRunnableBase {
      *
      * @param npmPackageInfo - The npm package information.
      * @param id             - The id of the dependency to create.
+     * @param searchEntry    - The item found in Artifactory, or null if not found.
      * @return Dependency populated with {name, scope, version, sha1 and md5} or null in case of {error or absence in Artifactory's case}.
      */
-    private Dependency createDependency(NpmPackageInfo npmPackageInfo, String id) {
+    private Dependency createDependency(NpmPackageInfo npmPackageInfo, String id, AqlSearchResult.SearchEntry searchEntry) {
         Dependency previousDependency = previousBuildDependencies.get(id);
         if (previousDependency != null) {
             return createDependencyFromPreviousBuild(npmPackageInfo, previousDependency);
         }
-        return createDependencyFromAqlResult(npmPackageInfo, id);
+        return createDependencyFromAqlResult(npmPackageInfo, id, searchEntry);
     }
 
     /**
-     * Create 'Dependency' from name and version of 'npmPackageInfo'. Try to retrieve sha1 and md5 from Artifactory.
+     * Create 'Dependency' from name and version of 'npmPackageInfo', with sha1 and md5 of the item found in Artifactory.
      *
      * @param npmPackageInfo - The npm package information.
      * @param id             - The id of the dependency to create.
-     * @return Dependency or null in case of an exception, or in case the dependency does not exist in Artifactory.
+     * @param searchEntry    - The item found in Artifactory, or null if not found.
+     * @return Dependency or null in case the dependency does not exist in Artifactory.
      */
-    private Dependency createDependencyFromAqlResult(NpmPackageInfo npmPackageInfo, String id) {
-        String aql = String.format(NPM_AQL_FORMAT, npmPackageInfo.getName(), npmPackageInfo.getVersion());
-        AqlSearchResult searchResult;
-        try {
-            searchResult = artifactoryManager.searchArtifactsByAql(aql);
-            if (searchResult.getResults().isEmpty()) {
-                return null;
-            }
-            DependencyBuilder builder = new DependencyBuilder();
-            AqlSearchResult.SearchEntry searchEntry = searchResult.getResults().get(0);
-            return builder.id(id)
-                    .addScope(npmPackageInfo.getScope())
-                    .md5(searchEntry.getActualMd5())
-                    .sha1(searchEntry.getActualSha1())
-                    .build();
-        } catch (IOException e) {
-            log.error(ExceptionUtils.getStackTrace(e), e);
+    private Dependency createDependencyFromAqlResult(NpmPackageInfo npmPackageInfo, String id, AqlSearchResult.SearchEntry searchEntry) {
+        if (searchEntry == null) {
             return null;
         }
+        return new DependencyBuilder().id(id)
+                .addScope(npmPackageInfo.getScope())
+                .md5(searchEntry.getActualMd5())
+                .sha1(searchEntry.getActualSha1())
+                .build();
     }
 
     /**
@@ -19,6 +19,7 @@ import org.jfrog.build.extractor.clientConfiguration.ArtifactoryClientConfigurat
 import org.jfrog.build.extractor.clientConfiguration.ArtifactoryManagerBuilder;
 import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
 import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
+import org.jfrog.build.extractor.clientConfiguration.deploy.UploadScheduler;
 import org.jfrog.build.util.VersionException;
 
 import java.io.BufferedInputStream;
@@ -171,7 +172,7 @@ public class NpmPublish extends NpmCommand {
                 .packageType(DeployDetails.PackageType.NPM)
                 .build();
 
-        ArtifactoryUploadResponse response = artifactoryManager.upload(deployDetails);
+        ArtifactoryUploadResponse response = UploadScheduler.getInstance().upload(artifactoryManager, deployDetails, null);
 
         deployedArtifact = new ArtifactBuilder(npmPackageInfo.getModuleId())
                 .md5(response.getChecksums().getMd5())
@@ -0,0 +1,119 @@
+package org.jfrog.build.extractor.npm.extractor;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.commons.lang3.StringUtils;
+import org.jfrog.build.api.search.AqlSearchResult;
+import org.jfrog.build.api.search.AqlSearchResultHandler;
+import org.jfrog.build.api.util.NullLog;
+import org.jfrog.build.extractor.JsonMappers;
+import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
+import org.jfrog.build.extractor.npm.types.NpmPackageInfo;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.*;
+
+@Test
+public class NpmChecksumsSearcherTest {
+
+    public void testCreateQuery() throws IOException {
+        String aql = NpmChecksumsSearcher.createQuery(Arrays.asList(createPackage("lodash", "4.17.21"),
+                createPackage("@types/node", "20.1.0")));
+        JsonNode criteria = JsonMappers.getMapper().readTree(StringUtils.substringBetween(aql, "items.find(", ").include(")).get("$or");
+        assertEquals(criteria.size(), 2);
+        assertEquals(criteria.get(0).get("@npm.name").asText(), "lodash");
+        assertEquals(criteria.get(0).get("@npm.version").asText(), "4.17.21");
+        assertEquals(criteria.get(1).get("@npm.name").asText(), "@types/node");
+        assertTrue(aql.contains("\"@npm.version\")"));
+    }
+
+    public void testSearch() {
+        FakeArtifactoryManager artifactoryManager = new FakeArtifactoryManager();
+        artifactoryManager.addItem("lodash", "4.17.21", "sha1-lodash");
+        artifactoryManager.addItem("@types/node", "20.1.0", "sha1-node");
+        NpmChecksumsSearcher searcher = new NpmChecksumsSearcher(2, new NullLog());
+
+        Map<String, AqlSearchResult.SearchEntry> found = searcher.search(artifactoryManager, Arrays.asList(
+                createPackage("lodash", "4.17.21"), createPackage("lodash", "4.17.21"),
+                createPackage("@types/node", "20.1.0"), createPackage("missing", "1.0.0")));
+
+        assertEquals(found.size(), 2);
+        assertEquals(found.get("lodash:4.17.21").getActualSha1(), "sha1-lodash");
+        assertEquals(found.get("@types/node:20.1.0").getActualSha1(), "sha1-node");
+        // Duplicates are searched once, in batches of 2
+        assertEquals(artifactoryManager.queries.size(), 2);
+    }
+
+    public void testSearchOncePerPackage() {
+        FakeArtifactoryManager artifactoryManager = new FakeArtifactoryManager();
+        artifactoryManager.addItem("lodash", "4.17.21", "sha1-lodash");
+        NpmChecksumsSearcher searcher = new NpmChecksumsSearcher(NpmChecksumsSearcher.DEFAULT_BATCH_SIZE, new NullLog());
+        searcher.search(artifactoryManager, Arrays.asList(createPackage("lodash", "4.17.21"), createPackage("missing", "1.0.0")));
+
+        // Packages of another scope which were already searched
+        Map<String, AqlSearchResult.SearchEntry> found = searcher.search(artifactoryManager,
+                Arrays.asList(createPackage("lodash", "4.17.21"), createPackage("missing", "1.0.0")));
+        assertEquals(found.keySet(), Collections.singleton("lodash:4.17.21"));
+        assertEquals(artifactoryManager.queries.size(), 1);
+    }
+
+    public void testSearchFailure() {
+        FakeArtifactoryManager artifactoryManager = new FakeArtifactoryManager();
+        artifactoryManager.failSearch = true;
+        NpmChecksumsSearcher searcher = new NpmChecksumsSearcher(NpmChecksumsSearcher.DEFAULT_BATCH_SIZE, new NullLog());
+        assertTrue(searcher.search(artifactoryManager, Collections.singletonList(createPackage("lodash", "4.17.21"))).isEmpty());
+    }
+
+    private static NpmPackageInfo createPackage(String name, String version) {
+        return new NpmPackageInfo(name, version, "prod", new String[0]);
+    }
+
+    /**
+     * Returns the existing items which match every query, and records the queries.
+     */
+    private static class FakeArtifactoryManager extends ArtifactoryManager {
+        private final List<AqlSearchResult.SearchEntry> items = new ArrayList<>();
+        private final List<String> queries = new ArrayList<>();
+        private boolean failSearch;
+
+        private FakeArtifactoryManager() {
+            super("http://localhost:8081/artifactory", new NullLog());
+        }
+
+        private void addItem(String name, String version, String sha1) {
+            AqlSearchResult.SearchEntry entry = new AqlSearchResult.SearchEntry();
+            entry.setName(name + "-" + version + ".tgz");
+            entry.setActualSha1(sha1);
+            AqlSearchResult.Property nameProperty = new AqlSearchResult.Property();
+            nameProperty.setKey("npm.name");
+            nameProperty.setValue(name);
+            AqlSearchResult.Property versionProperty = new AqlSearchResult.Property();
+            versionProperty.setKey("npm.version");
+            versionProperty.setValue(version);
+            entry.setProperties(Arrays.asList(nameProperty, versionProperty));
+            items.add(entry);
+        }
+
+        @Override
+        public int searchArtifactsByAql(String aql, AqlSearchResultHandler handler) throws IOException {
+            queries.add(aql);
+            if (failSearch) {
+                throw new IOException("AQL is not allowed");
+            }
+            int found = 0;
+            for (AqlSearchResult.SearchEntry item : items) {
+                if (aql.contains(JsonMappers.getMapper().writeValueAsString(item.getProperties().get("npm.name")))) {
+                    handler.handle(item);
+                    found++;
+                }
+            }
+            return found;
+        }
+    }
+}
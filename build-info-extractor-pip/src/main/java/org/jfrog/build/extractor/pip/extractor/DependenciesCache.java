@@ -3,7 +3,7 @@ package org.jfrog.build.extractor.pip.extractor;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jfrog.build.extractor.JsonMappers;
 import org.jfrog.build.extractor.ci.Dependency;
 import org.jfrog.build.api.util.Log;
 
@@ -15,8 +15,6 @@ import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
 
-import static org.jfrog.build.extractor.BuildInfoExtractorUtils.createMapper;
-
 /**
  * Created by Bar Belity on 19/07/2020.
  * <p>
@@ -30,7 +28,6 @@ import static org.jfrog.build.extractor.BuildInfoExtractorUtils.createMapper;
 public class DependenciesCache {
 
     private static final int CACHE_VERSION = 1;
-    private static final ObjectMapper objectMapper = createMapper();
 
     @JsonProperty("version")
     private int version = CACHE_VERSION;
@@ -83,7 +80,7 @@ public class DependenciesCache {
 
     void read(File file, Log logger) throws IOException {
         try {
-            DependenciesCache dependenciesCache = objectMapper.readValue(file, DependenciesCache.class);
+            DependenciesCache dependenciesCache = JsonMappers.readerFor(DependenciesCache.class).readValue(file);
             if (dependenciesCache.getVersion() != CACHE_VERSION) {
                 logger.warn("Incorrect cache version " + dependenciesCache.getVersion() + ". Zapping the old cache.");
                 return;
@@ -95,7 +92,7 @@ public class DependenciesCache {
     }
 
     void write(File file) throws IOException {
-        objectMapper.writeValue(file, this);
+        JsonMappers.writer().writeValue(file, this);
     }
 
     Dependency getDependency(String dependencyName) {
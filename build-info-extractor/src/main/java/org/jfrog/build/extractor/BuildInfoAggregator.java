@@ -0,0 +1,364 @@
+package org.jfrog.build.extractor;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.extractor.ci.BuildInfo;
+import org.jfrog.build.extractor.ci.Module;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Aggregates build-info files and module files, such as the files written by
+ * {@link BuildInfoExtractorUtils#saveBuildInfoToFile} and {@link ModuleExtractorUtils#saveModuleToFile}, into a single
+ * build-info file.
+ * <p>
+ * The files are parsed in parallel, and the modules of build-info files are streamed one by one into a
+ * {@link BuildInfoMerger}. When the merged modules hold more artifacts and dependencies than the memory budget, they
+ * are spilled to temporary files, and merged again module by module while the aggregated build-info is written.
+ * The header fields of the build-info files, such as the properties and issues, are merged in the order of the files.
+ * The modules are merged in the order of the files too: the modules of a file which is parsed before the preceding
+ * files are merged are buffered to a temporary file until they are. Therefore, the aggregated build-info doesn't depend
+ * on which file is parsed first. Modules are written in the order of their first appearance, where the modules of the
+ * base build-info come first.
+ * <p>
+ * Spilling bounds the memory of all the modules together, but not of a single module: every module is merged again in
+ * memory, including all its spilled parts, when it's written. A single module with more artifacts and dependencies
+ * than the memory budget is therefore still held entirely in memory.
+ * <p>
+ * The aggregator is configured using the following system properties:
+ * <ul>
+ * <li>{@value #PROP_THREADS} - Number of files parsed concurrently. Default: {@value #DEFAULT_THREADS}.</li>
+ * <li>{@value #PROP_MAX_ENTRIES_IN_MEMORY} - Maximum number of merged artifacts and dependencies held in memory
+ * before spilling to disk. Default: {@value #DEFAULT_MAX_ENTRIES_IN_MEMORY}.</li>
+ * </ul>
+ */
+public class BuildInfoAggregator {
+    public static final String AGGREGATE_PREFIX = "buildInfo.aggregate.";
+    public static final String PROP_THREADS = AGGREGATE_PREFIX + "threads";
+    public static final String PROP_MAX_ENTRIES_IN_MEMORY = AGGREGATE_PREFIX + "maxEntriesInMemory";
+    public static final int DEFAULT_THREADS = 4;
+    public static final long DEFAULT_MAX_ENTRIES_IN_MEMORY = 1000000;
+
+    private static final String MODULES_FIELD = "modules";
+    private static final AtomicInteger poolNumber = new AtomicInteger(1);
+
+    private final int threads;
+    private final long maxEntriesInMemory;
+    private final Log log;
+
+    public BuildInfoAggregator(int threads, long maxEntriesInMemory, Log log) {
+        if (threads <= 0 || maxEntriesInMemory <= 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid build-info aggregation configuration: threads=%d, maxEntriesInMemory=%d",
+                    threads, maxEntriesInMemory));
+        }
+        this.threads = threads;
+        this.maxEntriesInMemory = maxEntriesInMemory;
+        this.log = log;
+    }
+
+    /**
+     * Creates a build-info aggregator configured from system properties.
+     *
+     * @param log - The logger
+     * @return the build-info aggregator
+     */
+    public static BuildInfoAggregator fromSystemProperties(Log log) {
+        return new BuildInfoAggregator(
+                (int) getLongProperty(PROP_THREADS, DEFAULT_THREADS),
+                getLongProperty(PROP_MAX_ENTRIES_IN_MEMORY, DEFAULT_MAX_ENTRIES_IN_MEMORY),
+                log);
+    }
+
+    private static long getLongProperty(String key, long defaultValue) {
+        String value = System.getProperty(key);
+        return StringUtils.isNumeric(value) ? Long.parseLong(value) : defaultValue;
+    }
+
+    /**
+     * Aggregates build-info and module files into a single build-info file.
+     *
+     * @param buildInfo  - The base build-info, or null to use the first build-info file as the base. Its modules are
+     *                   moved into the aggregated build-info.
+     * @param files      - The build-info and module files to aggregate
+     * @param outputFile - The aggregated build-info file
+     * @throws IOException in case of an error reading the files or writing the aggregated build-info
+     */
+    public void aggregate(BuildInfo buildInfo, List<File> files, File outputFile) throws IOException {
+        File spillDir = Files.createTempDirectory("build-info-aggregator").toFile();
+        try {
+            Aggregation aggregation = new Aggregation(files.size(), spillDir);
+            if (buildInfo != null && buildInfo.getModules() != null) {
+                // The modules of the base build-info are merged before the modules of the files
+                List<Module> baseModules = buildInfo.getModules();
+                buildInfo.setModules(null);
+                for (Module module : baseModules) {
+                    aggregation.merge(module);
+                }
+            }
+            readFiles(files, aggregation);
+            BuildInfoMerger headerMerger = buildInfo == null ? new BuildInfoMerger() : new BuildInfoMerger(buildInfo);
+            for (BuildInfo header : aggregation.headers) {
+                if (header != null) {
+                    headerMerger.merge(header);
+                }
+            }
+            BuildInfo merged = headerMerger.getBuildInfo();
+            write(merged == null ? new BuildInfo() : merged, aggregation, outputFile);
+        } finally {
+            FileUtils.deleteQuietly(spillDir);
+        }
+    }
+
+    private void readFiles(List<File> files, Aggregation aggregation) throws IOException {
+        int pool = poolNumber.getAndIncrement();
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "build-info-aggregator-" + pool + "-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, files.size())), threadFactory);
+        try {
+            List<Future<Void>> futures = new ArrayList<>(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                int fileIndex = i;
+                File file = files.get(i);
+                futures.add(executor.submit(() -> {
+                    readFile(fileIndex, file, aggregation);
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading build-info files", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Streams a build-info or module file. The modules of a build-info file are merged one by one, and its other
+     * fields are kept as the header of the file.
+     */
+    private void readFile(int fileIndex, File file, Aggregation aggregation) throws IOException {
+        ObjectReader moduleReader = JsonMappers.readerFor(Module.class);
+        try (JsonParser parser = JsonMappers.getJsonFactory().createParser(file)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a build-info or module JSON object in " + file);
+            }
+            ObjectNode fields = JsonMappers.getMapper().createObjectNode();
+            boolean hasModules = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                if (parser.nextToken() == JsonToken.START_ARRAY && MODULES_FIELD.equals(fieldName)) {
+                    hasModules = true;
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        aggregation.add(moduleReader.readValue(parser), fileIndex);
+                    }
+                } else {
+                    fields.set(fieldName, parser.readValueAsTree());
+                }
+            }
+            if (hasModules || fields.has("name")) {
+                aggregation.headers[fileIndex] = JsonMappers.readerFor(BuildInfo.class).readValue(fields);
+            } else {
+                aggregation.add(moduleReader.readValue(fields), fileIndex);
+            }
+        }
+        aggregation.complete(fileIndex);
+        log.debug("Aggregated build-info file " + file);
+    }
+
+    private void write(BuildInfo buildInfo, Aggregation aggregation, File outputFile) throws IOException {
+        if (outputFile.getParentFile() != null && !outputFile.getParentFile().exists()) {
+            outputFile.getParentFile().mkdirs();
+        }
+        buildInfo.setModules(null);
+        JsonNode header = JsonMappers.getMapper().valueToTree(buildInfo);
+        try (OutputStream outputStream = Files.newOutputStream(outputFile.toPath());
+             JsonGenerator generator = JsonMappers.getJsonFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            Iterator<Map.Entry<String, JsonNode>> headerFields = header.fields();
+            while (headerFields.hasNext()) {
+                Map.Entry<String, JsonNode> field = headerFields.next();
+                generator.writeFieldName(field.getKey());
+                generator.writeTree(field.getValue());
+            }
+            generator.writeArrayFieldStart(MODULES_FIELD);
+            for (String moduleId : aggregation.getModuleIds()) {
+                JsonMappers.writer().writeValue(generator, aggregation.getModule(moduleId));
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * The state of a single aggregation. Modules are merged by the reading threads under the aggregation lock, in the
+     * order of the files. Every file's buffer is written only by the thread reading the file, and read under the lock
+     * once that thread added all the file's modules, or by that thread itself.
+     */
+    private class Aggregation {
+        private final BuildInfo[] headers;
+        private final File spillDir;
+        private final BuildInfoMerger modulesMerger = new BuildInfoMerger();
+        // The IDs of the merged modules, in the order of their first appearance
+        private final Set<String> moduleIds = new LinkedHashSet<>();
+        private final Map<String, File> spillFiles = new HashMap<>();
+        private final boolean[] completedFiles;
+        private final File[] bufferFiles;
+        private final JsonGenerator[] buffers;
+        // The index of the file whose modules are merged as they are read
+        private int mergedFileIndex;
+
+        private Aggregation(int filesCount, File spillDir) {
+            this.headers = new BuildInfo[filesCount];
+            this.spillDir = spillDir;
+            this.completedFiles = new boolean[filesCount];
+            this.bufferFiles = new File[filesCount];
+            this.buffers = new JsonGenerator[filesCount];
+        }
+
+        /**
+         * Merges a module of a file if all the preceding files were merged. Otherwise, buffers the module until they are.
+         *
+         * @param module    - The module to add
+         * @param fileIndex - The index of the file of the module
+         */
+        private void add(Module module, int fileIndex) throws IOException {
+            synchronized (this) {
+                if (fileIndex == mergedFileIndex) {
+                    mergeBuffer(fileIndex);
+                    merge(module);
+                    return;
+                }
+            }
+            if (buffers[fileIndex] == null) {
+                bufferFiles[fileIndex] = new File(spillDir, "file-" + fileIndex + ".json");
+                buffers[fileIndex] = JsonMappers.getJsonFactory().createGenerator(
+                        Files.newOutputStream(bufferFiles[fileIndex].toPath()), JsonEncoding.UTF8);
+            }
+            JsonMappers.writer().writeValue(buffers[fileIndex], module);
+        }
+
+        /**
+         * Marks a file as completely read, and merges the buffered modules of the following files which were already
+         * read.
+         *
+         * @param fileIndex - The index of the file
+         */
+        private synchronized void complete(int fileIndex) throws IOException {
+            if (buffers[fileIndex] != null) {
+                buffers[fileIndex].close();
+            }
+            completedFiles[fileIndex] = true;
+            while (mergedFileIndex < completedFiles.length && completedFiles[mergedFileIndex]) {
+                mergeBuffer(mergedFileIndex);
+                mergedFileIndex++;
+            }
+        }
+
+        /**
+         * Merges the buffered modules of a file, if any.
+         */
+        private void mergeBuffer(int fileIndex) throws IOException {
+            if (buffers[fileIndex] == null) {
+                return;
+            }
+            buffers[fileIndex].close();
+            try (MappingIterator<Module> bufferedModules = JsonMappers.readerFor(Module.class).readValues(bufferFiles[fileIndex])) {
+                while (bufferedModules.hasNext()) {
+                    merge(bufferedModules.next());
+                }
+            }
+            FileUtils.deleteQuietly(bufferFiles[fileIndex]);
+            buffers[fileIndex] = null;
+            bufferFiles[fileIndex] = null;
+        }
+
+        /**
+         * @param module - The module to merge
+         */
+        private synchronized void merge(Module module) throws IOException {
+            moduleIds.add(module.getId());
+            modulesMerger.merge(module);
+            if (modulesMerger.getEntriesCount() > maxEntriesInMemory) {
+                spill();
+            }
+        }
+
+        /**
+         * Appends all the merged modules to their spill files, so they're no longer held in memory.
+         */
+        private void spill() throws IOException {
+            log.debug(String.format("Spilling %d build-info entries to %s", modulesMerger.getEntriesCount(), spillDir));
+            for (String moduleId : modulesMerger.getModuleIds()) {
+                File spillFile = spillFiles.computeIfAbsent(moduleId, id -> new File(spillDir, spillFiles.size() + ".json"));
+                try (OutputStream outputStream = Files.newOutputStream(spillFile.toPath(),
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    JsonMappers.writer().writeValue(outputStream, modulesMerger.removeModule(moduleId));
+                }
+            }
+        }
+
+        private Set<String> getModuleIds() {
+            return moduleIds;
+        }
+
+        /**
+         * Returns the merged module, including its spilled parts.
+         */
+        private Module getModule(String moduleId) throws IOException {
+            Module module = modulesMerger.removeModule(moduleId);
+            File spillFile = spillFiles.get(moduleId);
+            if (spillFile == null) {
+                return module;
+            }
+            BuildInfoMerger spillMerger = new BuildInfoMerger();
+            try (MappingIterator<Module> spilledModules = JsonMappers.readerFor(Module.class).readValues(spillFile)) {
+                while (spilledModules.hasNext()) {
+                    spillMerger.merge(spilledModules.next());
+                }
+            }
+            if (module != null) {
+                spillMerger.merge(module);
+            }
+            return spillMerger.removeModule(moduleId);
+        }
+    }
+}
@@ -1,13 +1,9 @@
 package org.jfrog.build.extractor;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
-import com.fasterxml.jackson.core.JsonFactory;
-import com.fasterxml.jackson.core.JsonGenerator;
-import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
 import org.apache.commons.lang3.StringUtils;
 import org.jfrog.build.api.util.CommonUtils;
 import org.jfrog.build.api.util.Log;
@@ -226,63 +222,36 @@ public abstract class BuildInfoExtractorUtils {
     //TODO: [by YS] duplicates ArtifactoryBuildInfoClient. The client should depend on this module
     //TODO: [by yl] introduce a commons module for common impl and also move PropertyUtils there
 
-
-    private static JsonFactory createJsonFactory() {
-        JsonFactory jsonFactory = new JsonFactory();
-        ObjectMapper mapper = new ObjectMapper(jsonFactory);
-        mapper.setAnnotationIntrospector(new JacksonAnnotationIntrospector());
-        mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
-        mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
-        jsonFactory.setCodec(mapper);
-        return jsonFactory;
-    }
-
     public static String buildInfoToJsonString(BuildInfo buildInfo) throws IOException {
-        JsonFactory jsonFactory = createJsonFactory();
-
-        try (StringWriter writer = new StringWriter();
-             JsonGenerator jsonGenerator = jsonFactory.createGenerator(writer)) {
-            jsonGenerator.useDefaultPrettyPrinter();
-            jsonGenerator.writeObject(buildInfo);
-            return writer.getBuffer().toString();
-        }
+        return JsonMappers.prettyWriter().writeValueAsString(buildInfo);
     }
 
     public static BuildInfo jsonStringToBuildInfo(String json) throws IOException {
-        JsonFactory jsonFactory = createJsonFactory();
-        try (JsonParser parser = jsonFactory.createParser(new StringReader(json))) {
-            return jsonFactory.getCodec().readValue(parser, BuildInfo.class);
-        }
+        return JsonMappers.readerFor(BuildInfo.class).readValue(json);
     }
 
     public static <T extends Serializable> String buildInfoToJsonString(T buildComponent) throws IOException {
-        JsonFactory jsonFactory = createJsonFactory();
-
-        try (StringWriter writer = new StringWriter();
-             JsonGenerator jsonGenerator = jsonFactory.createGenerator(writer)) {
-            jsonGenerator.useDefaultPrettyPrinter();
-            jsonGenerator.writeObject(buildComponent);
-
-            return writer.getBuffer().toString();
-        }
+        return JsonMappers.prettyWriter().writeValueAsString(buildComponent);
     }
 
     public static <T extends Serializable> T jsonStringToGeneric(String json, Class<T> clazz) throws IOException {
-        JsonFactory jsonFactory = createJsonFactory();
-        try (JsonParser parser = jsonFactory.createParser(new StringReader(json))) {
-            return jsonFactory.getCodec().readValue(parser, clazz);
-        }
+        return JsonMappers.readerFor(clazz).readValue(json);
     }
 
+    /**
+     * Writes the build-info to a file. The JSON is streamed to the file instead of being built in memory first.
+     *
+     * @param buildInfo - The build-info to save
+     * @param toFile    - The target file
+     * @throws IOException in case of a serialization or I/O error
+     */
     public static void saveBuildInfoToFile(BuildInfo buildInfo, File toFile) throws IOException {
-        String buildInfoJson = buildInfoToJsonString(buildInfo);
         if (!toFile.getParentFile().exists()) {
             toFile.getParentFile().mkdirs();
         }
-        if (!toFile.exists()) {
-            toFile.createNewFile();
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(toFile.toPath()))) {
+            JsonMappers.prettyWriter().writeValue(outputStream, buildInfo);
         }
-        CommonUtils.writeByCharset(buildInfoJson, toFile, StandardCharsets.UTF_8);
     }
 
     /**
@@ -369,6 +338,7 @@ public abstract class BuildInfoExtractorUtils {
     /**
      * Create an object mapper for serialization/deserialization.
      * This mapper ignore unknown properties and null values.
+     * Use {@link JsonMappers} for a shared mapper, unless a different configuration is needed.
      *
      * @return a new object mapper
      */
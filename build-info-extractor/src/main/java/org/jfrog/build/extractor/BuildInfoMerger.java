@@ -0,0 +1,260 @@
+package org.jfrog.build.extractor;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jfrog.build.extractor.ci.Artifact;
+import org.jfrog.build.extractor.ci.BuildInfo;
+import org.jfrog.build.extractor.ci.Dependency;
+import org.jfrog.build.extractor.ci.Module;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Merges build-infos, such as the partial build-infos of parallel CI shards, into a single build-info.
+ * <p>
+ * Modules are indexed by ID, and the artifacts, excluded artifacts and dependencies of every module are indexed by
+ * their ID and checksums, so merging takes linear time in the number of merged entries. An artifact which appears in
+ * several build-infos is kept once. A dependency which appears in several build-infos is kept once, with the union
+ * of its scopes and requested-by paths.
+ * <p>
+ * Build-info files can be merged one by one using {@link #merge(File)}, so only the merged build-info and the file
+ * being merged are held in memory. The first merged build-info is used as the base of the merged build-info.
+ */
+public class BuildInfoMerger {
+    private final Map<String, ModuleIndex> modules = new LinkedHashMap<>();
+    private BuildInfo buildInfo;
+    private long entriesCount;
+
+    public BuildInfoMerger() {
+    }
+
+    /**
+     * @param buildInfo - The base build-info to merge into
+     */
+    public BuildInfoMerger(BuildInfo buildInfo) {
+        merge(buildInfo);
+    }
+
+    /**
+     * Merges a build-info file.
+     *
+     * @param buildInfoFile - The build-info JSON file
+     * @return this merger
+     * @throws IOException in case of an error reading the file
+     */
+    public BuildInfoMerger merge(File buildInfoFile) throws IOException {
+        return merge(JsonMappers.readerFor(BuildInfo.class).<BuildInfo>readValue(buildInfoFile));
+    }
+
+    /**
+     * Merges a build-info. The modules of the merged build-info may be reused by the merged build-info.
+     *
+     * @param other - The build-info to merge
+     * @return this merger
+     */
+    public BuildInfoMerger merge(BuildInfo other) {
+        if (buildInfo == null) {
+            buildInfo = other;
+            mergeModules(other.getModules());
+            return this;
+        }
+        if (buildInfo.getBuildAgent() == null) {
+            buildInfo.setBuildAgent(other.getBuildAgent());
+        }
+        if (other.getProperties() != null && !other.getProperties().isEmpty()) {
+            if (buildInfo.getProperties() == null) {
+                buildInfo.setProperties(other.getProperties());
+            } else {
+                buildInfo.getProperties().putAll(other.getProperties());
+            }
+        }
+        mergeModules(other.getModules());
+        if (other.getBuildDependencies() != null && !other.getBuildDependencies().isEmpty()) {
+            if (buildInfo.getBuildDependencies() == null) {
+                buildInfo.setBuildDependencies(other.getBuildDependencies());
+            } else {
+                buildInfo.getBuildDependencies().addAll(other.getBuildDependencies());
+            }
+        }
+        if (buildInfo.getIssues() == null) {
+            buildInfo.setIssues(other.getIssues());
+        } else {
+            buildInfo.getIssues().append(other.getIssues());
+        }
+        return this;
+    }
+
+    /**
+     * Merges a single module into the merged modules.
+     *
+     * @param other - The module to merge
+     * @return this merger
+     */
+    public BuildInfoMerger merge(Module other) {
+        ModuleIndex moduleIndex = modules.get(other.getId());
+        if (moduleIndex == null) {
+            moduleIndex = new ModuleIndex(other);
+            modules.put(other.getId(), moduleIndex);
+            entriesCount += moduleIndex.size();
+        } else {
+            long size = moduleIndex.size();
+            moduleIndex.merge(other);
+            entriesCount += moduleIndex.size() - size;
+        }
+        return this;
+    }
+
+    /**
+     * Returns the number of artifacts, excluded artifacts and dependencies in the merged modules.
+     */
+    public long getEntriesCount() {
+        return entriesCount;
+    }
+
+    /**
+     * Returns the IDs of the merged modules, in the order they were first merged.
+     */
+    public List<String> getModuleIds() {
+        return new ArrayList<>(modules.keySet());
+    }
+
+    /**
+     * Removes a merged module, so it's no longer held by this merger.
+     *
+     * @param moduleId - The module ID
+     * @return the removed module or null if there's no such module
+     */
+    public Module removeModule(String moduleId) {
+        ModuleIndex moduleIndex = modules.remove(moduleId);
+        if (moduleIndex == null) {
+            return null;
+        }
+        entriesCount -= moduleIndex.size();
+        return moduleIndex.toModule();
+    }
+
+    /**
+     * Returns the merged module with the given ID.
+     *
+     * @param moduleId - The module ID
+     * @return the merged module or null if there's no such module
+     */
+    public Module getModule(String moduleId) {
+        ModuleIndex moduleIndex = modules.get(moduleId);
+        return moduleIndex == null ? null : moduleIndex.toModule();
+    }
+
+    /**
+     * Returns the merged build-info, or null if nothing was merged.
+     */
+    public BuildInfo getBuildInfo() {
+        if (buildInfo != null) {
+            List<Module> mergedModules = new ArrayList<>(modules.size());
+            modules.values().forEach(moduleIndex -> mergedModules.add(moduleIndex.toModule()));
+            buildInfo.setModules(mergedModules);
+        }
+        return buildInfo;
+    }
+
+    private void mergeModules(List<Module> otherModules) {
+        if (otherModules != null) {
+            otherModules.forEach(this::merge);
+        }
+    }
+
+    /**
+     * A merged module and the indexes of its artifacts, excluded artifacts and dependencies.
+     */
+    private static class ModuleIndex {
+        private final Module module;
+        private Map<List<String>, Artifact> artifacts;
+        private Map<List<String>, Artifact> excludedArtifacts;
+        private Map<List<String>, Dependency> dependencies;
+
+        private ModuleIndex(Module module) {
+            this.module = module;
+            artifacts = mergeArtifacts(null, module.getArtifacts());
+            excludedArtifacts = mergeArtifacts(null, module.getExcludedArtifacts());
+            dependencies = mergeDependencies(null, module.getDependencies());
+        }
+
+        private void merge(Module other) {
+            artifacts = mergeArtifacts(artifacts, other.getArtifacts());
+            excludedArtifacts = mergeArtifacts(excludedArtifacts, other.getExcludedArtifacts());
+            dependencies = mergeDependencies(dependencies, other.getDependencies());
+            module.setType(StringUtils.defaultIfEmpty(module.getType(), other.getType()));
+            module.setRepository(StringUtils.defaultIfEmpty(module.getRepository(), other.getRepository()));
+            module.setMd5(StringUtils.defaultIfEmpty(module.getMd5(), other.getMd5()));
+            module.setSha1(StringUtils.defaultIfEmpty(module.getSha1(), other.getSha1()));
+        }
+
+        private long size() {
+            return sizeOf(artifacts) + sizeOf(excludedArtifacts) + sizeOf(dependencies);
+        }
+
+        private static long sizeOf(Map<?, ?> index) {
+            return index == null ? 0 : index.size();
+        }
+
+        private Module toModule() {
+            module.setArtifacts(artifacts == null ? null : new ArrayList<>(artifacts.values()));
+            module.setExcludedArtifacts(excludedArtifacts == null ? null : new ArrayList<>(excludedArtifacts.values()));
+            module.setDependencies(dependencies == null ? null : new ArrayList<>(dependencies.values()));
+            return module;
+        }
+
+        private static Map<List<String>, Artifact> mergeArtifacts(Map<List<String>, Artifact> index, List<Artifact> others) {
+            if (others == null) {
+                return index;
+            }
+            if (index == null) {
+                index = new LinkedHashMap<>();
+            }
+            for (Artifact other : others) {
+                List<String> key = Arrays.asList(other.getName(), other.getRemotePath(), other.getSha1(), other.getSha256(), other.getMd5());
+                index.putIfAbsent(key, other);
+            }
+            return index;
+        }
+
+        private static Map<List<String>, Dependency> mergeDependencies(Map<List<String>, Dependency> index, List<Dependency> others) {
+            if (others == null) {
+                return index;
+            }
+            if (index == null) {
+                index = new LinkedHashMap<>();
+            }
+            for (Dependency other : others) {
+                List<String> key = Arrays.asList(other.getId(), other.getSha1(), other.getSha256(), other.getMd5());
+                Dependency current = index.putIfAbsent(key, other);
+                if (current != null && current != other) {
+                    mergeDependency(current, other);
+                }
+            }
+            return index;
+        }
+
+        private static void mergeDependency(Dependency current, Dependency other) {
+            if (other.getScopes() != null) {
+                Set<String> scopes = current.getScopes() == null ? new LinkedHashSet<>() : new LinkedHashSet<>(current.getScopes());
+                scopes.addAll(other.getScopes());
+                current.setScopes(scopes);
+            }
+            if (other.getRequestedBy() != null) {
+                Set<List<String>> requestedBy = new LinkedHashSet<>();
+                if (current.getRequestedBy() != null) {
+                    Arrays.stream(current.getRequestedBy()).map(Arrays::asList).forEach(requestedBy::add);
+                }
+                Arrays.stream(other.getRequestedBy()).map(Arrays::asList).forEach(requestedBy::add);
+                current.setRequestedBy(requestedBy.stream().map(path -> path.toArray(new String[0])).toArray(String[][]::new));
+            }
+        }
+    }
+}
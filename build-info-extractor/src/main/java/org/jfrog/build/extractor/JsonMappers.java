@@ -0,0 +1,165 @@
+package org.jfrog.build.extractor;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.util.StdConverter;
+import org.jfrog.build.api.dependency.BuildDependency;
+import org.jfrog.build.extractor.ci.BaseBuildFileBean;
+import org.jfrog.build.extractor.ci.BuildInfo;
+import org.jfrog.build.extractor.ci.Module;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.jfrog.build.extractor.BuildInfoExtractorUtils.createMapper;
+
+/**
+ * Shared JSON mapper, readers and writers, configured like {@link BuildInfoExtractorUtils#createMapper()}.
+ * Jackson caches the serializers and deserializers it builds per mapper, so reusing a single mapper avoids rebuilding
+ * them on every call. {@link ObjectReader} and {@link ObjectWriter} instances are immutable and thread-safe, and the
+ * readers are cached per target type.
+ * <p>
+ * The shared mapper must not be reconfigured. Code that needs a different configuration should create its own mapper
+ * using {@link BuildInfoExtractorUtils#createMapper()}.
+ */
+public class JsonMappers {
+    private static final ObjectMapper mapper = createMapper();
+    private static final ObjectWriter writer = mapper.writer();
+    private static final ObjectWriter prettyWriter = mapper.writerWithDefaultPrettyPrinter();
+    private static final ObjectWriter buildInfoWriter = createMapper()
+            .addMixIn(BuildInfo.class, BuildInfoMixIn.class)
+            .addMixIn(BaseBuildFileBean.class, BuildFileBeanMixIn.class)
+            .addMixIn(Module.class, ModuleMixIn.class)
+            .writer();
+    private static final Map<JavaType, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    private JsonMappers() {
+    }
+
+    /**
+     * Returns the shared mapper. Must not be reconfigured.
+     */
+    public static ObjectMapper getMapper() {
+        return mapper;
+    }
+
+    /**
+     * Returns the JSON factory of the shared mapper. Parsers and generators created by it use the shared mapper as
+     * their codec.
+     */
+    public static JsonFactory getJsonFactory() {
+        return mapper.getFactory();
+    }
+
+    /**
+     * Returns a reader of the given type.
+     *
+     * @param type - The type to read
+     * @return the cached reader
+     */
+    public static ObjectReader readerFor(Class<?> type) {
+        return readerFor(mapper.constructType(type));
+    }
+
+    /**
+     * Returns a reader of the given generic type.
+     *
+     * @param type - The type to read
+     * @return the cached reader
+     */
+    public static ObjectReader readerFor(TypeReference<?> type) {
+        return readerFor(mapper.getTypeFactory().constructType(type));
+    }
+
+    private static ObjectReader readerFor(JavaType type) {
+        return readers.computeIfAbsent(type, mapper::readerFor);
+    }
+
+    /**
+     * Returns a compact writer.
+     */
+    public static ObjectWriter writer() {
+        return writer;
+    }
+
+    /**
+     * Returns a writer which uses the default pretty printer.
+     */
+    public static ObjectWriter prettyWriter() {
+        return prettyWriter;
+    }
+
+    /**
+     * Returns a compact writer which writes a {@link BuildInfo} and its modules in the format of
+     * {@link org.jfrog.build.api.Build}, which is the format Artifactory expects. Serializing the build-info with this
+     * writer is equivalent to serializing {@link BuildInfo#ToBuild()}, without copying the modules, artifacts and
+     * dependencies first. Local paths, build dependencies and the parent build ID, which {@link BuildInfo#ToBuild()}
+     * doesn't copy, are omitted. Module IDs are trimmed and module types are lowercased. Like
+     * {@link BuildInfo#ToBuild()}, only the last of modules with the same trimmed ID is written. The modules are written
+     * in the order of their first occurrence, while {@link BuildInfo#ToBuild()} doesn't keep their order.
+     */
+    public static ObjectWriter buildInfoWriter() {
+        return buildInfoWriter;
+    }
+
+    private abstract static class BuildInfoMixIn {
+        @JsonIgnore
+        abstract List<BuildDependency> getBuildDependencies();
+
+        @JsonIgnore
+        abstract String getParentBuildId();
+
+        @JsonSerialize(converter = UniqueModulesConverter.class)
+        abstract List<Module> getModules();
+    }
+
+    private abstract static class BuildFileBeanMixIn {
+        @JsonIgnore
+        abstract String getLocalPath();
+    }
+
+    private abstract static class ModuleMixIn {
+        @JsonSerialize(converter = TrimConverter.class)
+        abstract String getId();
+
+        @JsonSerialize(converter = LowerCaseConverter.class)
+        abstract String getType();
+    }
+
+    /**
+     * Keeps the last of modules with the same trimmed ID, at the position of the first one.
+     */
+    private static class UniqueModulesConverter extends StdConverter<List<Module>, List<Module>> {
+        @Override
+        public List<Module> convert(List<Module> modules) {
+            Map<String, Module> modulesById = new LinkedHashMap<>();
+            for (Module module : modules) {
+                modulesById.put(module.getId() == null ? null : module.getId().trim(), module);
+            }
+            return modulesById.size() == modules.size() ? modules : new ArrayList<>(modulesById.values());
+        }
+    }
+
+    private static class TrimConverter extends StdConverter<String, String> {
+        @Override
+        public String convert(String value) {
+            return value.trim();
+        }
+    }
+
+    private static class LowerCaseConverter extends StdConverter<String, String> {
+        @Override
+        public String convert(String value) {
+            return value.toLowerCase();
+        }
+    }
+}
@@ -1,13 +1,10 @@
 package org.jfrog.build.extractor;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import org.jfrog.build.extractor.ci.Module;
 
 import java.io.File;
 import java.io.IOException;
 
-import static org.jfrog.build.extractor.BuildInfoExtractorUtils.createMapper;
-
 /**
  * Utilities for serializing/deserializing Module info as json
  */
@@ -27,7 +24,7 @@ public class ModuleExtractorUtils {
         if (!toFile.exists()) {
             toFile.createNewFile();
         }
-        createMapper().writeValue(toFile, module);
+        JsonMappers.writer().writeValue(toFile, module);
     }
 
     /**
@@ -38,7 +35,6 @@ public class ModuleExtractorUtils {
      * @throws IOException in case of any deserialization error.
      */
     public static Module readModuleFromFile(File fromFile) throws IOException {
-        return createMapper().readValue(fromFile, new TypeReference<Module>() {
-        });
+        return JsonMappers.readerFor(Module.class).readValue(fromFile);
     }
 }
@@ -1,55 +1,124 @@
 package org.jfrog.build.extractor;
 
+import org.apache.commons.lang3.StringUtils;
 import org.jfrog.build.client.ArtifactoryUploadResponse;
 import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
 import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
+import org.jfrog.build.extractor.clientConfiguration.deploy.DeploymentJournal;
+import org.jfrog.build.extractor.clientConfiguration.deploy.UploadPreflight;
+import org.jfrog.build.extractor.clientConfiguration.deploy.UploadScheduler;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * This class manages artifacts deployment after a maven / gradle build.
- * If publishForkCount is larger than 1, deployment will be parallel between modules.
- * The deployment of every module will always be serial, with maven / gradle descriptors deployed last. This is done to prevent conflicts in Artifactory.
+ * If publishForkCount is larger than 1, artifacts are deployed in parallel by a single pool of publishForkCount threads,
+ * both between modules and within every module, with the largest files deployed first.
+ * The maven / gradle / ivy descriptors of every module are always deployed last, only after all the other artifacts of
+ * the module were deployed successfully. This is done to prevent conflicts in Artifactory.
+ * If the {@link UploadPreflight} check is enabled, artifacts which already exist in Artifactory are not uploaded again.
+ * If the {@link DeploymentJournal} is enabled, deployed artifacts are recorded in it, and an interrupted deployment can
+ * be resumed.
  */
 public class ModuleParallelDeployHelper {
     public static final int DEFAULT_DEPLOYMENT_THREADS = 3;
 
+    private static final AtomicInteger poolNumber = new AtomicInteger(1);
+
     public void deployArtifacts(ArtifactoryManager artifactoryManager,
                                 Map<String, Set<DeployDetails>> deployableArtifactsByModule, int publishForkCount) {
-        if (publishForkCount <= 1) {
-            deployableArtifactsByModule.forEach((module, deployableArtifacts) -> deploy(artifactoryManager, deployableArtifacts, null));
-        } else {
-            try {
-                ExecutorService executor = Executors.newFixedThreadPool(publishForkCount);
-                CompletableFuture<Void> allDeployments = CompletableFuture.allOf(
-                        deployableArtifactsByModule.values().stream()
-                                .map(deployDetails ->
-                                        CompletableFuture.runAsync(() ->
-                                                deploy(artifactoryManager, deployDetails, "[" + Thread.currentThread().getName() + "]"), executor))
-                                .toArray(CompletableFuture[]::new));
-                allDeployments.get();
-            } catch (InterruptedException | ExecutionException e) {
-                throw new RuntimeException(e);
+        try (DeploymentJournal journal = DeploymentJournal.fromSystemProperties(artifactoryManager.getLog())) {
+            Deployer deployer = new Deployer(artifactoryManager, journal);
+            deployer.checkPreflight(deployableArtifactsByModule);
+            if (publishForkCount <= 1) {
+                deployableArtifactsByModule.forEach((module, deployableArtifacts) -> deployer.deploy(deployableArtifacts));
+            } else {
+                new ParallelDeployment(deployer, publishForkCount).deploy(deployableArtifactsByModule);
             }
+        } catch (IOException e) {
+            throw new RuntimeException("Error occurred while accessing the deployment journal", e);
         }
     }
 
-    private void deploy(ArtifactoryManager artifactoryManager, Set<DeployDetails> deployableArtifacts, String logPrefix) {
-        deployableArtifacts.forEach(artifact -> {
+    /**
+     * Returns true if the artifact is a maven POM, a gradle module metadata file or an ivy descriptor.
+     *
+     * @param artifact - The artifact to check
+     */
+    static boolean isDescriptor(DeployDetails artifact) {
+        String fileName = StringUtils.substringAfterLast("/" + artifact.getArtifactPath(), "/");
+        return fileName.endsWith(".pom") || fileName.endsWith(".module") ||
+                (fileName.startsWith("ivy") && fileName.endsWith(".xml"));
+    }
+
+    /**
+     * Deploys artifacts one by one. Artifacts which were already deployed according to the deployment journal, or which
+     * already exist in Artifactory according to the pre-flight check, are not uploaded.
+     */
+    private static class Deployer {
+        private final ArtifactoryManager artifactoryManager;
+        private final DeploymentJournal journal;
+        private final UploadPreflight preflight;
+
+        private Deployer(ArtifactoryManager artifactoryManager, DeploymentJournal journal) {
+            this.artifactoryManager = artifactoryManager;
+            this.journal = journal;
+            this.preflight = UploadPreflight.fromSystemProperties(artifactoryManager);
+        }
+
+        private void checkPreflight(Map<String, Set<DeployDetails>> deployableArtifactsByModule) {
+            if (preflight == null) {
+                return;
+            }
+            List<DeployDetails> artifacts = new ArrayList<>();
+            deployableArtifactsByModule.values().forEach(moduleArtifacts -> moduleArtifacts.stream()
+                    .filter(artifact -> journal == null || !journal.isDeployed(artifact))
+                    .forEach(artifacts::add));
+            preflight.check(artifacts);
+        }
+
+        private void deploy(Set<DeployDetails> deployableArtifacts) {
+            List<DeployDetails> descriptors = new ArrayList<>();
+            for (DeployDetails artifact : deployableArtifacts) {
+                if (isDescriptor(artifact)) {
+                    descriptors.add(artifact);
+                } else {
+                    deploy(artifact, null);
+                }
+            }
+            descriptors.forEach(descriptor -> deploy(descriptor, null));
+        }
+
+        private void deploy(DeployDetails artifact, String logPrefix) {
+            String requestedPath = artifact.getArtifactPath();
             try {
-                ArtifactoryUploadResponse response = artifactoryManager.upload(artifact, logPrefix);
-                // Save information returned from Artifactory after the deployment.
-                artifact.setDeploySucceeded(true);
-                artifact.setSha256(response.getChecksums().getSha256());
-                // When a maven SNAPSHOT artifact is deployed, Artifactory adds a timestamp to the artifact name, after the artifact is deployed.
-                // ArtifactPath needs to be updated accordingly.
-                artifact.setArtifactPath(response.getPath());
+                if (journal != null && journal.skipIfDeployed(artifact, artifactoryManager)) {
+                    return;
+                }
+                if (preflight == null || !preflight.skipIfDeployed(artifact, logPrefix)) {
+                    ArtifactoryUploadResponse response = UploadScheduler.getInstance().upload(artifactoryManager, artifact, logPrefix);
+                    // Save information returned from Artifactory after the deployment.
+                    artifact.setDeploySucceeded(true);
+                    artifact.setSha256(response.getChecksums().getSha256());
+                    // When a maven SNAPSHOT artifact is deployed, Artifactory adds a timestamp to the artifact name, after the artifact is deployed.
+                    // ArtifactPath needs to be updated accordingly.
+                    artifact.setArtifactPath(response.getPath());
+                }
+                if (journal != null) {
+                    journal.record(artifact, requestedPath);
+                }
             } catch (IOException e) {
                 artifact.setDeploySucceeded(false);
                 artifact.setSha256("");
@@ -57,6 +126,135 @@ public class ModuleParallelDeployHelper {
                         artifact.getFile() +
                         ".\n Skipping deployment of remaining artifacts (if any) and build info.", e);
             }
-        });
+        }
+    }
+
+    /**
+     * Deploys the artifacts of all the modules using a single bounded pool.
+     * The descriptors of a module are scheduled once all the other artifacts of the module were deployed. After the
+     * first failure, the remaining artifacts are skipped.
+     */
+    private class ParallelDeployment {
+        private final Deployer deployer;
+        private final ThreadPoolExecutor executor;
+        private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final AtomicInteger remaining = new AtomicInteger();
+
+        private ParallelDeployment(Deployer deployer, int threads) {
+            this.deployer = deployer;
+            int pool = poolNumber.getAndIncrement();
+            AtomicInteger threadNumber = new AtomicInteger(1);
+            ThreadFactory threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, "deployer-" + pool + "-" + threadNumber.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            };
+            // The queue orders the pending uploads by file size, largest first
+            executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(), threadFactory);
+        }
+
+        private void deploy(Map<String, Set<DeployDetails>> deployableArtifactsByModule) {
+            List<ModuleDeployment> modules = new ArrayList<>();
+            deployableArtifactsByModule.values().forEach(artifacts -> modules.add(new ModuleDeployment(artifacts)));
+            remaining.set(modules.stream().mapToInt(ModuleDeployment::size).sum());
+            try {
+                if (remaining.get() == 0) {
+                    return;
+                }
+                modules.forEach(ModuleDeployment::start);
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } finally {
+                executor.shutdownNow();
+            }
+            if (failure.get() != null) {
+                throw failure.get();
+            }
+        }
+
+        private void finished(int count) {
+            if (remaining.addAndGet(-count) == 0) {
+                done.countDown();
+            }
+        }
+
+        private class ModuleDeployment {
+            private final List<DeployDetails> binaries = new ArrayList<>();
+            private final List<DeployDetails> descriptors = new ArrayList<>();
+            private final AtomicInteger remainingBinaries;
+
+            private ModuleDeployment(Set<DeployDetails> artifacts) {
+                artifacts.forEach(artifact -> (isDescriptor(artifact) ? descriptors : binaries).add(artifact));
+                remainingBinaries = new AtomicInteger(binaries.size());
+            }
+
+            private int size() {
+                return binaries.size() + descriptors.size();
+            }
+
+            private void start() {
+                if (binaries.isEmpty()) {
+                    startDescriptors();
+                } else {
+                    binaries.forEach(binary -> executor.execute(new UploadTask(binary, this)));
+                }
+            }
+
+            private void binaryFinished() {
+                if (remainingBinaries.decrementAndGet() == 0) {
+                    if (failure.get() == null) {
+                        startDescriptors();
+                    } else {
+                        // Skip the descriptors of a module with missing binaries
+                        finished(descriptors.size());
+                    }
+                }
+            }
+
+            private void startDescriptors() {
+                descriptors.forEach(descriptor -> executor.execute(new UploadTask(descriptor, null)));
+            }
+        }
+
+        private class UploadTask implements Runnable, Comparable<UploadTask> {
+            private final DeployDetails artifact;
+            private final ModuleDeployment module;
+            private final long size;
+
+            /**
+             * @param artifact - The artifact to deploy
+             * @param module   - The module to notify once the artifact is deployed, or null for a descriptor
+             */
+            private UploadTask(DeployDetails artifact, ModuleDeployment module) {
+                this.artifact = artifact;
+                this.module = module;
+                File file = artifact.getFile();
+                this.size = file == null ? 0 : file.length();
+            }
+
+            @Override
+            public void run() {
+                try {
+                    if (failure.get() == null) {
+                        deployer.deploy(artifact, "[" + Thread.currentThread().getName() + "]");
+                    }
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    if (module != null) {
+                        module.binaryFinished();
+                    }
+                    finished(1);
+                }
+            }
+
+            @Override
+            public int compareTo(UploadTask other) {
+                return Long.compare(other.size, size);
+            }
+        }
     }
 }
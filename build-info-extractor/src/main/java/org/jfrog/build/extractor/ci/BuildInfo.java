@@ -13,7 +13,9 @@ import org.jfrog.build.extractor.builder.ModuleBuilder;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.stream.Collectors;
 
@@ -518,7 +520,10 @@ public class BuildInfo extends BaseBuildBean {
             if (this.getModules() == null) {
                 this.setModules(modules);
             } else {
-                modules.forEach(this::addModule);
+                // Index the existing modules by ID, instead of searching all the modules for every appended module.
+                Map<String, Module> modulesIndex = new HashMap<>();
+                this.getModules().forEach(module -> modulesIndex.putIfAbsent(module.getId(), module));
+                modules.forEach(module -> addModule(modulesIndex, module));
             }
         }
     }
@@ -534,16 +539,13 @@ public class BuildInfo extends BaseBuildBean {
         }
     }
 
-    private void addModule(Module other) {
-        List<Module> modules = getModules();
-        Module currentModule = modules.stream()
-                // Check if there's already a module with the same name.
-                .filter(module -> StringUtils.equals(module.getId(), other.getId()))
-                .findAny()
-                .orElse(null);
+    private void addModule(Map<String, Module> modulesIndex, Module other) {
+        // Check if there's already a module with the same name.
+        Module currentModule = modulesIndex.get(other.getId());
         if (currentModule == null) {
             // Append new module.
             modules.add(other);
+            modulesIndex.put(other.getId(), other);
         } else {
             // Append the other module into the existing module with the same name.
             currentModule.append(other);
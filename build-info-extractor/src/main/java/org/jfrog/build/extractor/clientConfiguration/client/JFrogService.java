@@ -1,7 +1,6 @@
 package org.jfrog.build.extractor.clientConfiguration.client;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
 import org.apache.commons.io.IOUtils;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
@@ -10,12 +9,14 @@ import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.util.EntityUtils;
 import org.jfrog.build.api.util.Log;
 import org.jfrog.build.client.JFrogHttpClient;
+import org.jfrog.build.extractor.JsonMappers;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
-
-import static org.jfrog.build.extractor.BuildInfoExtractorUtils.createMapper;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * JFrogService represents a generic way of processing a REST endpoint process that structures how REST sends, handles errors, and parses the response.
@@ -28,7 +29,6 @@ public abstract class JFrogService<TResult> {
     protected int statusCode;
     protected JFrogServiceResponseType responseType;
     private Header[] headers;
-    private ObjectMapper mapper;
 
     protected JFrogService(Log log) {
         this.log = log;
@@ -52,13 +52,10 @@ public abstract class JFrogService<TResult> {
 
     /**
      * Default ObjectMapper to parse or deserialize JSON content into a Java object.
+     * The mapper is shared by all the services and must not be reconfigured.
      */
     protected ObjectMapper getMapper() {
-        if (mapper == null) {
-            mapper = createMapper();
-            mapper.setAnnotationIntrospector(new JacksonAnnotationIntrospector());
-        }
-        return mapper;
+        return JsonMappers.getMapper();
     }
 
     public TResult getResult() {
@@ -131,6 +128,32 @@ public abstract class JFrogService<TResult> {
         }
     }
 
+    /**
+     * Convenience for running {@link #execute(JFrogHttpClient)} on the given executor, instead of the calling thread.
+     * The request is still blocking: it holds an executor thread until the response is processed, so the number of
+     * requests in flight is bounded by the executor, not by the connection pool of the client.
+     * The service instance must not be executed again before the returned future is completed.
+     *
+     * @param client   - http client for sending the request.
+     * @param executor - The executor to run the request on.
+     * @return - A future of the response body object, completed exceptionally if the execution failed.
+     */
+    public CompletableFuture<TResult> submit(JFrogHttpClient client, Executor executor) {
+        CompletableFuture<TResult> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(execute(client));
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
     private void processResponse(HttpEntity entity) throws IOException {
         if (responseType == JFrogServiceResponseType.EMPTY) {
             return;
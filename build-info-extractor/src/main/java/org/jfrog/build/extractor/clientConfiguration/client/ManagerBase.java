@@ -7,10 +7,21 @@ import org.jfrog.build.client.ProxyConfiguration;
 
 import javax.net.ssl.SSLContext;
 import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class ManagerBase implements AutoCloseable {
+    /**
+     * The maximum time {@link #close()} waits for the submitted requests to complete.
+     */
+    public static final int EXECUTOR_SHUTDOWN_TIMEOUT_SECS = 60;
+    private static final AtomicInteger executorNumber = new AtomicInteger(1);
     protected final JFrogHttpClient jfrogHttpClient;
     protected final Log log;
+    private ThreadPoolExecutor requestExecutor;
 
     protected ManagerBase(String url, String username, String password, String accessToken, Log logger) {
         if (StringUtils.isNotEmpty(accessToken)) {
@@ -77,12 +88,12 @@ public abstract class ManagerBase implements AutoCloseable {
     }
 
     /**
-     * Log setter for the PreemptiveHttpClient for jobs like the Jenkins Generic job that uses NullLog by default.
+     * Log setter for the requests of this manager, for jobs like the Jenkins Generic job that uses NullLog by default.
      *
      * @param log Log instance
      */
     public void setLog(Log log) {
-        jfrogHttpClient.getHttpClient().setLog(log);
+        jfrogHttpClient.setLog(log);
     }
 
     public void setInsecureTls(boolean insecureTls) {
@@ -97,8 +108,55 @@ public abstract class ManagerBase implements AutoCloseable {
         return jfrogHttpClient.getUrl();
     }
 
+    public Log getLog() {
+        return log;
+    }
+
+    /**
+     * Returns the executor which runs the requests submitted without blocking the calling thread. Each request holds
+     * one of its threads while it waits for the response. The executor has up to {@code maxConnectionsPerRoute}
+     * threads of its own, and isn't shared with other managers, even when they share the http client.
+     * Idle threads time out, and the executor is shut down when the manager is closed.
+     *
+     * @see #close()
+     */
+    protected synchronized Executor getRequestExecutor() {
+        if (requestExecutor == null) {
+            int threads = Math.max(1, jfrogHttpClient.getMaxConnectionsPerRoute());
+            int pool = executorNumber.getAndIncrement();
+            AtomicInteger threadNumber = new AtomicInteger(1);
+            requestExecutor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "http-request-" + pool + "-" + threadNumber.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+            requestExecutor.allowCoreThreadTimeOut(true);
+        }
+        return requestExecutor;
+    }
+
+    /**
+     * Releases the http client. If requests were submitted to the request executor and are not completed yet, waits for them up
+     * to {@value #EXECUTOR_SHUTDOWN_TIMEOUT_SECS} seconds first, so closing the manager may block for that long.
+     * Requests which are still running after that are not cancelled, and complete or fail on their own.
+     */
     @Override
     public void close() {
+        synchronized (this) {
+            if (requestExecutor != null) {
+                // Let the submitted requests complete before releasing the http client
+                requestExecutor.shutdown();
+                try {
+                    if (!requestExecutor.awaitTermination(EXECUTOR_SHUTDOWN_TIMEOUT_SECS, TimeUnit.SECONDS)) {
+                        log.warn("Submitted requests to " + getUrl() + " did not complete within " +
+                                EXECUTOR_SHUTDOWN_TIMEOUT_SECS + " seconds. Closing without waiting for them.");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                requestExecutor = null;
+            }
+        }
         if (jfrogHttpClient != null) {
             jfrogHttpClient.close();
         }
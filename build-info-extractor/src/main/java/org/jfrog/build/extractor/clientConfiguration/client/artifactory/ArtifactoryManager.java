@@ -10,6 +10,7 @@ import org.jfrog.build.api.multiMap.Multimap;
 import org.jfrog.build.api.release.Distribution;
 import org.jfrog.build.api.release.Promotion;
 import org.jfrog.build.api.search.AqlSearchResult;
+import org.jfrog.build.api.search.AqlSearchResultHandler;
 import org.jfrog.build.api.util.Log;
 import org.jfrog.build.client.ArtifactoryUploadResponse;
 import org.jfrog.build.client.ArtifactoryVersion;
@@ -23,6 +24,8 @@ import org.jfrog.build.extractor.clientConfiguration.client.RepositoryType;
 import org.jfrog.build.extractor.clientConfiguration.client.artifactory.services.*;
 import org.jfrog.build.extractor.clientConfiguration.client.response.GetAllBuildNumbersResponse;
 import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
+import org.jfrog.build.extractor.clientConfiguration.util.DigestingFileSink;
+import org.jfrog.build.extractor.clientConfiguration.util.PaginatedAqlSearcher;
 import org.jfrog.build.extractor.usageReport.UsageReporter;
 
 import java.io.File;
@@ -31,6 +34,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 
 import static org.jfrog.build.extractor.clientConfiguration.client.artifactory.services.ScanBuild.XRAY_SCAN_CONNECTION_TIMEOUT_SECS;
 import static org.jfrog.build.extractor.clientConfiguration.util.AqlHelper.isBuildLatestType;
@@ -77,6 +81,16 @@ public class ArtifactoryManager extends ManagerBase {
         setPropertiesService.execute(jfrogHttpClient);
     }
 
+    /**
+     * Same as {@link #setProperties(String, Multimap, boolean)}, on the request executor of the manager instead of the calling thread.
+     *
+     * @return a future which is completed when the properties are set
+     */
+    public CompletableFuture<Void> setPropertiesAsync(String relativePath, Multimap<String, String> properties, boolean encodeProperties) {
+        SetProperties setPropertiesService = new SetProperties(relativePath, properties, encodeProperties, log);
+        return setPropertiesService.submit(jfrogHttpClient, getRequestExecutor()).thenApply(result -> null);
+    }
+
     public void distributeBuild(String buildName, String buildNumber, Distribution promotion) throws IOException {
         DistributeBuild distributeBuildService = new DistributeBuild(buildName, buildNumber, promotion, log);
         distributeBuildService.execute(jfrogHttpClient);
@@ -91,6 +105,16 @@ public class ArtifactoryManager extends ManagerBase {
         return downloadService.execute(jfrogHttpClient);
     }
 
+    /**
+     * Same as {@link #download(String, Map)}, on the request executor of the manager instead of the calling thread.
+     *
+     * @return a future of the download response
+     */
+    public CompletableFuture<DownloadResponse> downloadAsync(String downloadFrom, Map<String, String> headers) {
+        Download downloadService = new Download(downloadFrom, headers, log);
+        return downloadService.submit(jfrogHttpClient, getRequestExecutor());
+    }
+
     /**
      * Download headers and return specific header if exists
      *
@@ -128,6 +152,31 @@ public class ArtifactoryManager extends ManagerBase {
         return downloadToFileService.execute(jfrogHttpClient);
     }
 
+    /**
+     * Same as {@link #downloadToFile(String, String, Map)}, on the request executor of the manager instead of the calling thread.
+     *
+     * @return a future of the downloaded file
+     */
+    public CompletableFuture<File> downloadToFileAsync(String downloadFrom, String downloadTo, Map<String, String> headers) {
+        DownloadToFile downloadToFileService = new DownloadToFile(downloadFrom, downloadTo, headers, log);
+        return downloadToFileService.submit(jfrogHttpClient, getRequestExecutor());
+    }
+
+    /**
+     * Download a file, or a range of it, into a sink which calculates the file checksums on the fly.
+     *
+     * @param downloadFrom - Path to the artifact in Artifactory.
+     * @param sink         - The destination sink.
+     * @param offset       - The offset in the destination file to write the response body at.
+     * @param headers      - Additional request headers, such as the Range header.
+     * @return the number of bytes written to the sink.
+     */
+    public long downloadToSink(String downloadFrom, DigestingFileSink sink, long offset, Map<String, String> headers) throws IOException {
+        DownloadToSink downloadToSinkService = new DownloadToSink(downloadFrom, sink, offset, headers, log);
+        Long written = downloadToSinkService.execute(jfrogHttpClient);
+        return written == null ? 0 : written;
+    }
+
     public void executeUserPlugin(String executionName, Map<String, String> requestParams) throws IOException {
         ExecuteUserPlugin executeUserPluginService = new ExecuteUserPlugin(executionName, requestParams, log);
         executeUserPluginService.execute(jfrogHttpClient);
@@ -246,6 +295,56 @@ public class ArtifactoryManager extends ManagerBase {
         return searchArtifactsByAqlService.execute(jfrogHttpClient);
     }
 
+    /**
+     * Same as {@link #searchArtifactsByAql(String)}, on the request executor of the manager instead of the calling thread.
+     *
+     * @return a future of the search result
+     */
+    public CompletableFuture<AqlSearchResult> searchArtifactsByAqlAsync(String aql) {
+        SearchArtifactsByAql searchArtifactsByAqlService = new SearchArtifactsByAql(aql, log);
+        return searchArtifactsByAqlService.submit(jfrogHttpClient, getRequestExecutor());
+    }
+
+    /**
+     * Same as {@link #searchArtifactsByAql(String, AqlSearchResultHandler)}, on the request executor of the manager instead of the calling thread.
+     * The handler is called on the thread which reads the response.
+     *
+     * @return a future of the number of result entries
+     */
+    public CompletableFuture<Integer> searchArtifactsByAqlAsync(String aql, AqlSearchResultHandler handler) {
+        StreamSearchArtifactsByAql streamSearchArtifactsByAqlService = new StreamSearchArtifactsByAql(aql, handler, log);
+        return streamSearchArtifactsByAqlService.submit(jfrogHttpClient, getRequestExecutor())
+                .thenApply(count -> count == null ? 0 : count);
+    }
+
+    /**
+     * Searches artifacts by AQL and passes every result entry to the handler while the response is read,
+     * instead of keeping all the results in memory.
+     *
+     * @param aql     - The AQL query
+     * @param handler - The handler of the result entries
+     * @return the number of result entries
+     */
+    public int searchArtifactsByAql(String aql, AqlSearchResultHandler handler) throws IOException {
+        StreamSearchArtifactsByAql streamSearchArtifactsByAqlService = new StreamSearchArtifactsByAql(aql, handler, log);
+        Integer count = streamSearchArtifactsByAqlService.execute(jfrogHttpClient);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Searches artifacts by AQL in pages of the given size, fetching up to the given number of pages concurrently.
+     * The results are passed to the handler in order. Queries which can't be split into pages are sent as a single request.
+     *
+     * @param aql           - The AQL query
+     * @param pageSize      - The number of results per page. 0 to disable the pagination.
+     * @param parallelPages - Maximum number of pages fetched concurrently
+     * @param handler       - The handler of the result entries
+     * @return the number of result entries
+     */
+    public int searchArtifactsByAql(String aql, int pageSize, int parallelPages, AqlSearchResultHandler handler) throws IOException {
+        return new PaginatedAqlSearcher(this::searchArtifactsByAql, pageSize, parallelPages, log).search(aql, handler);
+    }
+
     public PatternResultFileSet searchArtifactsByPattern(String pattern) throws IOException {
         SearchArtifactsByPattern searchArtifactsByPatternService = new SearchArtifactsByPattern(pattern, log);
         return searchArtifactsByPatternService.execute(jfrogHttpClient);
@@ -284,6 +383,16 @@ public class ArtifactoryManager extends ManagerBase {
         return uploadService.execute(jfrogHttpClient);
     }
 
+    /**
+     * Same as {@link #upload(DeployDetails, String, Integer)}, on the request executor of the manager instead of the calling thread.
+     *
+     * @return a future of the upload response
+     */
+    public CompletableFuture<ArtifactoryUploadResponse> uploadAsync(DeployDetails details, String logPrefix, Integer minChecksumDeploySizeKb) {
+        Upload uploadService = new Upload(details, logPrefix, minChecksumDeploySizeKb, log);
+        return uploadService.submit(jfrogHttpClient, getRequestExecutor());
+    }
+
     public void deleteRepository(String repository) throws IOException {
         DeleteRepository deleteRepositoryService = new DeleteRepository(repository, log);
         deleteRepositoryService.execute(jfrogHttpClient);
@@ -0,0 +1,62 @@
+package org.jfrog.build.extractor.clientConfiguration.client.artifactory.services;
+
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.extractor.clientConfiguration.util.DigestingFileSink;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * Downloads a file, or a range of it, into a {@link DigestingFileSink}.
+ * The result is the number of bytes written. If a range is requested, the response must be a partial content
+ * response, so a full body sent by a server which ignores the range isn't written over the neighbouring ranges.
+ */
+public class DownloadToSink extends DownloadBase<Long> {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private final DigestingFileSink sink;
+    private final long offset;
+    private final boolean rangeRequest;
+
+    /**
+     * @param downloadFrom - Path to the artifact in Artifactory
+     * @param sink         - The destination sink
+     * @param offset       - The offset in the destination file to write the response body at
+     * @param headers      - Additional request headers, such as the Range header
+     * @param log          - The logger
+     */
+    public DownloadToSink(String downloadFrom, DigestingFileSink sink, long offset, Map<String, String> headers, Log log) {
+        super(downloadFrom, false, headers, log);
+        this.sink = sink;
+        this.offset = offset;
+        this.rangeRequest = headers != null && headers.keySet().stream().anyMatch(HttpHeaders.RANGE::equalsIgnoreCase);
+    }
+
+    @Override
+    protected void setResponse(InputStream stream) throws IOException {
+        validateStatusCode();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long position = offset;
+        int read;
+        while ((read = stream.read(buffer)) != -1) {
+            sink.write(position, buffer, read);
+            position += read;
+        }
+        result = position - offset;
+    }
+
+    @Override
+    protected void handleEmptyEntity() throws IOException {
+        validateStatusCode();
+        result = 0L;
+    }
+
+    private void validateStatusCode() throws IOException {
+        if (rangeRequest && getStatusCode() != HttpStatus.SC_PARTIAL_CONTENT) {
+            throw new IOException(String.format("Expected a partial content response for a range request, but received %d",
+                    getStatusCode()));
+        }
+    }
+}
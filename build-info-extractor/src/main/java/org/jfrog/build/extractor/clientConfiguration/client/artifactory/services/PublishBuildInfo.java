@@ -3,30 +3,28 @@ package org.jfrog.build.extractor.clientConfiguration.client.artifactory.service
 import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpRequestBase;
-import org.apache.http.entity.StringEntity;
-import org.jfrog.build.api.Build;
 import org.jfrog.build.api.util.Log;
 import org.jfrog.build.client.JFrogHttpClient;
+import org.jfrog.build.extractor.JsonMappers;
 import org.jfrog.build.extractor.ci.BuildInfo;
 import org.jfrog.build.extractor.clientConfiguration.client.VoidJFrogService;
+import org.jfrog.build.extractor.clientConfiguration.util.JsonEntity;
 
 import java.io.IOException;
 
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 import static org.jfrog.build.extractor.BuildInfoExtractorUtils.createBuildInfoUrl;
 import static org.jfrog.build.extractor.UrlUtils.getProjectQueryParam;
-import static org.jfrog.build.extractor.clientConfiguration.util.JsonUtils.toJsonString;
 
 public class PublishBuildInfo extends VoidJFrogService {
     private static final String BUILD_REST_URL = "/api/build";
 
-    private final Build build;
+    private final BuildInfo build;
     private final String platformUrl;
-    private String buildJson;
 
     public PublishBuildInfo(BuildInfo buildInfo, String platformUrl, Log logger) {
         super(logger);
-        this.build = buildInfo.ToBuild();
+        this.build = buildInfo;
         this.platformUrl = platformUrl;
     }
 
@@ -36,20 +34,11 @@ public class PublishBuildInfo extends VoidJFrogService {
         throwException(entity, getStatusCode());
     }
 
-    @Override
-    protected void ensureRequirements(JFrogHttpClient client) throws IOException {
-        if (build == null) {
-            return;
-        }
-        buildJson = toJsonString(build);
-    }
-
     @Override
     public HttpRequestBase createRequest() {
         HttpPut request = new HttpPut(BUILD_REST_URL + getProjectQueryParam(build.getProject()));
-        StringEntity stringEntity = new StringEntity(buildJson, "UTF-8");
-        stringEntity.setContentType("application/vnd.org.jfrog.artifactory+json");
-        request.setEntity(stringEntity);
+        request.setEntity(new JsonEntity(build, JsonMappers.buildInfoWriter(), "application/vnd.org.jfrog.artifactory+json",
+                JsonEntity.isGzipEnabled()));
         log.info("Deploying build info...");
         return request;
     }
@@ -1,6 +1,5 @@
 package org.jfrog.build.extractor.clientConfiguration.client.artifactory.services;
 
-import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.io.IOUtils;
@@ -70,7 +69,7 @@ public class ScanBuild extends JFrogService<ArtifactoryXrayResponse> {
 
     @Override
     protected void setResponse(InputStream stream) throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
+        ObjectMapper mapper = getMapper();
         String content = IOUtils.toString(stream, StandardCharsets.UTF_8.name());
         JsonNode result;
         try {
@@ -91,7 +90,6 @@ public class ScanBuild extends JFrogService<ArtifactoryXrayResponse> {
             }
             throw new XrayErrorException("Artifactory response: " + resultStr);
         }
-        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
         this.result = mapper.treeToValue(result, ArtifactoryXrayResponse.class);
     }
 
@@ -3,26 +3,25 @@ package org.jfrog.build.extractor.clientConfiguration.client.artifactory.service
 import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpRequestBase;
-import org.apache.http.entity.StringEntity;
-import org.jfrog.build.api.Build;
 import org.jfrog.build.api.util.Log;
+import org.jfrog.build.extractor.JsonMappers;
 import org.jfrog.build.extractor.ci.BuildInfo;
 import org.jfrog.build.extractor.clientConfiguration.client.VoidJFrogService;
+import org.jfrog.build.extractor.clientConfiguration.util.JsonEntity;
 
 import java.io.IOException;
 
 import static org.jfrog.build.extractor.UrlUtils.encodeUrlPathPart;
 import static org.jfrog.build.extractor.UrlUtils.getProjectQueryParam;
-import static org.jfrog.build.extractor.clientConfiguration.util.JsonUtils.toJsonString;
 
 public class SendModuleInfo extends VoidJFrogService {
     public static final String APPLICATION_VND_ORG_JFROG_ARTIFACTORY_JSON = "application/vnd.org.jfrog.artifactory+json";
     private static final String SEND_MODULE_INFO_ENDPOINT = "/api/build/append/";
-    private final Build build;
+    private final BuildInfo build;
 
     public SendModuleInfo(BuildInfo buildInfo, Log logger) {
         super(logger);
-        this.build = buildInfo.ToBuild();
+        this.build = buildInfo;
     }
 
     @Override
@@ -30,10 +29,8 @@ public class SendModuleInfo extends VoidJFrogService {
         String url = SEND_MODULE_INFO_ENDPOINT + encodeUrlPathPart(build.getName()) + "/" +
                 encodeUrlPathPart(build.getNumber()) + getProjectQueryParam(build.getProject());
         HttpPost request = new HttpPost(url);
-        String modulesAsJsonString = toJsonString(build.getModules());
-        StringEntity stringEntity = new StringEntity(modulesAsJsonString, "UTF-8");
-        stringEntity.setContentType(APPLICATION_VND_ORG_JFROG_ARTIFACTORY_JSON);
-        request.setEntity(stringEntity);
+        request.setEntity(new JsonEntity(build.getModules(), JsonMappers.buildInfoWriter(),
+                APPLICATION_VND_ORG_JFROG_ARTIFACTORY_JSON, JsonEntity.isGzipEnabled()));
         log.info("Deploying build-info descriptor to: " + request.getURI().toString());
         return request;
     }
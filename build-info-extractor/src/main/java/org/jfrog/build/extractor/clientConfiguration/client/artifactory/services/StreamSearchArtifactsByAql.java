@@ -0,0 +1,79 @@
+package org.jfrog.build.extractor.clientConfiguration.client.artifactory.services;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.StringEntity;
+import org.jfrog.build.api.search.AqlSearchResult;
+import org.jfrog.build.api.search.AqlSearchResultHandler;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.extractor.JsonMappers;
+import org.jfrog.build.extractor.clientConfiguration.client.JFrogService;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Searches artifacts by AQL and passes every result entry to a handler as soon as it is parsed,
+ * so the memory used doesn't depend on the number of results.
+ * The result of the service is the number of handled entries.
+ */
+public class StreamSearchArtifactsByAql extends JFrogService<Integer> {
+    private static final String SEARCH_ARTIFACT_BY_AQL_ENDPOINT = "api/search/aql";
+    private static final String RESULTS_FIELD = "results";
+
+    private final String aql;
+    private final AqlSearchResultHandler handler;
+
+    public StreamSearchArtifactsByAql(String aql, AqlSearchResultHandler handler, Log log) {
+        super(log);
+        this.aql = aql;
+        this.handler = handler;
+        result = 0;
+    }
+
+    @Override
+    public HttpRequestBase createRequest() throws IOException {
+        HttpPost request = new HttpPost(SEARCH_ARTIFACT_BY_AQL_ENDPOINT);
+        StringEntity entity = new StringEntity(aql);
+        request.setEntity(entity);
+        return request;
+    }
+
+    @Override
+    protected void handleUnsuccessfulResponse(HttpEntity entity) throws IOException {
+        log.error("Failed to search artifact by the aql '" + aql + "'");
+        throwException(entity, getStatusCode());
+    }
+
+    @Override
+    protected void setResponse(InputStream stream) throws IOException {
+        ObjectReader entryReader = JsonMappers.readerFor(AqlSearchResult.SearchEntry.class);
+        try (JsonParser parser = getMapper().getFactory().createParser(stream)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Unexpected AQL response: expected a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if (!RESULTS_FIELD.equals(fieldName) || token != JsonToken.START_ARRAY) {
+                    // Skip other fields, such as 'range'
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    handler.handle(entryReader.readValue(parser));
+                    result++;
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void handleEmptyEntity() {
+        result = 0;
+    }
+}
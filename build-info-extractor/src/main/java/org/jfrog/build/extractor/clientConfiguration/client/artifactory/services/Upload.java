@@ -11,11 +11,13 @@ import org.jfrog.build.client.ArtifactoryUploadResponse;
 import org.jfrog.build.client.ArtifactoryVersion;
 import org.jfrog.build.client.JFrogHttpClient;
 import org.jfrog.build.extractor.clientConfiguration.client.JFrogService;
+import org.jfrog.build.extractor.clientConfiguration.deploy.BandwidthLimiter;
 import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
 import org.jfrog.build.extractor.clientConfiguration.util.DeploymentUrlUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -48,11 +50,23 @@ public class Upload extends JFrogService<ArtifactoryUploadResponse> {
             this.isExplode = true;
             request.addHeader(EXPLODE_HEADER_NAME, "true");
         }
-        FileEntity fileEntity = new FileEntity(details.getFile(), "binary/octet-stream");
-        request.setEntity(fileEntity);
+        request.setEntity(createFileEntity());
         return request;
     }
 
+    private FileEntity createFileEntity() {
+        BandwidthLimiter bandwidthLimiter = BandwidthLimiter.getGlobal();
+        if (bandwidthLimiter == null) {
+            return new FileEntity(details.getFile(), "binary/octet-stream");
+        }
+        return new FileEntity(details.getFile(), "binary/octet-stream") {
+            @Override
+            public void writeTo(OutputStream outStream) throws IOException {
+                super.writeTo(bandwidthLimiter.limit(outStream));
+            }
+        };
+    }
+
     @Override
     protected void handleUnsuccessfulResponse(HttpEntity entity) throws IOException {
         log.error("Failed to upload file");
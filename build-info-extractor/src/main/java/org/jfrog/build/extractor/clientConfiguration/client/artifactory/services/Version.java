@@ -7,11 +7,16 @@ import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.jfrog.build.api.util.Log;
 import org.jfrog.build.client.ArtifactoryVersion;
+import org.jfrog.build.client.JFrogHttpClient;
 import org.jfrog.build.extractor.clientConfiguration.client.JFrogService;
 
 import java.io.IOException;
 import java.io.InputStream;
 
+/**
+ * Gets the Artifactory version. The version is memoized by the {@link JFrogHttpClient}, so version-gated services
+ * don't send a request every time.
+ */
 public class Version extends JFrogService<ArtifactoryVersion> {
     private static final String VERSION_REST_URL = "api/system/version";
     private final Log log;
@@ -22,6 +27,11 @@ public class Version extends JFrogService<ArtifactoryVersion> {
         result = ArtifactoryVersion.NOT_FOUND;
     }
 
+    @Override
+    public ArtifactoryVersion execute(JFrogHttpClient client) throws IOException {
+        return client.getArtifactoryVersionCache().get(() -> super.execute(client));
+    }
+
     @Override
     public HttpRequestBase createRequest() {
         return new HttpGet(VERSION_REST_URL);
@@ -1,15 +1,15 @@
 package org.jfrog.build.extractor.clientConfiguration.client.response;
 
-import org.jfrog.build.api.Build;
+import org.jfrog.build.extractor.ci.BuildInfo;
 
 public class GetBuildInfoResponse {
-    private Build buildInfo;
+    private BuildInfo buildInfo;
 
-    public Build getBuildInfo() {
+    public BuildInfo getBuildInfo() {
         return buildInfo;
     }
 
-    public void setBuildInfo(Build buildInfo) {
+    public void setBuildInfo(BuildInfo buildInfo) {
         this.buildInfo = buildInfo;
     }
 }
@@ -0,0 +1,104 @@
+package org.jfrog.build.extractor.clientConfiguration.deploy;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket bandwidth limiter, shared by all the uploads of the process, so that CI agents sharing an uplink don't
+ * starve each other. The bucket holds up to one second of traffic, so short bursts are not delayed.
+ * <p>
+ * The process-wide limit is configured using the {@value #PROP_BANDWIDTH_LIMIT_KBPS} system property, in KB per
+ * second. Uploads are not limited by default.
+ */
+public class BandwidthLimiter {
+    public static final String PROP_BANDWIDTH_LIMIT_KBPS = UploadScheduler.UPLOAD_PREFIX + "bandwidthLimitKbps";
+
+    private final long bytesPerSecond;
+    private double tokens;
+    private long lastRefill = System.nanoTime();
+
+    /**
+     * @param bytesPerSecond - The maximum average rate in bytes per second
+     */
+    public BandwidthLimiter(long bytesPerSecond) {
+        if (bytesPerSecond <= 0) {
+            throw new IllegalArgumentException("Bandwidth limit must be positive: " + bytesPerSecond);
+        }
+        this.bytesPerSecond = bytesPerSecond;
+        this.tokens = bytesPerSecond;
+    }
+
+    /**
+     * Returns the process-wide bandwidth limiter, or null if uploads are not limited.
+     */
+    public static BandwidthLimiter getGlobal() {
+        return GlobalHolder.instance;
+    }
+
+    /**
+     * Blocks until the given number of bytes may be sent.
+     *
+     * @param bytes - The number of bytes to send
+     * @throws InterruptedIOException if the thread is interrupted while waiting
+     */
+    public void acquire(long bytes) throws InterruptedIOException {
+        long waitNanos = reserve(bytes);
+        if (waitNanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for upload bandwidth");
+        }
+    }
+
+    /**
+     * Takes the bytes from the bucket, possibly going into debt, and returns the time to wait until the debt is paid.
+     */
+    private synchronized long reserve(long bytes) {
+        long now = System.nanoTime();
+        tokens = Math.min(bytesPerSecond, tokens + (now - lastRefill) * bytesPerSecond / 1e9);
+        lastRefill = now;
+        tokens -= bytes;
+        return tokens >= 0 ? 0 : (long) (-tokens * 1e9 / bytesPerSecond);
+    }
+
+    /**
+     * Wraps an output stream, so that writes to it are limited by this limiter.
+     *
+     * @param outputStream - The stream to wrap
+     * @return the limited stream
+     */
+    public OutputStream limit(OutputStream outputStream) {
+        return new FilterOutputStream(outputStream) {
+            @Override
+            public void write(int b) throws IOException {
+                acquire(1);
+                out.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                acquire(len);
+                out.write(b, off, len);
+            }
+        };
+    }
+
+    private static class GlobalHolder {
+        private static final BandwidthLimiter instance = createGlobal();
+
+        private static BandwidthLimiter createGlobal() {
+            String value = System.getProperty(PROP_BANDWIDTH_LIMIT_KBPS);
+            long kbps = StringUtils.isNumeric(value) ? Long.parseLong(value) : 0;
+            return kbps > 0 ? new BandwidthLimiter(kbps * 1024) : null;
+        }
+    }
+}
@@ -82,6 +82,10 @@ public class DeployDetails implements Comparable<DeployDetails>, Serializable, P
         return sha1;
     }
 
+    public void setSha1(String sha1) {
+        this.sha1 = sha1;
+    }
+
     public String getSha256() {
         return sha256;
     }
@@ -106,6 +110,10 @@ public class DeployDetails implements Comparable<DeployDetails>, Serializable, P
         return md5;
     }
 
+    public void setMd5(String md5) {
+        this.md5 = md5;
+    }
+
     public boolean isExplode() {
         return explode;
     }
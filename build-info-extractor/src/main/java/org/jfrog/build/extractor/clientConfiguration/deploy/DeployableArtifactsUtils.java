@@ -1,15 +1,13 @@
 package org.jfrog.build.extractor.clientConfiguration.deploy;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.jfrog.build.client.DeployableArtifactDetail;
+import org.jfrog.build.extractor.JsonMappers;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
 
-import static org.jfrog.build.extractor.BuildInfoExtractorUtils.createMapper;
-
 /**
  * Utilities for deployable artifacts.
  * Deployable artifacts file is a list of DeployableArtifactDetail.
@@ -31,8 +29,7 @@ public class DeployableArtifactsUtils {
         Map<String, List<DeployableArtifactDetail>> deployableArtifactsDetails = new HashMap<>();
         deployableArtifactsByModule.forEach((module, deployableArtifacts) ->
                 deployableArtifactsDetails.put(module, DeployableArtifactsUtils.getDeployableArtifactsPaths(deployableArtifacts)));
-        ObjectMapper mapper = createMapper();
-        mapper.writeValue(toFile, deployableArtifactsDetails);
+        JsonMappers.writer().writeValue(toFile, deployableArtifactsDetails);
     }
 
     /**
@@ -43,8 +40,7 @@ public class DeployableArtifactsUtils {
         List<DeployableArtifactDetail> deployableArtifactsList = new ArrayList<>();
         deployableArtifactsByModule.forEach((module, deployableArtifacts) ->
                 deployableArtifactsList.addAll(DeployableArtifactsUtils.getDeployableArtifactsPaths(deployableArtifacts)));
-        ObjectMapper mapper = createMapper();
-        mapper.writeValue(toFile, deployableArtifactsList);
+        JsonMappers.writer().writeValue(toFile, deployableArtifactsList);
     }
 
     @SuppressWarnings({"UnusedDeclaration"})
@@ -60,9 +56,8 @@ public class DeployableArtifactsUtils {
         if (fromFile == null || fromFile.length() == 0) {
             return new HashMap<>();
         }
-        ObjectMapper mapper = createMapper();
-        return mapper.readValue(fromFile, new TypeReference<Map<String, List<DeployableArtifactDetail>>>() {
-        });
+        return JsonMappers.readerFor(new TypeReference<Map<String, List<DeployableArtifactDetail>>>() {
+        }).readValue(fromFile);
     }
 
     /**
@@ -73,9 +68,8 @@ public class DeployableArtifactsUtils {
         if (fromFile == null || fromFile.length() == 0) {
             return new HashMap<>();
         }
-        ObjectMapper mapper = createMapper();
-        List<DeployableArtifactDetail> backwardCompatibleList = mapper.readValue(fromFile, new TypeReference<List<DeployableArtifactDetail>>() {
-        });
+        List<DeployableArtifactDetail> backwardCompatibleList = JsonMappers.readerFor(new TypeReference<List<DeployableArtifactDetail>>() {
+        }).readValue(fromFile);
         // Convert to map
         Map<String, List<DeployableArtifactDetail>> deployableArtifactMap = new HashMap<>();
         if (!backwardCompatibleList.isEmpty()) {
@@ -0,0 +1,224 @@
+package org.jfrog.build.extractor.clientConfiguration.deploy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.jfrog.build.api.multiMap.Multimap;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.extractor.JsonMappers;
+import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Append-only local journal of deployed artifacts, which allows resuming an interrupted deployment.
+ * <p>
+ * Every successfully deployed artifact is appended to the journal as a JSON line, holding its target repository and
+ * path, its sha1 and sha256 checksums, the path it was deployed to and a hash of the properties it was deployed with.
+ * When resuming, the journal is replayed, and artifacts which were already deployed with the same sha1 are not
+ * deployed again. Their deployment details are restored from the journal, so the deployable artifacts file and the
+ * build-info are the same as if they were deployed by the resumed deployment. If their properties changed, for
+ * example by a resumed deployment with another build number, the properties are set on the deployed artifacts.
+ * <p>
+ * The journal is configured using the following system properties:
+ * <ul>
+ * <li>{@value #PROP_JOURNAL_FILE} - Path of the journal file. The journal is disabled by default.</li>
+ * <li>{@value #PROP_RESUME} - Set to true to resume from the existing journal. Otherwise, the existing journal is
+ * discarded. Default: false.</li>
+ * </ul>
+ */
+public class DeploymentJournal implements Closeable {
+    public static final String PROP_JOURNAL_FILE = UploadScheduler.UPLOAD_PREFIX + "journal";
+    public static final String PROP_RESUME = UploadScheduler.UPLOAD_PREFIX + "resume";
+
+    private static final String REPO = "repo";
+    private static final String PATH = "path";
+    private static final String SHA1 = "sha1";
+    private static final String SHA256 = "sha256";
+    private static final String DEPLOYED_PATH = "deployedPath";
+    private static final String PROPERTIES_SHA1 = "propertiesSha1";
+
+    // The journal entries replayed on resume, by repository and path
+    private final Map<String, JsonNode> deployed = new HashMap<>();
+    private final Writer writer;
+    private final Log log;
+
+    /**
+     * @param journalFile - The journal file
+     * @param resume      - True to resume from the existing journal, false to discard it
+     * @param log         - The logger
+     * @throws IOException in case of an error reading or creating the journal
+     */
+    public DeploymentJournal(File journalFile, boolean resume, Log log) throws IOException {
+        this.log = log;
+        if (resume && journalFile.isFile()) {
+            replay(journalFile);
+        }
+        if (journalFile.getParentFile() != null && !journalFile.getParentFile().exists()) {
+            journalFile.getParentFile().mkdirs();
+        }
+        writer = new OutputStreamWriter(Files.newOutputStream(journalFile.toPath(), StandardOpenOption.CREATE,
+                resume ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE),
+                StandardCharsets.UTF_8);
+        if (resume && !endsWithNewLine(journalFile)) {
+            // Terminate a partially written entry, so the next entry starts on its own line
+            writer.write("\n");
+            writer.flush();
+        }
+    }
+
+    private static boolean endsWithNewLine(File journalFile) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(journalFile, "r")) {
+            if (file.length() == 0) {
+                return true;
+            }
+            file.seek(file.length() - 1);
+            return file.read() == '\n';
+        }
+    }
+
+    /**
+     * Creates a deployment journal configured from system properties.
+     *
+     * @param log - The logger
+     * @return the deployment journal, or null if it's disabled
+     * @throws IOException in case of an error reading or creating the journal
+     */
+    public static DeploymentJournal fromSystemProperties(Log log) throws IOException {
+        String journalFile = System.getProperty(PROP_JOURNAL_FILE);
+        if (StringUtils.isBlank(journalFile)) {
+            return null;
+        }
+        return new DeploymentJournal(new File(journalFile), Boolean.parseBoolean(System.getProperty(PROP_RESUME)), log);
+    }
+
+    private void replay(File journalFile) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(journalFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (StringUtils.isBlank(line)) {
+                    continue;
+                }
+                try {
+                    JsonNode entry = JsonMappers.getMapper().readTree(line);
+                    deployed.put(getKey(entry.path(REPO).asText(), entry.path(PATH).asText()), entry);
+                } catch (IOException e) {
+                    // The last entry may be partially written, if the deployment was killed while writing it
+                    log.debug("Skipping a corrupted deployment journal entry: " + line);
+                }
+            }
+        }
+        log.info(String.format("Resuming the deployment: %d artifacts were already deployed according to %s",
+                deployed.size(), journalFile));
+    }
+
+    /**
+     * Completes the deployment of an artifact from the journal, if it was already deployed with the same sha1.
+     * If the artifact was deployed with other properties, its properties are set in Artifactory, and the journal entry
+     * is updated.
+     *
+     * @param details            - The artifact to deploy
+     * @param artifactoryManager - The Artifactory manager to set the properties with
+     * @return true if the artifact was already deployed
+     * @throws IOException in case of an error setting the properties or writing the journal
+     */
+    public boolean skipIfDeployed(DeployDetails details, ArtifactoryManager artifactoryManager) throws IOException {
+        JsonNode entry = getEntry(details);
+        if (entry == null) {
+            return false;
+        }
+        String requestedPath = details.getArtifactPath();
+        log.debug("Skipping the deployment of '" + requestedPath + "', it was already deployed according to the journal.");
+        details.setSha256(entry.path(SHA256).asText(null));
+        details.setArtifactPath(entry.path(DEPLOYED_PATH).asText(requestedPath));
+        if (!hashProperties(details.getProperties()).equals(entry.path(PROPERTIES_SHA1).asText(null))) {
+            if (details.getProperties() != null && !details.getProperties().isEmpty()) {
+                artifactoryManager.setProperties(details.getTargetRepository() + "/" + details.getArtifactPath(),
+                        details.getProperties(), true);
+            }
+            record(details, requestedPath);
+        }
+        details.setDeploySucceeded(true);
+        return true;
+    }
+
+    /**
+     * Returns true if the artifact was already deployed with the same sha1, according to the journal.
+     *
+     * @param details - The artifact to deploy
+     */
+    public boolean isDeployed(DeployDetails details) {
+        return getEntry(details) != null;
+    }
+
+    private JsonNode getEntry(DeployDetails details) {
+        JsonNode entry = deployed.get(getKey(details.getTargetRepository(), details.getArtifactPath()));
+        if (entry == null || details.getSha1() == null || !details.getSha1().equals(entry.path(SHA1).asText(null))) {
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Appends a deployed artifact to the journal. The entry is flushed immediately, so it survives the termination of
+     * the process.
+     *
+     * @param details       - The deployed artifact
+     * @param requestedPath - The path the artifact was requested to be deployed to. Artifactory may deploy the
+     *                      artifact to a different path, such as a maven unique snapshot path.
+     * @throws IOException in case of an error writing the journal
+     */
+    public void record(DeployDetails details, String requestedPath) throws IOException {
+        ObjectNode entry = JsonMappers.getMapper().createObjectNode()
+                .put(REPO, details.getTargetRepository())
+                .put(PATH, requestedPath)
+                .put(SHA1, details.getSha1())
+                .put(SHA256, details.getSha256())
+                .put(DEPLOYED_PATH, details.getArtifactPath())
+                .put(PROPERTIES_SHA1, hashProperties(details.getProperties()));
+        String line = JsonMappers.getMapper().writeValueAsString(entry) + "\n";
+        synchronized (writer) {
+            writer.write(line);
+            writer.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (writer) {
+            writer.close();
+        }
+    }
+
+    /**
+     * Returns a hash of the properties, which doesn't depend on their order.
+     */
+    private static String hashProperties(Multimap<String, String> properties) {
+        if (properties == null) {
+            return DigestUtils.sha1Hex("");
+        }
+        List<String> sortedProperties = properties.entries().stream()
+                .map(property -> property.getKey() + "=" + property.getValue())
+                .sorted()
+                .collect(Collectors.toList());
+        return DigestUtils.sha1Hex(String.join("\n", sortedProperties));
+    }
+
+    private static String getKey(String repo, String path) {
+        return repo + "/" + StringUtils.removeStart(path, "/");
+    }
+}
@@ -0,0 +1,164 @@
+package org.jfrog.build.extractor.clientConfiguration.deploy;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.commons.lang3.StringUtils;
+import org.jfrog.build.api.search.AqlSearchResult;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.extractor.JsonMappers;
+import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-flight check which skips the upload of artifacts that already exist in Artifactory.
+ * <p>
+ * Before deploying, the target paths of the artifacts are searched using AQL, in batches of up to
+ * {@value #PROP_BATCH_SIZE} paths per query. An artifact is skipped if an item with the same sha1 already exists at its
+ * target path. The properties of a skipped artifact are set on the existing item instead.
+ * The checksums of the artifacts may be calculated after the search, as long as they're calculated before
+ * {@link #skipIfDeployed(DeployDetails, String)} is called.
+ * <p>
+ * The check is configured using the following system properties:
+ * <ul>
+ * <li>{@value #PROP_ENABLED} - Set to true to enable the pre-flight check. Default: false.</li>
+ * <li>{@value #PROP_BATCH_SIZE} - Maximum number of target paths searched in a single query.
+ * Default: {@value #DEFAULT_BATCH_SIZE}.</li>
+ * </ul>
+ */
+public class UploadPreflight {
+    public static final String PROP_ENABLED = UploadScheduler.UPLOAD_PREFIX + "preflight";
+    public static final String PROP_BATCH_SIZE = UploadScheduler.UPLOAD_PREFIX + "preflightBatchSize";
+    public static final int DEFAULT_BATCH_SIZE = 2000;
+
+    private static final String INCLUDE = ".include(\"repo\",\"path\",\"name\",\"actual_sha1\",\"actual_md5\",\"sha256\")";
+
+    private final ArtifactoryManager artifactoryManager;
+    private final int batchSize;
+    private final Log log;
+    // The existing items found by the search, by repository and path
+    private final Map<String, AqlSearchResult.SearchEntry> existingItems = new ConcurrentHashMap<>();
+
+    public UploadPreflight(ArtifactoryManager artifactoryManager, int batchSize, Log log) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Pre-flight batch size must be positive: " + batchSize);
+        }
+        this.artifactoryManager = artifactoryManager;
+        this.batchSize = batchSize;
+        this.log = log;
+    }
+
+    /**
+     * Creates a pre-flight check configured from system properties.
+     *
+     * @param artifactoryManager - The Artifactory manager to search and set properties with
+     * @return the pre-flight check, or null if it's disabled
+     */
+    public static UploadPreflight fromSystemProperties(ArtifactoryManager artifactoryManager) {
+        if (!Boolean.parseBoolean(System.getProperty(PROP_ENABLED))) {
+            return null;
+        }
+        String batchSize = System.getProperty(PROP_BATCH_SIZE);
+        return new UploadPreflight(artifactoryManager,
+                StringUtils.isNumeric(batchSize) && Integer.parseInt(batchSize) > 0 ? Integer.parseInt(batchSize) : DEFAULT_BATCH_SIZE,
+                artifactoryManager.getLog());
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Searches the target paths of the artifacts. A failed search is logged, and the artifacts of the failed batch are
+     * uploaded as usual.
+     *
+     * @param artifacts - The artifacts about to be deployed
+     */
+    public void check(Collection<DeployDetails> artifacts) {
+        List<DeployDetails> batch = new ArrayList<>(Math.min(batchSize, artifacts.size()));
+        for (DeployDetails artifact : artifacts) {
+            if (artifact.isExplode()) {
+                continue;
+            }
+            batch.add(artifact);
+            if (batch.size() == batchSize) {
+                search(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            search(batch);
+        }
+    }
+
+    /**
+     * Completes the deployment of an artifact without uploading it, if an identical item exists at its target path.
+     * The properties of the artifact are set on the existing item.
+     *
+     * @param details   - The artifact to deploy
+     * @param logPrefix - The log prefix, or null
+     * @return true if the upload should be skipped
+     * @throws IOException in case of an error setting the properties
+     */
+    public boolean skipIfDeployed(DeployDetails details, String logPrefix) throws IOException {
+        String itemPath = getItemPath(details);
+        AqlSearchResult.SearchEntry existingItem = existingItems.get(itemPath);
+        if (existingItem == null || details.isExplode() || details.getSha1() == null ||
+                !details.getSha1().equals(existingItem.getActualSha1())) {
+            return false;
+        }
+        log.info((logPrefix == null ? "" : logPrefix + " ") + "Skipping the upload of '" + itemPath +
+                "', an identical artifact already exists in Artifactory.");
+        if (details.getProperties() != null && !details.getProperties().isEmpty()) {
+            artifactoryManager.setProperties(itemPath, details.getProperties(), true);
+        }
+        if (StringUtils.isBlank(details.getSha256())) {
+            details.setSha256(existingItem.getSha256());
+        }
+        details.setDeploySucceeded(true);
+        return true;
+    }
+
+    private void search(List<DeployDetails> batch) {
+        String aql = createQuery(batch);
+        try {
+            int found = artifactoryManager.searchArtifactsByAql(aql, entry -> existingItems.put(
+                    entry.getRepo() + "/" + (".".equals(entry.getPath()) ? "" : entry.getPath() + "/") + entry.getName(), entry));
+            log.debug(String.format("Pre-flight check found %d of %d artifacts in Artifactory", found, batch.size()));
+        } catch (IOException e) {
+            log.warn("Pre-flight check failed, the artifacts will be uploaded: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates an AQL query which finds the items at the target paths of the artifacts, grouped by repository.
+     */
+    static String createQuery(Collection<DeployDetails> artifacts) {
+        Map<String, ArrayNode> pathsByRepo = new LinkedHashMap<>();
+        for (DeployDetails artifact : artifacts) {
+            String artifactPath = StringUtils.removeStart(artifact.getArtifactPath(), "/");
+            ObjectNode item = JsonMappers.getMapper().createObjectNode()
+                    .put("path", artifactPath.contains("/") ? StringUtils.substringBeforeLast(artifactPath, "/") : ".")
+                    .put("name", StringUtils.substringAfterLast("/" + artifactPath, "/"));
+            pathsByRepo.computeIfAbsent(artifact.getTargetRepository(), repo -> JsonMappers.getMapper().createArrayNode()).add(item);
+        }
+        ArrayNode repos = JsonMappers.getMapper().createArrayNode();
+        pathsByRepo.forEach((repo, paths) -> {
+            ObjectNode repoCriteria = repos.addObject().put("repo", repo);
+            repoCriteria.set("$or", paths);
+        });
+        ObjectNode criteria = JsonMappers.getMapper().createObjectNode();
+        criteria.set("$or", repos);
+        return "items.find(" + criteria + ")" + INCLUDE;
+    }
+
+    private static String getItemPath(DeployDetails details) {
+        return details.getTargetRepository() + "/" + StringUtils.removeStart(details.getArtifactPath(), "/");
+    }
+}
@@ -0,0 +1,191 @@
+package org.jfrog.build.extractor.clientConfiguration.deploy;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jfrog.build.client.ArtifactoryUploadResponse;
+import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide scheduler of artifact uploads. All the extractors deploy through it, so uploads of different modules,
+ * tasks and deployers can share a single concurrency limit per target host, instead of each running its own pool
+ * unaware of the others. Uploads are also limited by the process-wide {@link BandwidthLimiter}, if configured.
+ * <p>
+ * The limit is opt-in, and is configured using the {@value #PROP_MAX_CONCURRENT_PER_HOST} system property.
+ * Default: {@value #DEFAULT_MAX_CONCURRENT_PER_HOST}, which means no limit. A limit lower than the parallelism of
+ * the deployers (for example the number of threads of a parallel deployment) reduces that parallelism.
+ * <p>
+ * Uploads run in the calling threads. Once the limit of a host is reached, the waiting uploads are admitted largest
+ * file first, which shortens the tail of the deployment. Since every waiting upload holds a calling thread, the order
+ * only takes effect when more threads upload to the host than its limit.
+ */
+public class UploadScheduler {
+    public static final String UPLOAD_PREFIX = "buildInfo.upload.";
+    public static final String PROP_MAX_CONCURRENT_PER_HOST = UPLOAD_PREFIX + "maxConcurrentPerHost";
+    public static final int DEFAULT_MAX_CONCURRENT_PER_HOST = 0;
+
+    private static final UploadScheduler instance = new UploadScheduler(getMaxConcurrentPerHostFromSystemProperties());
+
+    private final int maxConcurrentPerHost;
+    private final Map<String, HostPermits> hosts = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * @param maxConcurrentPerHost - The maximum number of concurrent uploads to a single host. Zero or negative for
+     *                             no limit.
+     */
+    public UploadScheduler(int maxConcurrentPerHost) {
+        this.maxConcurrentPerHost = maxConcurrentPerHost;
+    }
+
+    public static UploadScheduler getInstance() {
+        return instance;
+    }
+
+    private static int getMaxConcurrentPerHostFromSystemProperties() {
+        String value = System.getProperty(PROP_MAX_CONCURRENT_PER_HOST);
+        return StringUtils.isNumeric(value) ? Integer.parseInt(value) : DEFAULT_MAX_CONCURRENT_PER_HOST;
+    }
+
+    /**
+     * Uploads an artifact once the target host has a free upload slot.
+     *
+     * @param artifactoryManager - The Artifactory manager to upload with
+     * @param details            - The artifact to upload
+     * @param logPrefix          - The log prefix, or null
+     * @return the upload response
+     * @throws IOException in case of an upload error, or if interrupted while waiting
+     */
+    public ArtifactoryUploadResponse upload(ArtifactoryManager artifactoryManager, DeployDetails details, String logPrefix) throws IOException {
+        HostPermits permits = acquire(artifactoryManager, details);
+        try {
+            return artifactoryManager.upload(details, logPrefix);
+        } finally {
+            if (permits != null) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #upload(ArtifactoryManager, DeployDetails, String)}, with a minimum file size for checksum deploy.
+     */
+    public ArtifactoryUploadResponse upload(ArtifactoryManager artifactoryManager, DeployDetails details, String logPrefix,
+                                            Integer minChecksumDeploySizeKb) throws IOException {
+        HostPermits permits = acquire(artifactoryManager, details);
+        try {
+            return artifactoryManager.upload(details, logPrefix, minChecksumDeploySizeKb);
+        } finally {
+            if (permits != null) {
+                permits.release();
+            }
+        }
+    }
+
+    int getActiveUploads(String host) {
+        HostPermits permits = hosts.get(host);
+        return permits == null ? 0 : permits.getActive();
+    }
+
+    int getWaitingUploads(String host) {
+        HostPermits permits = hosts.get(host);
+        return permits == null ? 0 : permits.getWaiting();
+    }
+
+    /**
+     * Waits for a free upload slot of the target host.
+     *
+     * @return the slots of the host, or null if uploads are not limited
+     */
+    private HostPermits acquire(ArtifactoryManager artifactoryManager, DeployDetails details) throws InterruptedIOException {
+        if (maxConcurrentPerHost <= 0) {
+            return null;
+        }
+        HostPermits permits = hosts.computeIfAbsent(getHost(artifactoryManager.getUrl()), host -> new HostPermits());
+        File file = details.getFile();
+        permits.acquire(file == null ? 0 : file.length(), sequence.getAndIncrement());
+        return permits;
+    }
+
+    static String getHost(String url) {
+        try {
+            String authority = URI.create(url).getAuthority();
+            return authority == null ? url : authority;
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    /**
+     * The upload slots of a single host. Waiting uploads are admitted largest first, and in arrival order between
+     * uploads of the same size.
+     */
+    private class HostPermits {
+        private final PriorityQueue<Waiter> waiters = new PriorityQueue<>();
+        private int active;
+
+        private synchronized void acquire(long size, long sequence) throws InterruptedIOException {
+            if (active < maxConcurrentPerHost && waiters.isEmpty()) {
+                active++;
+                return;
+            }
+            Waiter waiter = new Waiter(size, sequence);
+            waiters.add(waiter);
+            try {
+                while (!waiter.admitted) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                if (waiter.admitted) {
+                    release();
+                } else {
+                    waiters.remove(waiter);
+                }
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to upload");
+            }
+        }
+
+        private synchronized void release() {
+            active--;
+            Waiter next = waiters.poll();
+            if (next != null) {
+                next.admitted = true;
+                active++;
+                notifyAll();
+            }
+        }
+
+        private synchronized int getActive() {
+            return active;
+        }
+
+        private synchronized int getWaiting() {
+            return waiters.size();
+        }
+    }
+
+    private static class Waiter implements Comparable<Waiter> {
+        private final long size;
+        private final long sequence;
+        private boolean admitted;
+
+        private Waiter(long size, long sequence) {
+            this.size = size;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Waiter other) {
+            int result = Long.compare(other.size, size);
+            return result != 0 ? result : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package org.jfrog.build.extractor.clientConfiguration.util;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jfrog.build.api.search.AqlSearchResult;
+import org.jfrog.build.api.search.AqlSearchResultHandler;
 import org.jfrog.build.api.util.Log;
 import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
 import org.jfrog.filespecs.aql.AqlConverter;
@@ -38,6 +39,20 @@ public class AqlHelper {
     }
 
     public List<AqlSearchResult.SearchEntry> run() throws IOException {
+        List<AqlSearchResult.SearchEntry> results = new ArrayList<>();
+        run(results::add);
+        return results;
+    }
+
+    /**
+     * Runs the search and passes the results to the handler while the response is read.
+     * If a build is specified, only the results which are kept by the build filter are passed, once all the
+     * results were received.
+     *
+     * @param handler - The handler of the results
+     * @return the number of results passed to the handler
+     */
+    public int run(AqlSearchResultHandler handler) throws IOException {
         String aql;
 
         if (this.filesGroup.getSpecType() == FilesGroup.SpecType.BUILD) {
@@ -54,48 +69,45 @@ public class AqlHelper {
             aql = AqlConverter.convertFilesGroupToAql(this.filesGroup);
         }
 
-        log.debug("Searching Artifactory using AQL query:\n" + aql);
-        AqlSearchResult aqlSearchResult = artifactoryManager.searchArtifactsByAql(aql);
-        List<AqlSearchResult.SearchEntry> queryResults = aqlSearchResult.getResults();
+        if (StringUtils.isBlank(buildName)) {
+            log.debug("Searching Artifactory using AQL query:\n" + aql);
+            return search(aql, handler);
+        }
 
-        List<AqlSearchResult.SearchEntry> artifactsSha1SearchResults;
+        BuildResultsFilter filter;
         if (this.filesGroup.getSpecType() == FilesGroup.SpecType.BUILD) {
-            artifactsSha1SearchResults = queryResults;
+            // The query results are the build artifacts
+            filter = new BuildResultsFilter(null, buildName, buildNumber);
+        } else if (StringUtils.isNotBlank(this.buildNumber)) {
+            filter = new BuildResultsFilter(fetchBuildArtifactsSha1(), buildName, buildNumber);
         } else {
-            if (!StringUtils.isBlank(this.buildName) && !StringUtils.isBlank(this.buildNumber)) {
-                artifactsSha1SearchResults = fetchBuildArtifactsSha1();
-            } else {
-                artifactsSha1SearchResults = new ArrayList<>();
-            }
+            filter = new BuildResultsFilter(new HashSet<>(), buildName, buildNumber);
         }
-
-        List<AqlSearchResult.SearchEntry> results = filterResult(queryResults, artifactsSha1SearchResults);
-        return (results == null ? new ArrayList<>() : results);
-    }
-
-    /**
-     * If buildName specified, filter the results to keep only artifacts matching the requested build
-     */
-    private List<AqlSearchResult.SearchEntry> filterResult(List<AqlSearchResult.SearchEntry> queryResults, List<AqlSearchResult.SearchEntry> artifactsSha1SerachResults) throws IOException {
-        if (StringUtils.isNotBlank(buildName) && queryResults.size() > 0) {
-            Map<String, Boolean> buildArtifactsSha1 = extractSha1FromAqlResponse(artifactsSha1SerachResults);
-            queryResults = filterAqlSearchResultsByBuild(queryResults, buildArtifactsSha1, buildName, buildNumber);
-        }
-
-        return queryResults;
+        log.debug("Searching Artifactory using AQL query:\n" + aql);
+        search(aql, filter::add);
+        return filter.handleResults(handler);
     }
 
     /**
-     * Sends an aql query to get all Sha1 value of the requested build, then returns the search results.
+     * Sends an aql query to get all Sha1 value of the requested build, then returns the Sha1 values.
      */
-    private List<AqlSearchResult.SearchEntry> fetchBuildArtifactsSha1() throws IOException {
+    private Set<String> fetchBuildArtifactsSha1() throws IOException {
         // If a user without admin privileges tries to send AQL query that includes 'actual_sha1' only, a bad request will be return.
         // In order to fix this, we include name, repo & path.
         String includeSha1Field = ".include(\"name\",\"repo\",\"path\",\"actual_sha1\")";
         String buildAql = String.format("items.find(%s)%s", createAqlBodyForBuild(buildName, buildNumber), includeSha1Field);
         log.debug("Searching Artifactory for build's checksums using AQL query:\n" + buildAql);
-        AqlSearchResult aqlSearchResult = artifactoryManager.searchArtifactsByAql(buildAql);
-        return aqlSearchResult.getResults();
+        Set<String> buildArtifactsSha1 = new HashSet<>();
+        search(buildAql, entry -> buildArtifactsSha1.add(entry.getActualSha1()));
+        return buildArtifactsSha1;
+    }
+
+    /**
+     * Runs the query in pages, as configured by the {@link PaginatedAqlSearcher} system properties.
+     */
+    private int search(String aql, AqlSearchResultHandler handler) throws IOException {
+        return artifactoryManager.searchArtifactsByAql(aql, PaginatedAqlSearcher.getPageSizeFromSystemProperties(),
+                PaginatedAqlSearcher.getParallelPagesFromSystemProperties(), handler);
     }
 
     private static String createAqlBodyForBuild(String buildName, String buildNumber) {
@@ -175,61 +187,67 @@ public class AqlHelper {
      * 1st priority: Match {Sha1, build name, build number}
      * 2nd priority: Match {Sha1, build name}
      * 3rd priority: Match {Sha1}
+     * The results are filtered while they are received, so only the results of the best priority of every Sha1 are kept.
      */
-    private static List<AqlSearchResult.SearchEntry> filterAqlSearchResultsByBuild(List<AqlSearchResult.SearchEntry> itemsToFilter, Map<String, Boolean> buildArtifactsSha1, String buildName, String buildNumber) {
-        // Maps that contain the search results, mapped by the priority they match.
-        Map<String, List<AqlSearchResult.SearchEntry>> firstPriority = new HashMap<>();
-        Map<String, List<AqlSearchResult.SearchEntry>> secondPriority = new HashMap<>();
-        Map<String, List<AqlSearchResult.SearchEntry>> thirdPriority = new HashMap<>();
-        // List that contains the filtered results, after step 2.
-        List<AqlSearchResult.SearchEntry> filteredResults = new ArrayList<>();
-
-        // Step 1 - Populate 3 priorities mappings.
-        for (AqlSearchResult.SearchEntry item : itemsToFilter) {
-            if (!buildArtifactsSha1.containsKey(item.getActualSha1())) {
-                continue;
+    static class BuildResultsFilter {
+        private static final int FIRST_PRIORITY = 1;
+        private static final int SECOND_PRIORITY = 2;
+        private static final int THIRD_PRIORITY = 3;
+
+        // The Sha1 values of the build artifacts, or null if every result is a build artifact
+        private final Set<String> buildArtifactsSha1;
+        private final Set<String> resultsSha1 = new HashSet<>();
+        private final Map<String, Integer> prioritiesBySha1 = new HashMap<>();
+        private final Map<String, List<AqlSearchResult.SearchEntry>> resultsBySha1 = new HashMap<>();
+        private final String buildName;
+        private final String buildNumber;
+
+        BuildResultsFilter(Set<String> buildArtifactsSha1, String buildName, String buildNumber) {
+            this.buildArtifactsSha1 = buildArtifactsSha1;
+            this.buildName = buildName;
+            this.buildNumber = buildNumber;
+        }
+
+        void add(AqlSearchResult.SearchEntry item) {
+            String sha1 = item.getActualSha1();
+            if (buildArtifactsSha1 == null) {
+                resultsSha1.add(sha1);
+            } else if (!buildArtifactsSha1.contains(sha1)) {
+                return;
             }
 
-            boolean isBuildNameMatch = buildName.equals(item.getBuildName());
-            boolean isBuildNumberMatch = buildNumber.equals(item.getBuildNumber());
-            if (isBuildNameMatch) {
-                if (isBuildNumberMatch) {
-                    addToListInMap(firstPriority, item);
-                    continue;
-                }
-                addToListInMap(secondPriority, item);
-                continue;
+            int priority = THIRD_PRIORITY;
+            if (buildName.equals(item.getBuildName())) {
+                priority = buildNumber.equals(item.getBuildNumber()) ? FIRST_PRIORITY : SECOND_PRIORITY;
             }
-            addToListInMap(thirdPriority, item);
+            Integer currentPriority = prioritiesBySha1.get(sha1);
+            if (currentPriority == null || priority < currentPriority) {
+                prioritiesBySha1.put(sha1, priority);
+                resultsBySha1.put(sha1, new ArrayList<>());
+            } else if (priority > currentPriority) {
+                return;
+            }
+            resultsBySha1.get(sha1).add(item);
         }
 
-        // Step 2 - Append mappings to the final results, respectively.
-        for (Map.Entry<String, Boolean> entry : buildArtifactsSha1.entrySet()) {
-            String shaToMatch = entry.getKey();
-            if (firstPriority.containsKey(shaToMatch)) {
-                filteredResults.addAll(firstPriority.get(shaToMatch));
-            } else if (secondPriority.containsKey(shaToMatch)) {
-                filteredResults.addAll(secondPriority.get(shaToMatch));
-            } else if (thirdPriority.containsKey(shaToMatch)) {
-                filteredResults.addAll(thirdPriority.get(shaToMatch));
+        /**
+         * Passes the filtered results to the handler, ordered by the build artifacts Sha1 values.
+         *
+         * @return the number of results passed to the handler
+         */
+        int handleResults(AqlSearchResultHandler handler) throws IOException {
+            int count = 0;
+            for (String sha1 : buildArtifactsSha1 == null ? resultsSha1 : buildArtifactsSha1) {
+                List<AqlSearchResult.SearchEntry> results = resultsBySha1.get(sha1);
+                if (results == null) {
+                    continue;
+                }
+                for (AqlSearchResult.SearchEntry result : results) {
+                    handler.handle(result);
+                    count++;
+                }
             }
+            return count;
         }
-        return filteredResults;
-    }
-
-    private static void addToListInMap(Map<String, List<AqlSearchResult.SearchEntry>> map, AqlSearchResult.SearchEntry item) {
-        List<AqlSearchResult.SearchEntry> curList = map.get(item.getActualSha1());
-        if (curList == null) curList = new ArrayList<>();
-        curList.add(item);
-        map.put(item.getActualSha1(), curList);
-    }
-
-    /**
-     * Maps all Sha1 values that exist in the results found
-     */
-    private static Map<String, Boolean> extractSha1FromAqlResponse(List<AqlSearchResult.SearchEntry> searchResults) {
-        Map<String, Boolean> resultsMap = new HashMap<>();
-        searchResults.forEach((result) -> resultsMap.put(result.getActualSha1(), true));
-        return resultsMap;
     }
 }
@@ -1,12 +1,11 @@
 package org.jfrog.build.extractor.clientConfiguration.util;
 
-import org.jfrog.build.api.search.AqlSearchResult;
+import org.jfrog.build.api.search.AqlSearchResultHandler;
 import org.jfrog.build.api.util.Log;
 import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
 import org.jfrog.filespecs.entities.FilesGroup;
 
 import java.io.IOException;
-import java.util.List;
 
 class ArtifactorySearcher {
     private final ArtifactoryManager artifactoryManager;
@@ -17,12 +16,18 @@ class ArtifactorySearcher {
         this.log = log;
     }
 
-    List<AqlSearchResult.SearchEntry> SearchByFileSpec(FilesGroup file) throws IOException {
-        List<AqlSearchResult.SearchEntry> results;
+    /**
+     * Searches by the file spec and passes the results to the handler while they are received.
+     *
+     * @param file    - The files group to search by
+     * @param handler - The handler of the results
+     * @return the number of results
+     */
+    int searchByFileSpec(FilesGroup file, AqlSearchResultHandler handler) throws IOException {
         AqlHelper aqlHelper = new AqlHelper(artifactoryManager, log, file);
         log.info("Searching for artifacts...");
-        results = aqlHelper.run();
-        log.info(String.format("Found %s artifacts.", results.size()));
-        return results;
+        int count = aqlHelper.run(handler);
+        log.info(String.format("Found %s artifacts.", count));
+        return count;
     }
 }
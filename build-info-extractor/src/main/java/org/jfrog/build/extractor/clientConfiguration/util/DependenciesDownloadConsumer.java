@@ -0,0 +1,65 @@
+package org.jfrog.build.extractor.clientConfiguration.util;
+
+import org.jfrog.build.api.dependency.DownloadableArtifact;
+import org.jfrog.build.api.producerConsumer.ProducerConsumerItem;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.extractor.ci.Dependency;
+import org.jfrog.build.extractor.producerConsumer.ConsumerRunnableBase;
+import org.jfrog.build.extractor.producerConsumer.ProducerConsumerExecutor;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Consumer object to use with the ProducerConsumerExecutor during a parallel dependencies download.
+ * Runs the whole download of every artifact: metadata lookup, local existence check, transfer, checksums validation
+ * and explode. The results are stored by the artifacts indexes, so the order of the results is deterministic.
+ */
+class DependenciesDownloadConsumer extends ConsumerRunnableBase {
+    private final DependenciesDownloaderHelper helper;
+    private final Dependency[] results;
+    private final AtomicReference<IOException> failure;
+    private ProducerConsumerExecutor executor;
+    private Log log;
+
+    DependenciesDownloadConsumer(DependenciesDownloaderHelper helper, Dependency[] results, AtomicReference<IOException> failure) {
+        this.helper = helper;
+        this.results = results;
+        this.failure = failure;
+    }
+
+    @Override
+    public void consumerRun() {
+        while (!Thread.interrupted()) {
+            try {
+                ProducerConsumerItem item = executor.take();
+                if (item == executor.TERMINATE) {
+                    // All the items were consumed
+                    break;
+                }
+                DependenciesDownloadItem downloadItem = (DependenciesDownloadItem) item;
+                List<DownloadableArtifact> artifacts = downloadItem.getArtifacts();
+                for (int i = 0; i < artifacts.size(); i++) {
+                    results[downloadItem.getIndexes().get(i)] = helper.downloadAndExplode(artifacts.get(i));
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                failure.compareAndSet(null, e);
+                // Throw unchecked exception for the UncaughtExceptionHandler
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    @Override
+    public void setExecutor(ProducerConsumerExecutor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void setLog(Log log) {
+        this.log = log;
+    }
+}
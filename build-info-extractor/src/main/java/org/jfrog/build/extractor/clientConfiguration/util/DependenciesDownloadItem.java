@@ -0,0 +1,30 @@
+package org.jfrog.build.extractor.clientConfiguration.util;
+
+import org.jfrog.build.api.dependency.DownloadableArtifact;
+import org.jfrog.build.api.producerConsumer.ProducerConsumerItem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Item used with the ProducerConsumerExecutor during a parallel dependencies download.
+ * Holds all the artifacts downloaded to the same local path, in their original order, so they are downloaded
+ * sequentially by the same consumer.
+ */
+class DependenciesDownloadItem implements ProducerConsumerItem {
+    private final List<Integer> indexes = new ArrayList<>();
+    private final List<DownloadableArtifact> artifacts = new ArrayList<>();
+
+    void add(int index, DownloadableArtifact artifact) {
+        indexes.add(index);
+        artifacts.add(artifact);
+    }
+
+    List<Integer> getIndexes() {
+        return indexes;
+    }
+
+    List<DownloadableArtifact> getArtifacts() {
+        return artifacts;
+    }
+}
@@ -0,0 +1,26 @@
+package org.jfrog.build.extractor.clientConfiguration.util;
+
+import org.jfrog.build.extractor.producerConsumer.ProducerRunnableBase;
+
+import java.util.Collection;
+
+/**
+ * Producer object to use with the ProducerConsumerExecutor during a parallel dependencies download.
+ */
+class DependenciesDownloadProducer extends ProducerRunnableBase {
+    private final Collection<DependenciesDownloadItem> items;
+
+    DependenciesDownloadProducer(Collection<DependenciesDownloadItem> items) {
+        this.items = items;
+    }
+
+    @Override
+    public void producerRun() throws InterruptedException {
+        for (DependenciesDownloadItem item : items) {
+            if (Thread.interrupted()) {
+                break;
+            }
+            executor.put(item);
+        }
+    }
+}
@@ -33,7 +33,10 @@ public interface DependenciesDownloader {
      * Parse the given input stream, save it to an actual file to the given path and return
      * the calculated checksums for the saved file.
      * Implementers must close the given input stream when finished.
+     *
+     * @deprecated Not used anymore. Downloaded files are written and digested by {@link DigestingFileSink}.
      */
+    @Deprecated
     Map<String, String> saveDownloadedFile(InputStream is, String filePath) throws IOException;
 
     /**
@@ -5,26 +5,25 @@ import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
-import org.apache.commons.lang3.mutable.MutableBoolean;
 import org.apache.http.Header;
 import org.apache.http.HttpHeaders;
 import org.jfrog.build.api.dependency.DownloadableArtifact;
 import org.jfrog.build.api.dependency.pattern.PatternType;
 import org.jfrog.build.api.search.AqlSearchResult;
-import org.jfrog.build.api.util.FileChecksumCalculator;
 import org.jfrog.build.api.util.Log;
 import org.jfrog.build.api.util.ZipUtils;
 import org.jfrog.build.extractor.builder.DependencyBuilder;
 import org.jfrog.build.extractor.ci.Dependency;
 import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
+import org.jfrog.build.extractor.producerConsumer.ConsumerRunnableBase;
+import org.jfrog.build.extractor.producerConsumer.ProducerConsumerExecutor;
+import org.jfrog.build.extractor.producerConsumer.ProducerRunnableBase;
 import org.jfrog.filespecs.FileSpec;
 import org.jfrog.filespecs.entities.FilesGroup;
 
 import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 
 import static org.jfrog.build.api.util.FileChecksumCalculator.*;
@@ -41,22 +40,44 @@ public class DependenciesDownloaderHelper {
     private final DependenciesDownloader downloader;
     private final Log log;
     /**
-     * Number of threads to use when downloading an artifact concurrently
+     * Default minimum file size for concurrent download, see {@link RangedDownloader#PROP_MIN_SIZE}
      */
-    private static final int CONCURRENT_DOWNLOAD_THREADS = 3;
+    public static final int MIN_SIZE_FOR_CONCURRENT_DOWNLOAD = (int) RangedDownloader.DEFAULT_MIN_SIZE;
     /**
-     * Minimum file size for concurrent download
+     * System property of the number of artifacts to download in parallel. Set to 1 to download the artifacts serially.
      */
-    public static final int MIN_SIZE_FOR_CONCURRENT_DOWNLOAD = 5120000;
+    public static final String PROP_DOWNLOAD_THREADS = RangedDownloader.RANGED_DOWNLOAD_PREFIX + "artifactThreads";
+    public static final int DEFAULT_DOWNLOAD_THREADS = 3;
+    private RangedDownloader rangedDownloader;
+    private int downloadThreads;
 
     public DependenciesDownloaderHelper(DependenciesDownloader downloader, Log log) {
         this.downloader = downloader;
         this.log = log;
+        this.rangedDownloader = RangedDownloader.fromSystemProperties(log);
+        this.downloadThreads = NumberUtils.toInt(System.getProperty(PROP_DOWNLOAD_THREADS), DEFAULT_DOWNLOAD_THREADS);
     }
 
     public DependenciesDownloaderHelper(ArtifactoryManager artifactoryManager, String workingDirectory, Log log) {
-        this.downloader = new DependenciesDownloaderImpl(artifactoryManager, workingDirectory, log);
-        this.log = log;
+        this(new DependenciesDownloaderImpl(artifactoryManager, workingDirectory, log), log);
+    }
+
+    /**
+     * Sets the engine of concurrent downloads. Its download threads are shared by all the files downloaded by this helper.
+     *
+     * @param rangedDownloader - The ranged downloader
+     */
+    public void setRangedDownloader(RangedDownloader rangedDownloader) {
+        this.rangedDownloader = rangedDownloader;
+    }
+
+    /**
+     * Sets the number of artifacts to download in parallel.
+     *
+     * @param downloadThreads - The number of download threads. 1 to download the artifacts serially.
+     */
+    public void setDownloadThreads(int downloadThreads) {
+        this.downloadThreads = downloadThreads;
     }
 
     /**
@@ -69,15 +90,16 @@ public class DependenciesDownloaderHelper {
      */
     public List<Dependency> downloadDependencies(FileSpec downloadSpec) throws IOException {
         ArtifactorySearcher searcher = new ArtifactorySearcher(downloader.getArtifactoryManager(), log);
-        Set<DownloadableArtifact> downloadableArtifacts;
-        List<AqlSearchResult.SearchEntry> searchResults;
         HashSet<Dependency> resolvedDependencies = new HashSet<>();
 
         for (FilesGroup file : downloadSpec.getFiles()) {
             log.debug("Downloading dependencies using spec: \n" + file.toString());
             this.downloader.setFlatDownload(BooleanUtils.toBoolean(file.getFlat()));
-            searchResults = searcher.SearchByFileSpec(file);
-            downloadableArtifacts = fetchDownloadableArtifactsFromResult(searchResults, Boolean.valueOf(file.getExplode()), file.getTarget());
+            // The search results are converted while they are received, so they aren't kept in memory
+            Set<DownloadableArtifact> downloadableArtifacts = new HashSet<>();
+            boolean explode = Boolean.parseBoolean(file.getExplode());
+            searcher.searchByFileSpec(file, searchEntry ->
+                    downloadableArtifacts.add(createDownloadableArtifact(searchEntry, explode, file.getTarget())));
             if (file.getSpecType() == FilesGroup.SpecType.PATTERN) {
                 replaceTargetPlaceholders(file.getPattern(), downloadableArtifacts, file.getTarget());
             }
@@ -103,29 +125,31 @@ public class DependenciesDownloaderHelper {
     }
 
     /**
-     * Converts the found results to DownloadableArtifact types before downloading.
+     * Converts a found result to a DownloadableArtifact before downloading.
      */
-    private Set<DownloadableArtifact> fetchDownloadableArtifactsFromResult(List<AqlSearchResult.SearchEntry> searchResults, boolean explode, String target) {
-        Set<DownloadableArtifact> downloadableArtifacts = new HashSet<>();
-        for (AqlSearchResult.SearchEntry searchEntry : searchResults) {
-            String path = searchEntry.getPath().equals(".") ? "" : searchEntry.getPath() + "/";
-            DownloadableArtifact downloadableArtifact = new DownloadableArtifact(searchEntry.getRepo(), target, path + searchEntry.getName(), "", "", PatternType.NORMAL);
-            downloadableArtifact.setExplode(explode);
-            downloadableArtifacts.add(downloadableArtifact);
-        }
-        return downloadableArtifacts;
+    private DownloadableArtifact createDownloadableArtifact(AqlSearchResult.SearchEntry searchEntry, boolean explode, String target) {
+        String path = searchEntry.getPath().equals(".") ? "" : searchEntry.getPath() + "/";
+        DownloadableArtifact downloadableArtifact = new DownloadableArtifact(searchEntry.getRepo(), target, path + searchEntry.getName(), "", "", PatternType.NORMAL);
+        downloadableArtifact.setExplode(explode);
+        downloadableArtifact.setSize(searchEntry.getSize());
+        downloadableArtifact.setMd5(searchEntry.getActualMd5());
+        downloadableArtifact.setSha1(searchEntry.getActualSha1());
+        downloadableArtifact.setSha256(searchEntry.getSha256());
+        return downloadableArtifact;
     }
 
     public List<Dependency> downloadDependencies(Set<DownloadableArtifact> downloadableArtifacts) throws IOException {
         log.info("Beginning to resolve Build Info published dependencies.");
+        List<DownloadableArtifact> artifacts = new ArrayList<>(downloadableArtifacts);
+        Dependency[] results = downloadThreads > 1 && artifacts.size() > 1 ?
+                downloadConcurrently(artifacts) : downloadSerially(artifacts);
+
         List<Dependency> dependencies = new ArrayList<>();
         Set<DownloadableArtifact> downloadedArtifacts = new HashSet<>();
-        for (DownloadableArtifact downloadableArtifact : downloadableArtifacts) {
-            Dependency dependency = downloadArtifact(downloadableArtifact);
-            if (dependency != null) {
-                dependencies.add(dependency);
-                downloadedArtifacts.add(downloadableArtifact);
-                explodeDependenciesIfNeeded(downloadableArtifact);
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] != null) {
+                dependencies.add(results[i]);
+                downloadedArtifacts.add(artifacts.get(i));
             }
         }
 
@@ -134,6 +158,62 @@ public class DependenciesDownloaderHelper {
         return dependencies;
     }
 
+    private Dependency[] downloadSerially(List<DownloadableArtifact> artifacts) throws IOException {
+        Dependency[] results = new Dependency[artifacts.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = downloadAndExplode(artifacts.get(i));
+        }
+        return results;
+    }
+
+    /**
+     * Downloads the artifacts using {@link #downloadThreads} consumers of a ProducerConsumerExecutor.
+     * Artifacts with the same local path are downloaded sequentially in their original order, so the result is the same
+     * as of a serial download.
+     */
+    private Dependency[] downloadConcurrently(List<DownloadableArtifact> artifacts) throws IOException {
+        Map<String, DependenciesDownloadItem> itemsByDestination = new LinkedHashMap<>();
+        for (int i = 0; i < artifacts.size(); i++) {
+            DownloadableArtifact artifact = artifacts.get(i);
+            String fileDestination = downloader.getTargetDir(artifact.getTargetDirPath(), artifact.getRelativeDirPath());
+            itemsByDestination.computeIfAbsent(fileDestination, destination -> new DependenciesDownloadItem()).add(i, artifact);
+        }
+
+        Dependency[] results = new Dependency[artifacts.size()];
+        AtomicReference<IOException> failure = new AtomicReference<>();
+        ProducerRunnableBase[] producerRunnables = new ProducerRunnableBase[]{new DependenciesDownloadProducer(itemsByDestination.values())};
+        ConsumerRunnableBase[] consumerRunnables = new ConsumerRunnableBase[Math.min(downloadThreads, itemsByDestination.size())];
+        for (int i = 0; i < consumerRunnables.length; i++) {
+            consumerRunnables[i] = new DependenciesDownloadConsumer(this, results, failure);
+        }
+        try {
+            new ProducerConsumerExecutor(log, producerRunnables, consumerRunnables, consumerRunnables.length * 2).start();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while downloading dependencies", e);
+        } catch (Exception e) {
+            if (failure.get() != null) {
+                throw failure.get();
+            }
+            throw new IOException(e);
+        }
+        return results;
+    }
+
+    /**
+     * Downloads the artifact and explodes it if needed.
+     *
+     * @param downloadableArtifact download recipe
+     * @return artifact dependency, or null if the artifact is a directory
+     */
+    Dependency downloadAndExplode(DownloadableArtifact downloadableArtifact) throws IOException {
+        Dependency dependency = downloadArtifact(downloadableArtifact);
+        if (dependency != null) {
+            explodeDependenciesIfNeeded(downloadableArtifact);
+        }
+        return dependency;
+    }
+
     private void explodeDependenciesIfNeeded(DownloadableArtifact downloadableArtifact) throws IOException {
         if (!downloadableArtifact.isExplode()) {
             return;
@@ -176,7 +256,7 @@ public class DependenciesDownloaderHelper {
         String uri = downloadableArtifact.getRepoUrl() + '/' + filePath;
         final String uriWithParams = (StringUtils.isBlank(matrixParams) ? uri : uri + ';' + matrixParams);
 
-        ArtifactMetaData artifactMetaData = downloadArtifactMetaData(uriWithParams);
+        ArtifactMetaData artifactMetaData = getArtifactMetaData(downloadableArtifact, uriWithParams);
         // If Artifactory returned no fileMetaData, this is probably because the URL points to a folder,
         // so there's no need to download it.
         if (StringUtils.isBlank(artifactMetaData.getMd5()) && StringUtils.isBlank(artifactMetaData.getSha1())) {
@@ -185,6 +265,30 @@ public class DependenciesDownloaderHelper {
         return downloadArtifact(downloadableArtifact, artifactMetaData, uriWithParams, filePath);
     }
 
+    /**
+     * Returns the artifact metadata from the search result, if it is complete.
+     * Otherwise, or if the artifact may be downloaded in ranges, requests the metadata from Artifactory.
+     * The HEAD request is kept for ranged downloads since it tells whether ranges are accepted, and its cost is
+     * negligible compared to the download of a large file.
+     *
+     * @param downloadableArtifact download recipe
+     * @param uriWithParams        full artifact uri with matrix params
+     * @return the artifact metadata
+     */
+    private ArtifactMetaData getArtifactMetaData(DownloadableArtifact downloadableArtifact, String uriWithParams) throws IOException {
+        Long size = downloadableArtifact.getSize();
+        if (size == null || StringUtils.isBlank(downloadableArtifact.getMd5()) || StringUtils.isBlank(downloadableArtifact.getSha1()) ||
+                rangedDownloader.isRangedDownload(size, true)) {
+            return downloadArtifactMetaData(uriWithParams);
+        }
+        ArtifactMetaData artifactMetaData = new ArtifactMetaData();
+        artifactMetaData.setSize(size);
+        artifactMetaData.setMd5(downloadableArtifact.getMd5());
+        artifactMetaData.setSha1(downloadableArtifact.getSha1());
+        artifactMetaData.setSha256(downloadableArtifact.getSha256());
+        return artifactMetaData;
+    }
+
     /**
      * Download artifact.
      *
@@ -206,8 +310,8 @@ public class DependenciesDownloaderHelper {
 
         try {
             log.info(String.format("Downloading '%s'...", uriWithParams));
-            Map<String, String> checksumsMap = artifactMetaData.getSize() >= MIN_SIZE_FOR_CONCURRENT_DOWNLOAD && artifactMetaData.isAcceptRange()
-                    ? downloadFileConcurrently(uriWithParams, artifactMetaData.getSize(), fileDestination, filePath)
+            Map<String, String> checksumsMap = rangedDownloader.isRangedDownload(artifactMetaData.getSize(), artifactMetaData.isAcceptRange())
+                    ? downloadFileConcurrently(uriWithParams, artifactMetaData.getSize(), fileDestination)
                     : downloadFile(uriWithParams, fileDestination);
 
             // If the checksums map is null then something went wrong and we should fail the build
@@ -224,102 +328,54 @@ public class DependenciesDownloaderHelper {
         }
     }
 
+    /**
+     * Download an artifact in a single request, calculating its checksums while it is written to the file system.
+     *
+     * @param downloadPath    the request uri
+     * @param fileDestination location of saving the downloaded file in the file system
+     * @return checksums map of the downloaded artifact
+     */
     protected Map<String, String> downloadFile(String downloadPath, String fileDestination) throws IOException {
-        File downloadedFile = downloader.getArtifactoryManager().downloadToFile(downloadPath, fileDestination);
-        try {
-            return FileChecksumCalculator.calculateChecksums(downloadedFile, MD5_ALGORITHM, SHA1_ALGORITHM, SHA256_ALGORITHM);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException(String.format("Could not find checksum algorithm: %s", e.getLocalizedMessage()), e);
+        try (DigestingFileSink sink = new DigestingFileSink(fileDestination, 0)) {
+            downloader.getArtifactoryManager().downloadToSink(downloadPath, sink, 0, null);
+            return sink.getChecksums();
         }
     }
 
     /**
-     * Download an artifact using {@link #CONCURRENT_DOWNLOAD_THREADS} multiple threads.
-     * This method will be used for artifacts of size larger than {@link #MIN_SIZE_FOR_CONCURRENT_DOWNLOAD}.
+     * Download an artifact in multiple ranges, using the {@link RangedDownloader}.
+     * This method will be used for artifacts of size larger than {@link RangedDownloader#getMinSize()}.
+     * Each range is written directly at its offset in the preallocated destination file,
+     * and the checksums are calculated while the ranges are written.
      *
      * @param uriWithParams   the request uri
      * @param fileSize        in bytes, used for setting the download ranges
      * @param fileDestination location of saving the downloaded file in the file system
-     * @param filePath        path of the downloaded file
      * @return checksums map of the downloaded artifact
      */
-    protected Map<String, String> downloadFileConcurrently(final String uriWithParams, long fileSize, final String fileDestination, String filePath)
-            throws Exception {
-        String[] downloadedFilesPaths;
-        Path tempDir = Files.createTempDirectory("downloadFileConcurrently");
-        Path tempPath = tempDir.resolve(filePath);
-        try {
-            downloadedFilesPaths = doConcurrentDownload(fileSize, uriWithParams, tempPath.toString());
-            try (InputStream inputStream = concatenateFilesToSingleStream(downloadedFilesPaths)) {
-                return downloader.saveDownloadedFile(inputStream, fileDestination);
-            }
-        } finally {
-            FileUtils.deleteDirectory(tempDir.toFile());
-        }
-    }
-
-    private String[] doConcurrentDownload(long fileSize, final String downloadPath, String tempPath)
-            throws Exception {
-        final MutableBoolean errorOccurred = new MutableBoolean(false);
-        String[] downloadedFilesPaths = new String[CONCURRENT_DOWNLOAD_THREADS];
-        long chunkSize = fileSize / CONCURRENT_DOWNLOAD_THREADS;
-        Thread[] workers = new Thread[CONCURRENT_DOWNLOAD_THREADS];
-
-        long start = 0;
-        long end = chunkSize + fileSize % CONCURRENT_DOWNLOAD_THREADS - 1;
-        for (int i = 0; i < CONCURRENT_DOWNLOAD_THREADS; i++) {
-            final Map<String, String> headers = new HashMap<>();
-            headers.put(HttpHeaders.RANGE, "bytes=" + start + "-" + end);
-
-            final String fileDestination = tempPath + i;
-            downloadedFilesPaths[i] = fileDestination;
-            workers[i] = new Thread(() -> {
-                try {
-                    downloader.getArtifactoryManager().downloadToFile(downloadPath, fileDestination, headers);
-                } catch (Exception e) {
-                    errorOccurred.setValue(true);
-                    printErrorToLog(e, fileDestination, downloadPath);
-                }
-            });
-            workers[i].setName("downloader_" + i);
-            workers[i].start();
-
-            start = end + 1;
-            end += chunkSize;
-        }
-
-        for (Thread worker : workers) {
-            worker.join();
-        }
-
-        // Check if error occurred while downloading
-        if (errorOccurred.booleanValue()) {
-            throw new Exception(String.format("Error occurred while downloading %s, please refer to logs for more information", downloadPath));
+    protected Map<String, String> downloadFileConcurrently(final String uriWithParams, long fileSize, final String fileDestination)
+            throws IOException {
+        try (DigestingFileSink sink = new DigestingFileSink(fileDestination, fileSize)) {
+            rangedDownloader.download(downloader.getArtifactoryManager(), uriWithParams, fileSize, sink);
+            return sink.getChecksums();
         }
-
-        return downloadedFilesPaths;
     }
 
     /**
-     * Create a single InputStream.
-     * The stream is constructed from the multiple provided file paths.
+     * Download an artifact in multiple ranges.
      *
-     * @param downloadedFilesPaths String array containing paths to the downloaded files
-     * @return single InputStream of the downloaded file
+     * @param uriWithParams   the request uri
+     * @param fileSize        in bytes, used for setting the download ranges
+     * @param fileDestination location of saving the downloaded file in the file system
+     * @param filePath        path of the downloaded file. Not used, since the ranges are no longer downloaded to
+     *                        temporary files.
+     * @return checksums map of the downloaded artifact
+     * @deprecated Use {@link #downloadFileConcurrently(String, long, String)} instead.
      */
-    private InputStream concatenateFilesToSingleStream(String[] downloadedFilesPaths) throws FileNotFoundException {
-        InputStream inputStream = new FileInputStream(downloadedFilesPaths[0]);
-        if (downloadedFilesPaths.length < 2) {
-            return inputStream;
-        }
-
-        for (int i = 1; i < downloadedFilesPaths.length; i++) {
-            inputStream = new SequenceInputStream(
-                    inputStream,
-                    new FileInputStream(downloadedFilesPaths[i])
-            );
-        }
-        return inputStream;
+    @Deprecated
+    protected Map<String, String> downloadFileConcurrently(final String uriWithParams, long fileSize, final String fileDestination, String filePath)
+            throws Exception {
+        return downloadFileConcurrently(uriWithParams, fileSize, fileDestination);
     }
 
     /**
@@ -425,12 +481,6 @@ public class DependenciesDownloaderHelper {
         }
     }
 
-    private void printErrorToLog(Exception e, String downloadPath, String uriWithParams) {
-        StringWriter sw = new StringWriter();
-        e.printStackTrace(new PrintWriter(sw));
-        log.error(String.format("[Thread %s] downloading %s as part of file %s threw an exception: %s", Thread.currentThread().getName(), downloadPath, uriWithParams, sw.toString()));
-    }
-
     protected static class ArtifactMetaData {
         private String sha256;
         private String sha1;
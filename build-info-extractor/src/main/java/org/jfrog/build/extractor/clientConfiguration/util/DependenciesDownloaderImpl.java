@@ -55,6 +55,7 @@ public class DependenciesDownloaderImpl implements DependenciesDownloader {
     }
 
     @Override
+    @Deprecated
     public Map<String, String> saveDownloadedFile(InputStream is, String filePath) throws IOException {
         File dest = DependenciesDownloaderHelper.saveInputStreamToFile(is, filePath);
         try {
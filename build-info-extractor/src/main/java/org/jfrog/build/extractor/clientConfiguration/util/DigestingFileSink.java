@@ -0,0 +1,211 @@
+package org.jfrog.build.extractor.clientConfiguration.util;
+
+import org.apache.commons.codec.binary.Hex;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.jfrog.build.api.util.FileChecksumCalculator.*;
+
+/**
+ * Download destination which calculates the MD5, SHA1 and SHA256 checksums while the bytes are written,
+ * so the downloaded file doesn't need to be read again.
+ * <p>
+ * Supports concurrent writes of ranges at their offsets. The digests are updated in order: bytes written at the
+ * digested offset are digested immediately, and bytes written ahead of it are read back from the file once all
+ * the preceding bytes are digested.
+ */
+public class DigestingFileSink implements Closeable {
+    private static final int READ_BACK_BUFFER_SIZE = 64 * 1024;
+
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final FileChannel channel;
+    private final long expectedSize;
+    private final MessageDigest[] digests;
+    private final String[] algorithms = {MD5_ALGORITHM, SHA1_ALGORITHM, SHA256_ALGORITHM};
+    private final RangeTracker rangeTracker = new RangeTracker();
+    private long digestedOffset;
+
+    /**
+     * Creates the destination file. An existing file is overridden.
+     *
+     * @param filePath     - The destination file path
+     * @param expectedSize - The expected file size. If positive, the file is preallocated to this size.
+     * @throws IOException in case of an error creating the file
+     */
+    public DigestingFileSink(String filePath, long expectedSize) throws IOException {
+        this.file = new File(filePath);
+        this.expectedSize = expectedSize;
+        this.digests = new MessageDigest[algorithms.length];
+        try {
+            for (int i = 0; i < algorithms.length; i++) {
+                digests[i] = MessageDigest.getInstance(algorithms[i]);
+            }
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(String.format("Could not find checksum algorithm: %s", e.getLocalizedMessage()), e);
+        }
+        if (file.exists()) {
+            file.delete();
+        } else if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        try {
+            randomAccessFile = new RandomAccessFile(file, "rw");
+        } catch (IOException e) {
+            throw new IOException(String.format("Could not create file: %s", file.getAbsolutePath()), e);
+        }
+        channel = randomAccessFile.getChannel();
+        if (expectedSize > 0) {
+            randomAccessFile.setLength(expectedSize);
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Writes bytes at the given offset of the file and digests them if possible.
+     * Safe to call concurrently for non-overlapping ranges.
+     *
+     * @param offset - The offset in the file
+     * @param buffer - The bytes to write
+     * @param length - The number of bytes to write from the beginning of the buffer
+     * @throws IOException in case of an error writing to the file
+     */
+    public void write(long offset, byte[] buffer, int length) throws IOException {
+        if (length <= 0) {
+            return;
+        }
+        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, length);
+        long position = offset;
+        while (byteBuffer.hasRemaining()) {
+            position += channel.write(byteBuffer, position);
+        }
+        synchronized (this) {
+            rangeTracker.add(offset, offset + length);
+            if (offset == digestedOffset) {
+                updateDigests(buffer, length);
+            }
+            readBackWrittenRanges();
+        }
+    }
+
+    /**
+     * Returns the end of the contiguous written bytes starting at the offset, or the offset itself if the byte at the
+     * offset wasn't written. Used to resume a range after a failed download attempt.
+     *
+     * @param offset - The offset in the file
+     * @return the end (exclusive) of the written bytes
+     */
+    public synchronized long getWrittenEnd(long offset) {
+        return rangeTracker.getEnd(Math.max(offset, digestedOffset));
+    }
+
+    /**
+     * Returns the checksums of the file. Must be called after all the bytes were written.
+     *
+     * @return map with algorithm keys and checksum values
+     * @throws IOException if not all the expected bytes were written
+     */
+    public synchronized Map<String, String> getChecksums() throws IOException {
+        readBackWrittenRanges();
+        if (expectedSize > 0 && digestedOffset != expectedSize) {
+            throw new IOException(String.format("Downloaded %d bytes out of %d to %s", digestedOffset, expectedSize,
+                    file.getAbsolutePath()));
+        }
+        channel.force(false);
+        Map<String, String> checksums = new HashMap<>();
+        for (int i = 0; i < algorithms.length; i++) {
+            checksums.put(algorithms[i], Hex.encodeHexString(digests[i].digest()));
+        }
+        return checksums;
+    }
+
+    @Override
+    public void close() throws IOException {
+        randomAccessFile.close();
+    }
+
+    private void updateDigests(byte[] buffer, int length) {
+        for (MessageDigest digest : digests) {
+            digest.update(buffer, 0, length);
+        }
+        digestedOffset += length;
+    }
+
+    /**
+     * Digests bytes which were written ahead of the digested offset and are now contiguous to it.
+     */
+    private void readBackWrittenRanges() throws IOException {
+        long end = rangeTracker.getContiguousEnd(digestedOffset);
+        if (end <= digestedOffset) {
+            return;
+        }
+        byte[] buffer = new byte[READ_BACK_BUFFER_SIZE];
+        while (digestedOffset < end) {
+            int length = (int) Math.min(buffer.length, end - digestedOffset);
+            ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, length);
+            long position = digestedOffset;
+            while (byteBuffer.hasRemaining()) {
+                int read = channel.read(byteBuffer, position);
+                if (read < 0) {
+                    throw new IOException("Unexpected end of file while reading back " + file.getAbsolutePath());
+                }
+                position += read;
+            }
+            updateDigests(buffer, length);
+        }
+    }
+
+    /**
+     * Tracks the written ranges of the file, merging adjacent ranges.
+     */
+    private static class RangeTracker {
+        // Range start -> range end (exclusive)
+        private final TreeMap<Long, Long> ranges = new TreeMap<>();
+
+        private void add(long start, long end) {
+            Map.Entry<Long, Long> previous = ranges.floorEntry(start);
+            if (previous != null && previous.getValue() == start) {
+                start = previous.getKey();
+            }
+            Long next = ranges.get(end);
+            if (next != null) {
+                ranges.remove(end);
+                end = next;
+            }
+            ranges.put(start, end);
+        }
+
+        /**
+         * Returns the end of the written range containing the offset, or the offset itself if it wasn't written.
+         */
+        private long getEnd(long offset) {
+            Map.Entry<Long, Long> range = ranges.floorEntry(offset);
+            return range == null || range.getValue() < offset ? offset : range.getValue();
+        }
+
+        /**
+         * Same as {@link #getEnd(long)} for the digested offset. Drops the ranges which are fully digested.
+         */
+        private long getContiguousEnd(long digestedOffset) {
+            Map.Entry<Long, Long> range = ranges.floorEntry(digestedOffset);
+            if (range == null || range.getValue() < digestedOffset) {
+                return digestedOffset;
+            }
+            ranges.headMap(range.getKey()).clear();
+            return range.getValue();
+        }
+    }
+}
@@ -7,6 +7,7 @@ import org.jfrog.filespecs.FileSpec;
 import org.jfrog.filespecs.entities.FilesGroup;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 public class EditPropertiesHelper {
@@ -30,10 +31,14 @@ public class EditPropertiesHelper {
 
         for (FilesGroup file : spec.getFiles()) {
             log.debug("Editing properties using spec: \n" + file.toString());
+            // Collect all the results before editing, since editing the properties the spec filters by changes the
+            // results of the search
+            List<AqlSearchResult.SearchEntry> searchResults = new ArrayList<>();
+            searcher.searchByFileSpec(file, searchResults::add);
             if (editType == EditPropertiesActionType.SET) {
-                propertiesSet = setPropertiesOnResults(searcher.SearchByFileSpec(file), props) || propertiesSet;
+                propertiesSet = setPropertiesOnResults(searchResults, props) || propertiesSet;
             } else {
-                propertiesSet = deletePropertiesOnResults(searcher.SearchByFileSpec(file), props) || propertiesSet;
+                propertiesSet = deletePropertiesOnResults(searchResults, props) || propertiesSet;
             }
 
         }
@@ -0,0 +1,107 @@
+package org.jfrog.build.extractor.clientConfiguration.util;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.jfrog.build.extractor.JsonMappers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * HTTP entity which serializes an object directly to the request stream using a compact JSON generator, instead of
+ * building the whole JSON document in memory first. The object is serialized again on every write, so the entity is
+ * repeatable and requests using it can be retried.
+ * <p>
+ * The content may be gzip-compressed. Build-info requests are compressed when the {@value #PROP_GZIP} system
+ * property is set to true. The server, or the proxy in front of it, must accept gzip-encoded requests.
+ */
+public class JsonEntity extends AbstractHttpEntity {
+    public static final String PROP_GZIP = "buildInfo.publish.gzip";
+
+    private final Object value;
+    private final ObjectWriter writer;
+    private final boolean gzip;
+
+    /**
+     * @param value       - The object to serialize
+     * @param contentType - The content type
+     * @param gzip        - True to compress the content with gzip
+     */
+    public JsonEntity(Object value, String contentType, boolean gzip) {
+        this(value, JsonMappers.writer(), contentType, gzip);
+    }
+
+    /**
+     * @param value       - The object to serialize
+     * @param writer      - The writer used to serialize the object
+     * @param contentType - The content type
+     * @param gzip        - True to compress the content with gzip
+     */
+    public JsonEntity(Object value, ObjectWriter writer, String contentType, boolean gzip) {
+        this.value = value;
+        this.writer = writer;
+        this.gzip = gzip;
+        setContentType(contentType);
+        if (gzip) {
+            setContentEncoding("gzip");
+        }
+    }
+
+    /**
+     * Returns true if build-info requests should be gzip-compressed, according to the {@value #PROP_GZIP} system
+     * property.
+     */
+    public static boolean isGzipEnabled() {
+        return Boolean.parseBoolean(System.getProperty(PROP_GZIP));
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    /**
+     * The length is unknown until the object is serialized, so the content is sent using chunked transfer encoding.
+     */
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeTo(out);
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        if (!gzip) {
+            write(outStream);
+            return;
+        }
+        GZIPOutputStream gzipStream = new GZIPOutputStream(outStream, 64 * 1024);
+        write(gzipStream);
+        // Write the trailer without closing the underlying stream, which is owned by the caller
+        gzipStream.finish();
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    private void write(OutputStream outStream) throws IOException {
+        try (JsonGenerator generator = JsonMappers.getJsonFactory().createGenerator(outStream, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            writer.writeValue(generator, value);
+        }
+    }
+}
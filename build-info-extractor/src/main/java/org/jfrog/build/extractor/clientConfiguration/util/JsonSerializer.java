@@ -16,15 +16,9 @@
 
 package org.jfrog.build.extractor.clientConfiguration.util;
 
-import com.fasterxml.jackson.core.JsonFactory;
-import com.fasterxml.jackson.core.JsonGenerator;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import org.jfrog.build.extractor.JsonMappers;
 
 import java.io.IOException;
-import java.io.StringWriter;
-
-import static org.jfrog.build.extractor.BuildInfoExtractorUtils.createMapper;
 
 /**
  * @author jbaruch
@@ -33,17 +27,6 @@ import static org.jfrog.build.extractor.BuildInfoExtractorUtils.createMapper;
 public class JsonSerializer<T> {
 
     public String toJSON(T object) throws IOException {
-        JsonFactory jsonFactory = new JsonFactory();
-        ObjectMapper mapper = createMapper();
-
-        mapper.setAnnotationIntrospector(new JacksonAnnotationIntrospector());
-        jsonFactory.setCodec(mapper);
-        try (StringWriter writer = new StringWriter();
-             JsonGenerator jsonGenerator = jsonFactory.createGenerator(writer)) {
-            jsonGenerator.useDefaultPrettyPrinter();
-            jsonGenerator.writeObject(object);
-
-            return writer.getBuffer().toString();
-        }
+        return JsonMappers.prettyWriter().writeValueAsString(object);
     }
 }
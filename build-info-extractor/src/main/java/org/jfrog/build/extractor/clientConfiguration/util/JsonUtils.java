@@ -1,44 +1,32 @@
 package org.jfrog.build.extractor.clientConfiguration.util;
 
 import com.fasterxml.jackson.core.JsonFactory;
-import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import org.jfrog.build.extractor.JsonMappers;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.StringWriter;
-
-import static org.jfrog.build.extractor.BuildInfoExtractorUtils.createMapper;
 
 public class JsonUtils {
     public static String toJsonString(Object object) throws IOException {
-        JsonFactory jsonFactory = createJsonFactory();
-        try (StringWriter writer = new StringWriter();
-             JsonGenerator jsonGenerator = jsonFactory.createGenerator(writer)) {
-            jsonGenerator.useDefaultPrettyPrinter();
-            jsonGenerator.writeObject(object);
-
-            return writer.getBuffer().toString();
-        }
+        return JsonMappers.prettyWriter().writeValueAsString(object);
     }
 
     public static JsonParser createJsonParser(InputStream in) throws IOException {
-        JsonFactory jsonFactory = createJsonFactory();
-        return jsonFactory.createParser(in);
+        return JsonMappers.getJsonFactory().createParser(in);
     }
 
     public static JsonParser createJsonParser(String content) throws IOException {
-        JsonFactory jsonFactory = createJsonFactory();
-        return jsonFactory.createParser(content);
+        return JsonMappers.getJsonFactory().createParser(content);
     }
 
+    /**
+     * Returns a new JSON factory, which uses the shared mapper as its codec. The factory may be reconfigured by the
+     * caller without affecting the shared one.
+     */
     public static JsonFactory createJsonFactory() {
-        JsonFactory jsonFactory = new JsonFactory();
-        ObjectMapper mapper = createMapper();
-        mapper.setAnnotationIntrospector(new JacksonAnnotationIntrospector());
-        jsonFactory.setCodec(mapper);
+        JsonFactory jsonFactory = JsonMappers.getMapper().getFactory().copy();
+        jsonFactory.setCodec(JsonMappers.getMapper());
         return jsonFactory;
     }
 }
@@ -0,0 +1,175 @@
+package org.jfrog.build.extractor.clientConfiguration.util;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.jfrog.build.api.search.AqlSearchResult;
+import org.jfrog.build.api.search.AqlSearchResultHandler;
+import org.jfrog.build.api.util.Log;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs an AQL query in pages, using the AQL offset and limit modifiers.
+ * Up to a bounded number of pages are fetched concurrently, and the results are passed to the handler in the order
+ * of the pages. The pages are sorted by repo, path and name, so they don't overlap.
+ * <p>
+ * Queries which already use sort, offset or limit, which don't include the repo, path and name fields, or which
+ * include fields of other domains, such as properties, are sent as a single request. Artifactory accepts sort,
+ * offset and limit only when all the included fields belong to the primary domain.
+ * <p>
+ * The pages are separate queries, so they are not a consistent snapshot: items which are added or removed between
+ * pages may be skipped or returned twice. The pagination is therefore disabled by default.
+ * <p>
+ * Configuration is done using system properties:
+ * <ul>
+ * <li>{@value #PROP_PAGE_SIZE} - The number of results per page. Set to a positive number to enable the pagination.
+ * Default: {@value #DEFAULT_PAGE_SIZE} (disabled).</li>
+ * <li>{@value #PROP_PARALLEL_PAGES} - Maximum number of pages fetched concurrently. Default: {@value #DEFAULT_PARALLEL_PAGES}.</li>
+ * </ul>
+ */
+public class PaginatedAqlSearcher {
+
+    public static final String AQL_PREFIX = "buildInfo.aql.";
+    public static final String PROP_PAGE_SIZE = AQL_PREFIX + "pageSize";
+    public static final String PROP_PARALLEL_PAGES = AQL_PREFIX + "parallelPages";
+    public static final int DEFAULT_PAGE_SIZE = 0;
+    public static final int DEFAULT_PARALLEL_PAGES = 3;
+
+    private static final String SORT = ".sort({\"$asc\":[\"repo\",\"path\",\"name\"]})";
+    private static final List<String> SORT_FIELDS = Arrays.asList("repo", "path", "name");
+    private static final Pattern INCLUDE_FIELD = Pattern.compile("\"([^\"]*)\"");
+    private static final AtomicInteger searcherNumber = new AtomicInteger(1);
+
+    /**
+     * Sends a single page query and passes its results to the handler.
+     */
+    public interface PageSearcher {
+        int search(String aql, AqlSearchResultHandler handler) throws IOException;
+    }
+
+    private final PageSearcher pageSearcher;
+    private final int pageSize;
+    private final int parallelPages;
+    private final Log log;
+
+    public PaginatedAqlSearcher(PageSearcher pageSearcher, int pageSize, int parallelPages, Log log) {
+        this.pageSearcher = pageSearcher;
+        this.pageSize = pageSize;
+        this.parallelPages = Math.max(1, parallelPages);
+        this.log = log;
+    }
+
+    public static int getPageSizeFromSystemProperties() {
+        return NumberUtils.toInt(System.getProperty(PROP_PAGE_SIZE), DEFAULT_PAGE_SIZE);
+    }
+
+    public static int getParallelPagesFromSystemProperties() {
+        return NumberUtils.toInt(System.getProperty(PROP_PARALLEL_PAGES), DEFAULT_PARALLEL_PAGES);
+    }
+
+    /**
+     * Returns true if the query can be split into pages.
+     *
+     * @param aql - The AQL query
+     */
+    static boolean isPageable(String aql) {
+        if (StringUtils.containsAny(aql, ".sort(", ".offset(", ".limit(")) {
+            return false;
+        }
+        String include = StringUtils.substringBetween(aql, ".include(", ")");
+        if (include == null) {
+            return true;
+        }
+        List<String> fields = new ArrayList<>();
+        Matcher matcher = INCLUDE_FIELD.matcher(include);
+        while (matcher.find()) {
+            String field = matcher.group(1);
+            // Fields of other domains, such as properties ('property', 'property.*', '@key') or 'stat.downloads'
+            if (field.startsWith("@") || field.contains(".") || field.equals("property") || field.equals("*")) {
+                return false;
+            }
+            fields.add(field);
+        }
+        return fields.containsAll(SORT_FIELDS);
+    }
+
+    static String createPageQuery(String aql, long offset, int limit) {
+        return StringUtils.stripEnd(aql.trim(), ";") + SORT + ".offset(" + offset + ").limit(" + limit + ")";
+    }
+
+    /**
+     * Runs the query and passes the results to the handler, in the order of the pages.
+     *
+     * @param aql     - The AQL query
+     * @param handler - The handler of the results
+     * @return the number of results
+     * @throws IOException in case of an error fetching a page or handling a result
+     */
+    public int search(String aql, AqlSearchResultHandler handler) throws IOException {
+        if (pageSize <= 0 || !isPageable(aql)) {
+            return pageSearcher.search(aql, handler);
+        }
+        int searcher = searcherNumber.getAndIncrement();
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelPages, runnable -> {
+            Thread thread = new Thread(runnable, "aql-page-" + searcher + "-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Deque<Future<List<AqlSearchResult.SearchEntry>>> window = new ArrayDeque<>();
+        try {
+            int count = 0;
+            long nextOffset = 0;
+            boolean lastPageFetched = false;
+            while (true) {
+                while (!lastPageFetched && window.size() < parallelPages) {
+                    String pageQuery = createPageQuery(aql, nextOffset, pageSize);
+                    window.add(executor.submit(() -> fetchPage(pageQuery)));
+                    nextOffset += pageSize;
+                }
+                if (window.isEmpty()) {
+                    return count;
+                }
+                List<AqlSearchResult.SearchEntry> page = window.poll().get();
+                for (AqlSearchResult.SearchEntry entry : page) {
+                    handler.handle(entry);
+                }
+                count += page.size();
+                if (page.size() < pageSize && !lastPageFetched) {
+                    // The following pages are empty
+                    lastPageFetched = true;
+                    window.forEach(future -> future.cancel(true));
+                    window.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while searching by AQL", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        } finally {
+            window.forEach(future -> future.cancel(true));
+            executor.shutdownNow();
+        }
+    }
+
+    private List<AqlSearchResult.SearchEntry> fetchPage(String pageQuery) throws IOException {
+        log.debug("Searching Artifactory using AQL query:\n" + pageQuery);
+        List<AqlSearchResult.SearchEntry> page = new ArrayList<>();
+        pageSearcher.search(pageQuery, page::add);
+        return page;
+    }
+}
@@ -0,0 +1,263 @@
+package org.jfrog.build.extractor.clientConfiguration.util;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpHeaders;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.client.ExponentialBackoffRetryPolicy;
+import org.jfrog.build.client.RetryPolicy;
+import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Downloads a file in multiple HTTP ranges into a {@link DigestingFileSink}.
+ * The number of ranges is derived from the file size and the target part size, and all the ranges of all the files
+ * downloaded by the same instance share a bounded pool of download threads.
+ * A failed range is retried from the last byte written by the failed attempt, instead of failing the whole file.
+ * The retries are delayed by a {@link RetryPolicy}, by default the {@link ExponentialBackoffRetryPolicy} configured
+ * from system properties, like the retries of the http client.
+ * <p>
+ * Configuration is done using system properties:
+ * <ul>
+ * <li>{@value #PROP_THREADS} - Maximum number of concurrent range downloads. Default: {@value #DEFAULT_THREADS}.</li>
+ * <li>{@value #PROP_PART_SIZE_MB} - Target part size in MB. Default: {@value #DEFAULT_PART_SIZE_MB}.</li>
+ * <li>{@value #PROP_MAX_PARTS} - Maximum number of parts of a single file. Default: {@value #DEFAULT_MAX_PARTS}.</li>
+ * <li>{@value #PROP_MIN_SIZE} - Minimum file size in bytes for a ranged download.
+ * Default: {@value #DEFAULT_MIN_SIZE}.</li>
+ * <li>{@value #PROP_RANGE_RETRIES} - Number of retries of a failed range. Default: {@value #DEFAULT_RANGE_RETRIES}.</li>
+ * </ul>
+ */
+public class RangedDownloader {
+
+    public static final String RANGED_DOWNLOAD_PREFIX = "buildInfo.download.";
+    public static final String PROP_THREADS = RANGED_DOWNLOAD_PREFIX + "threads";
+    public static final String PROP_PART_SIZE_MB = RANGED_DOWNLOAD_PREFIX + "partSizeMb";
+    public static final String PROP_MAX_PARTS = RANGED_DOWNLOAD_PREFIX + "maxParts";
+    public static final String PROP_MIN_SIZE = RANGED_DOWNLOAD_PREFIX + "minSize";
+    public static final String PROP_RANGE_RETRIES = RANGED_DOWNLOAD_PREFIX + "rangeRetries";
+    public static final int DEFAULT_THREADS = 8;
+    public static final int DEFAULT_PART_SIZE_MB = 8;
+    public static final int DEFAULT_MAX_PARTS = 128;
+    public static final long DEFAULT_MIN_SIZE = 5120000;
+    public static final int DEFAULT_RANGE_RETRIES = 3;
+
+    private static final int MIN_PARTS = 2;
+    private static final AtomicInteger poolNumber = new AtomicInteger(1);
+
+    private final int threads;
+    private final long partSize;
+    private final int maxParts;
+    private final long minSize;
+    private final int rangeRetries;
+    private final RetryPolicy retryPolicy;
+    private final Log log;
+    private ThreadPoolExecutor executor;
+
+    public RangedDownloader(int threads, long partSize, int maxParts, long minSize, int rangeRetries, Log log) {
+        this(threads, partSize, maxParts, minSize, rangeRetries, ExponentialBackoffRetryPolicy.fromSystemProperties(), log);
+    }
+
+    public RangedDownloader(int threads, long partSize, int maxParts, long minSize, int rangeRetries,
+                            RetryPolicy retryPolicy, Log log) {
+        if (threads <= 0 || partSize <= 0 || maxParts < MIN_PARTS || rangeRetries < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid ranged download configuration: threads=%d, partSize=%d, maxParts=%d, rangeRetries=%d",
+                    threads, partSize, maxParts, rangeRetries));
+        }
+        this.threads = threads;
+        this.partSize = partSize;
+        this.maxParts = maxParts;
+        this.minSize = minSize;
+        this.rangeRetries = rangeRetries;
+        this.retryPolicy = retryPolicy;
+        this.log = log;
+    }
+
+    /**
+     * Creates a ranged downloader configured from system properties.
+     *
+     * @param log - The logger
+     * @return the ranged downloader
+     */
+    public static RangedDownloader fromSystemProperties(Log log) {
+        return new RangedDownloader(
+                getIntProperty(PROP_THREADS, DEFAULT_THREADS),
+                getIntProperty(PROP_PART_SIZE_MB, DEFAULT_PART_SIZE_MB) * 1024L * 1024L,
+                getIntProperty(PROP_MAX_PARTS, DEFAULT_MAX_PARTS),
+                getLongProperty(PROP_MIN_SIZE, DEFAULT_MIN_SIZE),
+                getIntProperty(PROP_RANGE_RETRIES, DEFAULT_RANGE_RETRIES),
+                log);
+    }
+
+    private static int getIntProperty(String key, int defaultValue) {
+        return (int) getLongProperty(key, defaultValue);
+    }
+
+    private static long getLongProperty(String key, long defaultValue) {
+        String value = System.getProperty(key);
+        return StringUtils.isNumeric(value) ? Long.parseLong(value) : defaultValue;
+    }
+
+    public long getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * Returns true if a file of the given size should be downloaded in multiple ranges.
+     *
+     * @param fileSize    - The file size in bytes
+     * @param acceptRange - True if the server accepts range requests for the file
+     */
+    public boolean isRangedDownload(long fileSize, boolean acceptRange) {
+        return acceptRange && fileSize >= minSize && fileSize >= MIN_PARTS;
+    }
+
+    /**
+     * Splits a file to contiguous ranges of about the target part size.
+     * The number of ranges is at least 2 and at most the maximum number of parts.
+     *
+     * @param fileSize - The file size in bytes
+     * @return the ranges, ordered by their offsets
+     */
+    List<Range> split(long fileSize) {
+        long parts = (fileSize + partSize - 1) / partSize;
+        parts = Math.max(MIN_PARTS, Math.min(maxParts, parts));
+        parts = Math.min(parts, fileSize);
+        long rangeSize = fileSize / parts;
+        long remainder = fileSize % parts;
+        List<Range> ranges = new ArrayList<>();
+        long start = 0;
+        for (int i = 0; i < parts; i++) {
+            // The first ranges absorb the remainder, one byte each
+            long end = start + rangeSize + (i < remainder ? 1 : 0);
+            ranges.add(new Range(start, end));
+            start = end;
+        }
+        return ranges;
+    }
+
+    /**
+     * Downloads the file in ranges into the sink. Returns once all the ranges were written.
+     *
+     * @param artifactoryManager - The Artifactory manager to download with
+     * @param downloadPath       - The request uri
+     * @param fileSize           - The file size in bytes
+     * @param sink               - The destination of the ranges
+     * @throws IOException if any of the ranges failed after all the retries
+     */
+    public void download(ArtifactoryManager artifactoryManager, String downloadPath, long fileSize, DigestingFileSink sink)
+            throws IOException {
+        List<Range> ranges = split(fileSize);
+        log.debug(String.format("Downloading %s in %d ranges", downloadPath, ranges.size()));
+        CompletionService<Void> completionService = new ExecutorCompletionService<>(getExecutor());
+        List<Future<Void>> futures = new ArrayList<>();
+        for (Range range : ranges) {
+            futures.add(completionService.submit(() -> {
+                downloadRange(artifactoryManager, downloadPath, range, sink);
+                return null;
+            }));
+        }
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                completionService.take().get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while downloading " + downloadPath, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private void downloadRange(ArtifactoryManager artifactoryManager, String downloadPath, Range range,
+                               DigestingFileSink sink) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            // Resume from the last byte written by previous attempts
+            long start = Math.min(sink.getWrittenEnd(range.start), range.end);
+            if (start == range.end) {
+                return;
+            }
+            String rangeHeader = "bytes=" + start + "-" + (range.end - 1);
+            Map<String, String> headers = new HashMap<>();
+            headers.put(HttpHeaders.RANGE, rangeHeader);
+            try {
+                long written = artifactoryManager.downloadToSink(downloadPath, sink, start, headers);
+                if (written != range.end - start) {
+                    throw new IOException(String.format("Expected %d bytes starting at offset %d, but received %d",
+                            range.end - start, start, written));
+                }
+                return;
+            } catch (IOException | RuntimeException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                if (attempt >= rangeRetries) {
+                    throw new IOException(String.format("Failed downloading range %s of %s after %d attempts",
+                            rangeHeader, downloadPath, attempt + 1), e);
+                }
+                long delay = retryPolicy.getRetryDelayMillis(attempt + 1, -1);
+                log.warn(String.format("[Thread %s] downloading range %s of %s failed, retrying (%d/%d)%s: %s",
+                        Thread.currentThread().getName(), rangeHeader, downloadPath, attempt + 1, rangeRetries,
+                        delay > 0 ? " in " + delay + " ms" : "", e.getMessage()));
+                if (delay > 0) {
+                    try {
+                        Thread.sleep(delay);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrupted while downloading " + downloadPath, ie);
+                    }
+                }
+            }
+        }
+    }
+
+    private synchronized ThreadPoolExecutor getExecutor() {
+        if (executor == null) {
+            int pool = poolNumber.getAndIncrement();
+            AtomicInteger threadNumber = new AtomicInteger(1);
+            ThreadFactory threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, "downloader-" + pool + "-" + threadNumber.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            };
+            // Idle threads time out, so the pool doesn't outlive the downloads
+            executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+            executor.allowCoreThreadTimeOut(true);
+        }
+        return executor;
+    }
+
+    /**
+     * A range of a file, from start (inclusive) to end (exclusive).
+     */
+    static class Range {
+        final long start;
+        final long end;
+
+        Range(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public String toString() {
+            return start + "-" + end;
+        }
+    }
+}
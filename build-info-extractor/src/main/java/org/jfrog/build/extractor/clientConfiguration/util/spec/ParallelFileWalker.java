@@ -0,0 +1,188 @@
+package org.jfrog.build.extractor.clientConfiguration.util.spec;
+
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Walks a directory tree using a fork/join pool. Every directory is listed by its own task, using
+ * {@link Files#walkFileTree} with a depth of 1, and its subdirectories are walked in parallel.
+ * <p>
+ * The walk is pruned by a maximum depth and by a directory filter, so directories which can't contain matching files
+ * are never listed. Symbolic links to directories are followed once per target directory.
+ * The file handler is called concurrently by the walker threads, in no particular order.
+ */
+class ParallelFileWalker {
+    private static final AtomicInteger poolNumber = new AtomicInteger(1);
+
+    private final int parallelism;
+
+    /**
+     * @param parallelism - The number of directories listed concurrently
+     */
+    ParallelFileWalker(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Walks a directory tree.
+     *
+     * @param root            - The directory to walk
+     * @param maxDepth        - The maximum depth of the walked files, where the files in the root directory are in depth
+     *                        0, or -1 for no limit
+     * @param directoryFilter - Decides whether to walk a directory
+     * @param fileHandler     - Called for every walked file
+     * @throws IOException          if the file handler failed, or a symbolic link couldn't be resolved
+     * @throws InterruptedException if the walk was interrupted
+     */
+    void walk(Path root, int maxDepth, DirectoryFilter directoryFilter, FileHandler fileHandler)
+            throws IOException, InterruptedException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        int pool = poolNumber.getAndIncrement();
+        ForkJoinPool.ForkJoinWorkerThreadFactory threadFactory = forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("spec-walker-" + pool + "-" + thread.getPoolIndex());
+            return thread;
+        };
+        ForkJoinPool forkJoinPool = new ForkJoinPool(parallelism, threadFactory, null, false);
+        Walk walk = new Walk(maxDepth, directoryFilter, fileHandler);
+        try {
+            forkJoinPool.submit(walk.new DirectoryTask(root, 0)).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            forkJoinPool.shutdownNow();
+        }
+        Exception failure = walk.failure.get();
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+        if (failure instanceof InterruptedException) {
+            throw (InterruptedException) failure;
+        }
+    }
+
+    interface DirectoryFilter {
+        /**
+         * @param dir   - The directory
+         * @param depth - The depth of the directory, where the directories in the root directory are in depth 0
+         * @return true if the directory should be walked
+         */
+        boolean accept(Path dir, int depth);
+    }
+
+    interface FileHandler {
+        /**
+         * @param file  - The walked file
+         * @param depth - The depth of the file, where the files in the root directory are in depth 0
+         */
+        void handle(Path file, int depth) throws IOException, InterruptedException;
+    }
+
+    /**
+     * The state of a single walk. After the first failure, no more directories are listed.
+     */
+    private static class Walk {
+        private final int maxDepth;
+        private final DirectoryFilter directoryFilter;
+        private final FileHandler fileHandler;
+        private final Set<Path> symlinkTargets = ConcurrentHashMap.newKeySet();
+        private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+        private Walk(int maxDepth, DirectoryFilter directoryFilter, FileHandler fileHandler) {
+            this.maxDepth = maxDepth;
+            this.directoryFilter = directoryFilter;
+            this.fileHandler = fileHandler;
+        }
+
+        private boolean isStopped() {
+            return failure.get() != null || Thread.currentThread().isInterrupted();
+        }
+
+        private boolean shouldWalk(Path dir, int depth) throws IOException {
+            if (maxDepth != -1 && depth + 1 > maxDepth) {
+                return false;
+            }
+            // Follow every symbolic link target once, to avoid walking link cycles forever
+            if (Files.isSymbolicLink(dir) && !symlinkTargets.add(dir.toRealPath())) {
+                return false;
+            }
+            return directoryFilter.accept(dir, depth);
+        }
+
+        private class DirectoryTask extends RecursiveAction {
+            private final Path dir;
+            private final int depth;
+
+            /**
+             * @param dir   - The directory to list
+             * @param depth - The depth of the files in the directory
+             */
+            private DirectoryTask(Path dir, int depth) {
+                this.dir = dir;
+                this.depth = depth;
+            }
+
+            @Override
+            protected void compute() {
+                List<DirectoryTask> subdirectories = new ArrayList<>();
+                try {
+                    Files.walkFileTree(dir, EnumSet.of(FileVisitOption.FOLLOW_LINKS), 1, new SimpleFileVisitor<Path>() {
+                        @Override
+                        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                            if (isStopped()) {
+                                return FileVisitResult.TERMINATE;
+                            }
+                            if (attrs.isDirectory()) {
+                                if (shouldWalk(file, depth)) {
+                                    subdirectories.add(new DirectoryTask(file, depth + 1));
+                                }
+                                return FileVisitResult.CONTINUE;
+                            }
+                            try {
+                                fileHandler.handle(file, depth);
+                            } catch (InterruptedException e) {
+                                failure.compareAndSet(null, e);
+                                return FileVisitResult.TERMINATE;
+                            }
+                            return FileVisitResult.CONTINUE;
+                        }
+
+                        @Override
+                        public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                            // Unreadable entries are skipped
+                            return FileVisitResult.CONTINUE;
+                        }
+                    });
+                } catch (IOException e) {
+                    failure.compareAndSet(null, e);
+                    return;
+                }
+                if (!isStopped()) {
+                    ForkJoinTask.invokeAll(subdirectories);
+                }
+            }
+        }
+    }
+}
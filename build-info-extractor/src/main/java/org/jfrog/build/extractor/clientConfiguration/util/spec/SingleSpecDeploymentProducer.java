@@ -5,6 +5,7 @@ import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.jfrog.build.api.multiMap.Multimap;
 import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
+import org.jfrog.build.extractor.clientConfiguration.deploy.UploadPreflight;
 import org.jfrog.build.extractor.clientConfiguration.util.PathsUtils;
 import org.jfrog.build.extractor.producerConsumer.ProducerConsumerExecutor;
 import org.jfrog.filespecs.entities.FilesGroup;
@@ -12,10 +13,12 @@ import org.jfrog.filespecs.entities.FilesGroup;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.security.NoSuchAlgorithmException;
-import java.util.*;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * Actual FileSpec performer, scans the file-system for matching files and creates the deployment data.
@@ -23,6 +26,7 @@ import java.util.regex.Pattern;
  * Created by Bar Belity on 07/03/2018.
  */
 public class SingleSpecDeploymentProducer {
+    private static final int WALKER_PARALLELISM = Runtime.getRuntime().availableProcessors();
 
     private FilesGroup spec;
     private File workspace;
@@ -39,48 +43,34 @@ public class SingleSpecDeploymentProducer {
     private boolean isRecursive;
     private boolean isRegexp;
     private boolean isAbsolutePath;
-    private int separatorsCount;
-    private Set<String> symlinkSet = new HashSet<>();
+    private int maxDepth;
+    private List<Pattern> directoryPatterns;
+    private final UploadPreflight preflight;
+    // Artifacts waiting for the pre-flight check before they're sent to the consumers
+    private final List<DeployDetails> preflightBatch = new ArrayList<>();
 
-    SingleSpecDeploymentProducer(FilesGroup spec, File workspace, Multimap<String, String> buildProperties) {
+    SingleSpecDeploymentProducer(FilesGroup spec, File workspace, Multimap<String, String> buildProperties, UploadPreflight preflight) {
         this.spec = spec;
         this.workspace = workspace;
         this.buildProperties = buildProperties;
+        this.preflight = preflight;
     }
 
     /**
      * Executes a single FileSpec.
      * Find all files matching the spec, create and publish its DeployDetails.
+     * The file-system is scanned in parallel, and the checksums of the files are calculated later by the consumers.
      *
-     * @param deploymentSet Set containing the DeployDetails to deploy
+     * @param deploymentSet Concurrent set containing the DeployDetails to deploy
      */
     public void executeSpec(Set<DeployDetails> deploymentSet, ProducerConsumerExecutor executor)
-            throws IOException, NoSuchAlgorithmException, InterruptedException {
+            throws IOException, InterruptedException {
         init();
-        File[] filesToScan = new File(baseDir).listFiles();
-        if (filesToScan == null) {
-            return;
-        }
-
-        for (File file : filesToScan) {
-            if (Thread.interrupted()) {
-                Thread.currentThread().interrupt();
-                break;
-            }
-
-            if (file.isFile()) {
-                processDeployCandidate(file, deploymentSet, executor);
-                continue;
-            }
-            if (isRecursive) {
-                collectFiles(file.getAbsolutePath(), -1, deploymentSet, executor);
-                continue;
-            }
-            if (!isRegexp) {
-                // In case of not recursive wildcard pattern we can stop scanning in certain depth.
-                // This depth is when the number of slashes in the path and base directory with pattern are equal.
-                collectFiles(file.getAbsolutePath(), separatorsCount, deploymentSet, executor);
-            }
+        new ParallelFileWalker(WALKER_PARALLELISM).walk(baseDirFile.toPath(), maxDepth, this::isDirectoryMatchPattern,
+                (file, depth) -> processDeployCandidate(file.toFile(), deploymentSet, executor));
+        if (preflight != null) {
+            putChecked(new ArrayList<>(preflightBatch), executor);
+            preflightBatch.clear();
         }
     }
 
@@ -118,8 +108,16 @@ public class SingleSpecDeploymentProducer {
             patternForPath = PathsUtils.pathToRegExp(pattern);
         }
 
-        // Calculate number of separators
-        separatorsCount = StringUtils.countMatches(newPattern, "/") + StringUtils.countMatches(baseDir, "/");
+        // In case of not recursive pattern we can stop scanning in certain depth.
+        // Wildcard patterns match files in the depth of the pattern, while regexp patterns match files in the base directory only.
+        if (isRecursive) {
+            maxDepth = -1;
+        } else if (isRegexp) {
+            maxDepth = 0;
+        } else {
+            maxDepth = StringUtils.countMatches(newPattern, "/");
+            directoryPatterns = getDirectoryPatterns(newPattern);
+        }
         // Calculate pattern for path
         pathPattern = Pattern.compile(patternForPath);
         // Calculate exclude pattern
@@ -135,62 +133,38 @@ public class SingleSpecDeploymentProducer {
     }
 
     /**
-     * Check all file candidates for upload in the provided directory, to specified depth.
+     * Returns a pattern for every directory level of a not recursive wildcard pattern, or null if the pattern can't
+     * be split to directory levels.
      *
-     * @param dir           base directory to start search for files
-     * @param depth         level of folders to search in
-     * @param deploymentSet Set containing the DeployDetails to deploy
+     * @param pattern the wildcard pattern, relative to the base directory
      */
-    private void collectFiles(String dir, int depth, Set<DeployDetails> deploymentSet, ProducerConsumerExecutor executor)
-            throws IOException, NoSuchAlgorithmException, InterruptedException {
-        List<String> foldersToScan = new LinkedList<>();
-        foldersToScan.add(dir);
-
-        for (int i = 0; i < foldersToScan.size(); i++) {
-            if (Thread.interrupted()) {
-                Thread.currentThread().interrupt();
-                break;
-            }
-
-            String folderString = foldersToScan.get(i);
-
-            if (depth != -1 && !(StringUtils.countMatches(folderString, File.separator) <= depth)) {
-                continue;
-            }
-
-            File file = new File(folderString);
-            List<File> folderContent = new ArrayList<>();
-            File[] fileList = file.listFiles();
-            if (fileList != null) {
-                folderContent.addAll(Arrays.asList(fileList));
+    private static List<Pattern> getDirectoryPatterns(String pattern) {
+        String[] segments = pattern.split("/", -1);
+        List<Pattern> directoryPatterns = new ArrayList<>();
+        try {
+            // The last segment matches the file name
+            for (int i = 0; i < segments.length - 1; i++) {
+                directoryPatterns.add(Pattern.compile(PathsUtils.pathToRegExp(segments[i])));
             }
-            if (folderContent.isEmpty()) {
-                continue;
-            }
-
-            for (File entry : folderContent) {
-                if (Thread.interrupted()) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
+        } catch (PatternSyntaxException e) {
+            // A capture group spans several directory levels
+            return null;
+        }
+        return directoryPatterns;
+    }
 
-                if (entry.isDirectory()) {
-                    if (Files.isSymbolicLink(entry.toPath())) {
-                        // If symlink already exists, don't add it to foldersToScan
-                        if (!symlinkSet.add(entry.getCanonicalPath())) {
-                            continue;
-                        }
-                    }
-                    foldersToScan.add(entry.getAbsolutePath());
-                    continue;
-                }
-                // File can be candidate only if it in the correct depth or if the spec is recursive (depth == -1)
-                if (depth == -1 || StringUtils.countMatches(entry.getPath(), File.separator) == depth) {
-                    // Send this path for further process
-                    processDeployCandidate(entry, deploymentSet, executor);
-                }
-            }
+    /**
+     * Returns true if the directory may contain files matching the spec.
+     * A directory of a not recursive wildcard pattern must match the pattern's level of the directory.
+     *
+     * @param dir   directory to check
+     * @param depth depth of the directory in the base directory
+     */
+    private boolean isDirectoryMatchPattern(Path dir, int depth) {
+        if (directoryPatterns == null || depth >= directoryPatterns.size()) {
+            return true;
         }
+        return directoryPatterns.get(depth).matcher(dir.getFileName().toString()).matches();
     }
 
     /**
@@ -201,7 +175,7 @@ public class SingleSpecDeploymentProducer {
      * @param deploymentSet Set containing the DeployDetails to deploy
      */
     private void processDeployCandidate(File file, Set<DeployDetails> deploymentSet, ProducerConsumerExecutor executor)
-            throws IOException, NoSuchAlgorithmException, InterruptedException {
+            throws InterruptedException {
         String filePath = file.getAbsolutePath().replace("\\", "/");
 
         // Check if matches pattern
@@ -213,12 +187,39 @@ public class SingleSpecDeploymentProducer {
         String uploadPath = UploadSpecHelper.getUploadPath(file, pathPattern, targetPath, isFlat, isAbsolutePath, workspace, isTargetDirectory);
 
         // Create DeployDetails
-        DeployDetails deployDetails = UploadSpecHelper.buildDeployDetails(uploadPath, file, spec.getTarget(),
+        DeployDetails deployDetails = UploadSpecHelper.buildDeployDetailsWithoutChecksums(uploadPath, file, spec.getTarget(),
                 spec.getExplode(), spec.getProps(), buildProperties);
 
         // Add the created DeploymentDetails if artifact hasn't been added for deployment yet
         if (deploymentSet.add(deployDetails)) {
             validateUploadLimit(deploymentSet.size());
+            if (preflight == null) {
+                executor.put(deployDetails);
+                return;
+            }
+            List<DeployDetails> batch = null;
+            synchronized (preflightBatch) {
+                preflightBatch.add(deployDetails);
+                if (preflightBatch.size() >= preflight.getBatchSize()) {
+                    batch = new ArrayList<>(preflightBatch);
+                    preflightBatch.clear();
+                }
+            }
+            if (batch != null) {
+                putChecked(batch, executor);
+            }
+        }
+    }
+
+    /**
+     * Searches Artifactory for the target paths of a batch of artifacts, and sends them to the consumers.
+     * The consumers skip the artifacts which already exist, once their checksums are calculated.
+     *
+     * @param batch the artifacts to check
+     */
+    private void putChecked(List<DeployDetails> batch, ProducerConsumerExecutor executor) throws InterruptedException {
+        preflight.check(batch);
+        for (DeployDetails deployDetails : batch) {
             executor.put(deployDetails);
         }
     }
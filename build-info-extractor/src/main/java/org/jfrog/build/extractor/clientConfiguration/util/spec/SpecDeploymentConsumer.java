@@ -4,10 +4,14 @@ import org.jfrog.build.api.producerConsumer.ProducerConsumerItem;
 import org.jfrog.build.api.util.Log;
 import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
 import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
+import org.jfrog.build.extractor.clientConfiguration.deploy.DeploymentJournal;
+import org.jfrog.build.extractor.clientConfiguration.deploy.UploadPreflight;
+import org.jfrog.build.extractor.clientConfiguration.deploy.UploadScheduler;
 import org.jfrog.build.extractor.producerConsumer.ConsumerRunnableBase;
 import org.jfrog.build.extractor.producerConsumer.ProducerConsumerExecutor;
 
 import java.io.IOException;
+import java.security.NoSuchAlgorithmException;
 
 /**
  * Consumer object to use with the ProducerConsumerExecutor during artifact deployment by FileSpec operation.
@@ -19,9 +23,26 @@ public class SpecDeploymentConsumer extends ConsumerRunnableBase {
     private ProducerConsumerExecutor executor;
     private Log log;
     private final ArtifactoryManager ArtifactoryManager;
+    private final UploadPreflight preflight;
+    private final DeploymentJournal journal;
 
     public SpecDeploymentConsumer(ArtifactoryManager ArtifactoryManager) {
+        this(ArtifactoryManager, null);
+    }
+
+    public SpecDeploymentConsumer(ArtifactoryManager ArtifactoryManager, UploadPreflight preflight) {
+        this(ArtifactoryManager, preflight, null);
+    }
+
+    /**
+     * @param ArtifactoryManager the Artifactory manager to upload with
+     * @param preflight          the pre-flight check of the deployment, or null to upload all the artifacts
+     * @param journal            the journal of the deployment, or null if it's disabled
+     */
+    public SpecDeploymentConsumer(ArtifactoryManager ArtifactoryManager, UploadPreflight preflight, DeploymentJournal journal) {
         this.ArtifactoryManager = ArtifactoryManager;
+        this.preflight = preflight;
+        this.journal = journal;
     }
 
     @Override
@@ -31,15 +52,26 @@ public class SpecDeploymentConsumer extends ConsumerRunnableBase {
                 ProducerConsumerItem item = executor.take();
 
                 if (item == executor.TERMINATE) {
-                    // If reached the TERMINATE DeployDetails, return it to the queue and exit
-                    executor.put(item);
+                    // All the items were consumed
                     break;
                 }
-                // Perform artifact deploy
-                ArtifactoryManager.upload((DeployDetails) item, "[" + Thread.currentThread().getName() + "]");
+                DeployDetails deployDetails = (DeployDetails) item;
+                // The checksums are calculated by the consumers, so the producer only scans the file-system
+                UploadSpecHelper.calculateChecksums(deployDetails);
+                if (journal != null && journal.skipIfDeployed(deployDetails, ArtifactoryManager)) {
+                    continue;
+                }
+                String logPrefix = "[" + Thread.currentThread().getName() + "]";
+                if (preflight == null || !preflight.skipIfDeployed(deployDetails, logPrefix)) {
+                    // Perform artifact deploy
+                    UploadScheduler.getInstance().upload(ArtifactoryManager, deployDetails, logPrefix);
+                }
+                if (journal != null) {
+                    journal.record(deployDetails, deployDetails.getArtifactPath());
+                }
             } catch (InterruptedException e) {
                 return;
-            } catch (IOException e) {
+            } catch (IOException | NoSuchAlgorithmException e) {
                 // Throw unchecked exception for the UncaughtExceptionHandler
                 throw new RuntimeException(e);
             }
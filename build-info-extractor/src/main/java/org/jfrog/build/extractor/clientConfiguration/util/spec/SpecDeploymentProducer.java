@@ -2,13 +2,14 @@ package org.jfrog.build.extractor.clientConfiguration.util.spec;
 
 import org.jfrog.build.api.multiMap.Multimap;
 import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
+import org.jfrog.build.extractor.clientConfiguration.deploy.UploadPreflight;
 import org.jfrog.build.extractor.producerConsumer.ProducerRunnableBase;
 import org.jfrog.filespecs.FileSpec;
 import org.jfrog.filespecs.entities.FilesGroup;
 
 import java.io.File;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Producer object to use with the ProducerConsumerExecutor during artifact deployment by filespec operation.
@@ -19,16 +20,18 @@ public class SpecDeploymentProducer extends ProducerRunnableBase {
     /**
      * Set containing all created DeployDetails, used to later create deployed Artifact objects
      */
-    private Set<DeployDetails> deployDetailsSet = new HashSet<>();
+    private Set<DeployDetails> deployDetailsSet = ConcurrentHashMap.newKeySet();
 
     private FileSpec spec;
     private File workspace;
     private Multimap<String, String> buildProperties;
+    private UploadPreflight preflight;
 
-    SpecDeploymentProducer(FileSpec spec, File workspace, Multimap<String, String> buildProperties) {
+    SpecDeploymentProducer(FileSpec spec, File workspace, Multimap<String, String> buildProperties, UploadPreflight preflight) {
         this.spec = spec;
         this.workspace = workspace;
         this.buildProperties = buildProperties;
+        this.preflight = preflight;
     }
 
     @Override
@@ -44,7 +47,7 @@ public class SpecDeploymentProducer extends ProducerRunnableBase {
                 log.debug(String.format("[Thread %s] getting deploy details from the following json: \n %s ", Thread.currentThread().getName(), uploadFile.toString()));
 
                 // Execute FileSpec
-                SingleSpecDeploymentProducer fileSpecProducer = new SingleSpecDeploymentProducer(uploadFile, workspace, buildProperties);
+                SingleSpecDeploymentProducer fileSpecProducer = new SingleSpecDeploymentProducer(uploadFile, workspace, buildProperties, preflight);
                 fileSpecProducer.executeSpec(deployDetailsSet, executor);
             }
         } catch (InterruptedException e) {
@@ -12,6 +12,8 @@ import org.jfrog.build.extractor.ci.Dependency;
 import org.jfrog.build.extractor.clientConfiguration.ArtifactoryManagerBuilder;
 import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
 import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
+import org.jfrog.build.extractor.clientConfiguration.deploy.DeploymentJournal;
+import org.jfrog.build.extractor.clientConfiguration.deploy.UploadPreflight;
 import org.jfrog.build.extractor.clientConfiguration.util.DependenciesDownloaderHelper;
 import org.jfrog.build.extractor.clientConfiguration.util.EditPropertiesHelper;
 import org.jfrog.build.extractor.producerConsumer.ConsumerRunnableBase;
@@ -84,13 +86,16 @@ public class SpecsHelper {
         FileSpec fileSpec = FileSpec.fromString(uploadSpec);
         FileSpecsValidation.validateUploadFileSpec(fileSpec, this.log);
 
-        try (ArtifactoryManager artifactoryManager = artifactoryManagerBuilder.build()) {
+        try (ArtifactoryManager artifactoryManager = artifactoryManagerBuilder.build();
+             DeploymentJournal journal = DeploymentJournal.fromSystemProperties(log)) {
             // Create producer Runnable
-            ProducerRunnableBase[] producerRunnable = new ProducerRunnableBase[]{new SpecDeploymentProducer(fileSpec, workspace, buildProperties)};
+            // Skip the upload of artifacts which already exist in Artifactory, if enabled
+            UploadPreflight preflight = UploadPreflight.fromSystemProperties(artifactoryManager);
+            ProducerRunnableBase[] producerRunnable = new ProducerRunnableBase[]{new SpecDeploymentProducer(fileSpec, workspace, buildProperties, preflight)};
             // Create consumer Runnables
             ConsumerRunnableBase[] consumerRunnables = new ConsumerRunnableBase[numberOfThreads];
             for (int i = 0; i < numberOfThreads; i++) {
-                consumerRunnables[i] = new SpecDeploymentConsumer(artifactoryManager);
+                consumerRunnables[i] = new SpecDeploymentConsumer(artifactoryManager, preflight, journal);
             }
             // Create the deployment executor
             ProducerConsumerExecutor deploymentExecutor = new ProducerConsumerExecutor(log, producerRunnable, consumerRunnables, CONNECTION_POOL_SIZE);
@@ -40,22 +40,32 @@ public class UploadSpecHelper {
                                                    String uploadTarget, String explode, String props,
                                                    Multimap<String, String> buildProperties)
             throws IOException, NoSuchAlgorithmException {
+        DeployDetails deployDetails = buildDeployDetailsWithoutChecksums(targetPath, artifactFile, uploadTarget, explode, props, buildProperties);
+        calculateChecksums(deployDetails);
+        return deployDetails;
+    }
+
+    /**
+     * Create a DeployDetails from the given properties, without reading the artifact.
+     * The checksums should be calculated later using {@link #calculateChecksums(DeployDetails)}.
+     *
+     * @param targetPath      target of the created artifact in Artifactory
+     * @param artifactFile    the artifact to deploy
+     * @param uploadTarget    target repository in Artifactory
+     * @param explode         explode archive
+     * @param props           properties to attach to the deployed file
+     * @param buildProperties a map of properties to add to the DeployDetails objects
+     */
+    public static DeployDetails buildDeployDetailsWithoutChecksums(String targetPath, File artifactFile,
+                                                                   String uploadTarget, String explode, String props,
+                                                                   Multimap<String, String> buildProperties) {
         String path = UploadSpecHelper.wildcardCalculateTargetPath(targetPath, artifactFile);
         path = StringUtils.replace(path, "//", "/");
 
-        // calculate the sha1 checksum and add it to the deploy artifactsToDeploy
-        Map<String, String> checksums;
-        try {
-            checksums = FileChecksumCalculator.calculateChecksums(artifactFile, MD5_ALGORITHM, SHA1_ALGORITHM, SHA256_ALGORITHM);
-        } catch (NoSuchAlgorithmException e) {
-            throw new NoSuchAlgorithmException(
-                    String.format("Could not find checksum algorithm for %s or %s or %s.", MD5_ALGORITHM, SHA1_ALGORITHM, SHA256_ALGORITHM), e);
-        }
         DeployDetails.Builder builder = new DeployDetails.Builder()
                 .file(artifactFile)
                 .artifactPath(path)
                 .targetRepository(getRepositoryKey(uploadTarget))
-                .md5(checksums.get(MD5_ALGORITHM)).sha1(checksums.get(SHA1_ALGORITHM)).sha256(checksums.get(SHA256_ALGORITHM))
                 .explode(BooleanUtils.toBoolean(explode))
                 .addProperties(SpecsHelper.getPropertiesMap(props))
                 .packageType(DeployDetails.PackageType.GENERIC);
@@ -66,6 +76,27 @@ public class UploadSpecHelper {
         return builder.build();
     }
 
+    /**
+     * Calculates the md5, sha1 and sha256 checksums of the artifact, unless they were already calculated.
+     *
+     * @param deployDetails the artifact's DeployDetails
+     */
+    public static void calculateChecksums(DeployDetails deployDetails) throws IOException, NoSuchAlgorithmException {
+        if (deployDetails.getMd5() != null && deployDetails.getSha1() != null && deployDetails.getSha256() != null) {
+            return;
+        }
+        Map<String, String> checksums;
+        try {
+            checksums = FileChecksumCalculator.calculateChecksums(deployDetails.getFile(), MD5_ALGORITHM, SHA1_ALGORITHM, SHA256_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new NoSuchAlgorithmException(
+                    String.format("Could not find checksum algorithm for %s or %s or %s.", MD5_ALGORITHM, SHA1_ALGORITHM, SHA256_ALGORITHM), e);
+        }
+        deployDetails.setMd5(checksums.get(MD5_ALGORITHM));
+        deployDetails.setSha1(checksums.get(SHA1_ALGORITHM));
+        deployDetails.setSha256(checksums.get(SHA256_ALGORITHM));
+    }
+
     /**
      * Calculates the target deployment path of an artifact by it's name
      *
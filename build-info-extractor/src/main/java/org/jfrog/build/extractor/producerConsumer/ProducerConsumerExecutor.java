@@ -5,24 +5,37 @@ import org.jfrog.build.api.util.Log;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Producer-Consumer class for multi-threaded operation.
  * Provided ProducerRunnableBase and ConsumerRunnableBase objects, this class runs and manages the operation using a BlockingQueue as the bounded-buffer.
+ * <p>
+ * When all the producers finish, every consumer receives the TERMINATE item from {@link #take()} once the queue is
+ * drained. Consumers don't need to return the TERMINATE item to the queue.
+ * The threads are created by a pluggable ThreadFactory. By default, platform threads are used. Virtual threads are used
+ * instead if the {@value #PROP_VIRTUAL_THREADS} system property is set to true, and the JVM supports them.
  *
  * Created by Bar Belity on 27/03/2018.
  */
 public class ProducerConsumerExecutor {
+    public static final String PROP_VIRTUAL_THREADS = "buildInfo.producerConsumer.virtualThreads";
 
     /**
      * BlockingQueue of jobs which are inserted by the producers and removed by the consumers
      */
     private BlockingQueue<ProducerConsumerItem> queue;
     private final Log log;
+    private final ThreadFactory threadFactory;
     private ProducerRunnableBase[] producerRunnables;
     private ConsumerRunnableBase[] consumerRunnables;
     public ProducerConsumerItem TERMINATE = new ProducerConsumerTerminateItem();
@@ -32,10 +45,34 @@ public class ProducerConsumerExecutor {
     private int producersNumber;
     private int consumersNumber;
     private AtomicBoolean errorOccurred = new AtomicBoolean(false);
+    private AtomicBoolean cancelled = new AtomicBoolean(false);
     private AtomicInteger producersFinished = new AtomicInteger(0);
+    // Set when the TERMINATE item is reached, so the following takes return immediately
+    private volatile boolean terminated;
+
+    // Metrics
+    private final LongAdder itemsProduced = new LongAdder();
+    private final LongAdder itemsConsumed = new LongAdder();
+    private final LongAdder producersWaitNanos = new LongAdder();
+    private final LongAdder consumersWaitNanos = new LongAdder();
+    private volatile long startNanos;
+    private volatile long endNanos;
 
     public ProducerConsumerExecutor(Log log, ProducerRunnableBase[] producerRunnables, ConsumerRunnableBase[] consumerRunnables, int queueSize) {
+        this(log, producerRunnables, consumerRunnables, queueSize, createDefaultThreadFactory());
+    }
+
+    /**
+     * @param log               - The logger
+     * @param producerRunnables - The producers
+     * @param consumerRunnables - The consumers
+     * @param queueSize         - The capacity of the queue between the producers and the consumers
+     * @param threadFactory     - Creates the producer and consumer threads
+     */
+    public ProducerConsumerExecutor(Log log, ProducerRunnableBase[] producerRunnables, ConsumerRunnableBase[] consumerRunnables, int queueSize,
+                                    ThreadFactory threadFactory) {
         this.log = log;
+        this.threadFactory = threadFactory;
         this.producerRunnables = producerRunnables;
         this.consumerRunnables = consumerRunnables;
         this.queue = new ArrayBlockingQueue<>(queueSize);
@@ -45,21 +82,50 @@ public class ProducerConsumerExecutor {
         this.consumerThreads = new Thread[consumersNumber];
     }
 
+    /**
+     * Returns a ThreadFactory of virtual threads if enabled by the {@value #PROP_VIRTUAL_THREADS} system property and
+     * supported by the JVM. Otherwise, returns a ThreadFactory of platform threads.
+     */
+    public static ThreadFactory createDefaultThreadFactory() {
+        if (Boolean.parseBoolean(System.getProperty(PROP_VIRTUAL_THREADS))) {
+            ThreadFactory virtualThreadFactory = createVirtualThreadFactory();
+            if (virtualThreadFactory != null) {
+                return virtualThreadFactory;
+            }
+        }
+        return Thread::new;
+    }
+
+    /**
+     * Returns a ThreadFactory of virtual threads, or null if the JVM doesn't support them.
+     * Virtual threads are created by reflection, since this library is compiled for Java 8.
+     */
+    static ThreadFactory createVirtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
     public void start() throws Exception {
+        if (cancelled.get()) {
+            throw new CancellationException("The operation was cancelled.");
+        }
         Thread.UncaughtExceptionHandler exceptionHandler = new ProducerConsumerExceptionHandler();
         // Create producer threads
         for (int i = 0; i < producersNumber; i++) {
-            producerThreads[i] = new Thread(producerRunnables[i]);
-            initializeThread(producerThreads[i], producerRunnables[i], "producer_" + i, exceptionHandler);
+            producerThreads[i] = createThread(producerRunnables[i], "producer_" + i, exceptionHandler);
         }
 
         // Create consumer threads
         for (int i = 0; i < consumersNumber; i++) {
-            consumerThreads[i] = new Thread(consumerRunnables[i]);
-            initializeThread(consumerThreads[i], consumerRunnables[i], "consumer_" + i, exceptionHandler);
+            consumerThreads[i] = createThread(consumerRunnables[i], "consumer_" + i, exceptionHandler);
         }
 
         // Start consumers and producers
+        startNanos = System.nanoTime();
         for (Thread consumer : consumerThreads) {
             consumer.start();
         }
@@ -79,6 +145,12 @@ public class ProducerConsumerExecutor {
             Thread.currentThread().interrupt();
             stopWithException();
             throw e;
+        } finally {
+            endNanos = System.nanoTime();
+        }
+        log.debug("Producer-consumer operation finished: " + getMetrics());
+        if (cancelled.get()) {
+            throw new CancellationException("The operation was cancelled.");
         }
         // Check if error occurred during deployment
         if (errorOccurred.get()) {
@@ -86,11 +158,13 @@ public class ProducerConsumerExecutor {
         }
     }
 
-    private void initializeThread(Thread thread, ProducerConsumerRunnableInt runnable, String name, Thread.UncaughtExceptionHandler exceptionHandler) {
+    private Thread createThread(ProducerConsumerRunnableInt runnable, String name, Thread.UncaughtExceptionHandler exceptionHandler) {
         runnable.setExecutor(this);
         runnable.setLog(log);
+        Thread thread = threadFactory.newThread(runnable);
         thread.setName(name);
         thread.setUncaughtExceptionHandler(exceptionHandler);
+        return thread;
     }
 
     /**
@@ -103,25 +177,129 @@ public class ProducerConsumerExecutor {
         }
     }
 
+    /**
+     * Cancels the operation. The producers are stopped immediately and the queued items are discarded.
+     * The consumers may finish processing their current items during the grace period, and are interrupted after it.
+     * Once all the threads finish, {@link #start()} throws a CancellationException.
+     *
+     * @param gracePeriod - The maximum time to wait for the consumers to finish
+     * @param unit        - The time unit of the grace period
+     * @throws InterruptedException if interrupted while waiting for the consumers
+     */
+    public void cancel(long gracePeriod, TimeUnit unit) throws InterruptedException {
+        if (!cancelled.compareAndSet(false, true)) {
+            return;
+        }
+        for (Thread producer : producerThreads) {
+            if (producer != null) {
+                producer.interrupt();
+            }
+        }
+        terminated = true;
+        queue.clear();
+        // Release the consumers waiting for items
+        queue.offer(TERMINATE);
+        long deadline = System.nanoTime() + unit.toNanos(gracePeriod);
+        for (Thread consumer : consumerThreads) {
+            long remaining = deadline - System.nanoTime();
+            if (consumer != null && remaining > 0) {
+                TimeUnit.NANOSECONDS.timedJoin(consumer, remaining);
+            }
+        }
+        stopWithException();
+    }
+
     /**
      * This method will run when an error occurred during execution
      */
     private void stopWithException() {
         // Interrupt all threads
         for (Thread thread : producerThreads) {
-            thread.interrupt();
+            if (thread != null) {
+                thread.interrupt();
+            }
         }
         for (Thread thread : consumerThreads) {
-            thread.interrupt();
+            if (thread != null) {
+                thread.interrupt();
+            }
         }
     }
 
     public void put(ProducerConsumerItem produced) throws InterruptedException {
+        if (produced == TERMINATE) {
+            // The TERMINATE item is kept in the queue by the executor
+            return;
+        }
+        if (cancelled.get()) {
+            throw new InterruptedException("The operation was cancelled.");
+        }
+        long start = System.nanoTime();
         queue.put(produced);
+        producersWaitNanos.add(System.nanoTime() - start);
+        itemsProduced.increment();
     }
 
+    /**
+     * Takes the next item, waiting if necessary.
+     *
+     * @return the next item, or the TERMINATE item if all the items were taken and the producers finished
+     * @throws InterruptedException if interrupted while waiting
+     */
     public ProducerConsumerItem take() throws InterruptedException {
-        return queue.take();
+        if (terminated) {
+            return TERMINATE;
+        }
+        long start = System.nanoTime();
+        ProducerConsumerItem item = queue.take();
+        consumersWaitNanos.add(System.nanoTime() - start);
+        if (item == TERMINATE) {
+            terminate();
+        } else {
+            itemsConsumed.increment();
+        }
+        return item;
+    }
+
+    /**
+     * Takes up to maxItems available items, waiting if necessary for the first one.
+     *
+     * @param maxItems - The maximum number of items to take
+     * @return the taken items, or an empty list if all the items were taken and the producers finished
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public List<ProducerConsumerItem> takeBatch(int maxItems) throws InterruptedException {
+        List<ProducerConsumerItem> batch = new ArrayList<>();
+        ProducerConsumerItem first = take();
+        if (first == TERMINATE) {
+            return batch;
+        }
+        batch.add(first);
+        queue.drainTo(batch, maxItems - 1);
+        // The TERMINATE item is always the last item in the queue
+        if (batch.get(batch.size() - 1) == TERMINATE) {
+            batch.remove(batch.size() - 1);
+            terminate();
+        }
+        itemsConsumed.add(batch.size() - 1);
+        return batch;
+    }
+
+    private void terminate() throws InterruptedException {
+        terminated = true;
+        // Return the TERMINATE item to the queue, to release the other waiting consumers
+        queue.put(TERMINATE);
+    }
+
+    /**
+     * Returns a snapshot of the metrics of the operation.
+     */
+    public Metrics getMetrics() {
+        long start = startNanos;
+        long end = endNanos != 0 ? endNanos : System.nanoTime();
+        return new Metrics(queue.contains(TERMINATE) ? queue.size() - 1 : queue.size(), itemsProduced.sum(), itemsConsumed.sum(),
+                TimeUnit.NANOSECONDS.toMillis(producersWaitNanos.sum()), TimeUnit.NANOSECONDS.toMillis(consumersWaitNanos.sum()),
+                start == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(end - start));
     }
 
     private class ProducerConsumerExceptionHandler implements Thread.UncaughtExceptionHandler {
@@ -143,4 +321,73 @@ public class ProducerConsumerExecutor {
      * ProducerConsumerExecutor inner class, used to indicate termination of the ProducerConsumer operation.
      */
     private class ProducerConsumerTerminateItem implements ProducerConsumerItem {}
+
+    /**
+     * Metrics of a producer-consumer operation.
+     */
+    public static class Metrics {
+        private final int queueDepth;
+        private final long itemsProduced;
+        private final long itemsConsumed;
+        private final long producersWaitMillis;
+        private final long consumersWaitMillis;
+        private final long elapsedMillis;
+
+        private Metrics(int queueDepth, long itemsProduced, long itemsConsumed, long producersWaitMillis,
+                        long consumersWaitMillis, long elapsedMillis) {
+            this.queueDepth = queueDepth;
+            this.itemsProduced = itemsProduced;
+            this.itemsConsumed = itemsConsumed;
+            this.producersWaitMillis = producersWaitMillis;
+            this.consumersWaitMillis = consumersWaitMillis;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        /**
+         * Returns the number of items waiting in the queue.
+         */
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        public long getItemsProduced() {
+            return itemsProduced;
+        }
+
+        public long getItemsConsumed() {
+            return itemsConsumed;
+        }
+
+        /**
+         * Returns the total time the producers waited for room in the queue.
+         */
+        public long getProducersWaitMillis() {
+            return producersWaitMillis;
+        }
+
+        /**
+         * Returns the total time the consumers waited for items.
+         */
+        public long getConsumersWaitMillis() {
+            return consumersWaitMillis;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        /**
+         * Returns the number of items consumed per second.
+         */
+        public double getThroughput() {
+            return elapsedMillis == 0 ? 0 : itemsConsumed * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d items produced, %d items consumed in %d ms (%.1f items/s), queue depth %d, " +
+                            "producers waited %d ms, consumers waited %d ms", itemsProduced, itemsConsumed, elapsedMillis,
+                    getThroughput(), queueDepth, producersWaitMillis, consumersWaitMillis);
+        }
+    }
 }
@@ -0,0 +1,156 @@
+package org.jfrog.build.extractor;
+
+import org.apache.commons.io.FileUtils;
+import org.jfrog.build.api.util.NullLog;
+import org.jfrog.build.extractor.builder.ArtifactBuilder;
+import org.jfrog.build.extractor.builder.BuildInfoBuilder;
+import org.jfrog.build.extractor.builder.DependencyBuilder;
+import org.jfrog.build.extractor.builder.ModuleBuilder;
+import org.jfrog.build.extractor.ci.BuildInfo;
+import org.jfrog.build.extractor.ci.Module;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.testng.Assert.*;
+
+@Test
+public class BuildInfoAggregatorTest {
+    private File dir;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("build-info-aggregator-test").toFile();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @DataProvider
+    private Object[][] aggregatorProvider() {
+        return new Object[][]{
+                // Everything is merged in memory
+                {new BuildInfoAggregator(4, 1000000, new NullLog())},
+                // The merged modules are spilled to disk after every few entries
+                {new BuildInfoAggregator(4, 3, new NullLog())},
+                {new BuildInfoAggregator(1, 1, new NullLog())}
+        };
+    }
+
+    @Test(dataProvider = "aggregatorProvider")
+    public void testAggregate(BuildInfoAggregator aggregator) throws IOException {
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            File file = new File(dir, "build-info-" + i + ".json");
+            BuildInfoExtractorUtils.saveBuildInfoToFile(createShard(i, "a", "b", "module-" + i), file);
+            files.add(file);
+        }
+        File moduleFile = new File(dir, "module.json");
+        ModuleExtractorUtils.saveModuleToFile(createModule("b", 100), moduleFile);
+        files.add(moduleFile);
+
+        File outputFile = new File(dir, "aggregated.json");
+        aggregator.aggregate(null, files, outputFile);
+        BuildInfo buildInfo = BuildInfoExtractorUtils.jsonStringToBuildInfo(new String(Files.readAllBytes(outputFile.toPath()), "UTF-8"));
+
+        assertEquals(buildInfo.getName(), "build");
+        assertEquals(buildInfo.getNumber(), "1");
+        assertEquals(buildInfo.getProperties().size(), 6);
+        assertEquals(buildInfo.getModules().stream().map(Module::getId).collect(Collectors.toList()),
+                Arrays.asList("a", "b", "module-0", "module-1", "module-2", "module-3", "module-4", "module-5"));
+        assertEquals(buildInfo.getModule("a").getArtifacts().size(), 6);
+        assertEquals(buildInfo.getModule("b").getArtifacts().size(), 7);
+        assertEquals(buildInfo.getModule("module-3").getArtifacts().size(), 1);
+        // The shared dependency is kept once, with the requested-by paths of all the shards
+        assertEquals(buildInfo.getModule("a").getDependencies().size(), 1);
+        assertEquals(buildInfo.getModule("a").getDependencies().get(0).getRequestedBy().length, 6);
+    }
+
+    @Test(dataProvider = "aggregatorProvider")
+    public void testAggregateWithBase(BuildInfoAggregator aggregator) throws IOException {
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            File file = new File(dir, "build-info-" + i + ".json");
+            BuildInfoExtractorUtils.saveBuildInfoToFile(createShard(i, "a", "module-" + i), file);
+            files.add(file);
+        }
+        BuildInfo base = createShard(100);
+        base.setModules(new ArrayList<>(Arrays.asList(createModule("base", 100), createModule("a", 100))));
+
+        File outputFile = new File(dir, "aggregated.json");
+        aggregator.aggregate(base, files, outputFile);
+        BuildInfo buildInfo = BuildInfoExtractorUtils.jsonStringToBuildInfo(new String(Files.readAllBytes(outputFile.toPath()), "UTF-8"));
+
+        assertEquals(buildInfo.getProperties().size(), 4);
+        // The modules of the base build-info come first
+        assertEquals(buildInfo.getModules().stream().map(Module::getId).collect(Collectors.toList()),
+                Arrays.asList("base", "a", "module-0", "module-1", "module-2"));
+        assertEquals(buildInfo.getModule("base").getArtifacts().size(), 1);
+        assertEquals(buildInfo.getModule("a").getArtifacts().size(), 4);
+        assertEquals(buildInfo.getModule("a").getDependencies().get(0).getRequestedBy().length, 4);
+    }
+
+    @Test(dataProvider = "aggregatorProvider")
+    public void testModulesAreMergedInFilesOrder(BuildInfoAggregator aggregator) throws IOException {
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Module module = createModule("a", i);
+            module.setSha1("module-sha1-" + i);
+            if (i == 0) {
+                // The first file is the largest, so it's usually parsed last
+                for (int j = 0; j < 20000; j++) {
+                    module.getArtifacts().add(new ArtifactBuilder("artifact-" + j + ".jar").sha1("sha1-" + j).build());
+                }
+            }
+            File file = new File(dir, "build-info-" + i + ".json");
+            BuildInfo shard = createShard(i);
+            shard.setModules(new ArrayList<>(Arrays.asList(module)));
+            BuildInfoExtractorUtils.saveBuildInfoToFile(shard, file);
+            files.add(file);
+        }
+
+        File outputFile = new File(dir, "aggregated.json");
+        aggregator.aggregate(null, files, outputFile);
+        BuildInfo buildInfo = BuildInfoExtractorUtils.jsonStringToBuildInfo(new String(Files.readAllBytes(outputFile.toPath()), "UTF-8"));
+
+        Module module = buildInfo.getModule("a");
+        assertEquals(module.getSha1(), "module-sha1-0");
+        assertEquals(Arrays.stream(module.getDependencies().get(0).getRequestedBy()).map(requestedBy -> requestedBy[1])
+                .collect(Collectors.toList()), Arrays.asList("0", "1", "2", "3", "4", "5", "6", "7"));
+    }
+
+    public void testInvalidFile() throws IOException {
+        File file = new File(dir, "invalid.json");
+        FileUtils.writeStringToFile(file, "[]", "UTF-8");
+        BuildInfoAggregator aggregator = new BuildInfoAggregator(2, 100, new NullLog());
+        expectThrows(IOException.class, () -> aggregator.aggregate(null, Arrays.asList(file), new File(dir, "out.json")));
+    }
+
+    private static BuildInfo createShard(int shard, String... moduleIds) {
+        BuildInfoBuilder builder = new BuildInfoBuilder("build").number("1").started("2023-01-01T00:00:00.000+0000")
+                .addProperty("shard-" + shard, "true");
+        for (String moduleId : moduleIds) {
+            builder.addModule(createModule(moduleId, shard));
+        }
+        return builder.build();
+    }
+
+    private static Module createModule(String moduleId, int shard) {
+        return new ModuleBuilder().id(moduleId)
+                .addArtifact(new ArtifactBuilder(moduleId + "-" + shard + ".jar").sha1(moduleId + shard).build())
+                .addDependency(new DependencyBuilder().id("dependency").sha1("dependency-sha1")
+                        .requestedBy(new String[][]{{moduleId, String.valueOf(shard)}}).build())
+                .build();
+    }
+}
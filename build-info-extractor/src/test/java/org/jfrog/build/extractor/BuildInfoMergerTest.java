@@ -0,0 +1,79 @@
+package org.jfrog.build.extractor;
+
+import org.apache.commons.io.FileUtils;
+import org.jfrog.build.extractor.builder.ArtifactBuilder;
+import org.jfrog.build.extractor.builder.BuildInfoBuilder;
+import org.jfrog.build.extractor.builder.DependencyBuilder;
+import org.jfrog.build.extractor.builder.ModuleBuilder;
+import org.jfrog.build.extractor.ci.BuildInfo;
+import org.jfrog.build.extractor.ci.Dependency;
+import org.jfrog.build.extractor.ci.Module;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.stream.Collectors;
+
+import static org.testng.Assert.*;
+
+@Test
+public class BuildInfoMergerTest {
+
+    public void testMergeModules() {
+        BuildInfoMerger merger = new BuildInfoMerger(createShard("shard-1", "a", "b"));
+        merger.merge(createShard("shard-2", "b", "c"));
+        merger.merge(createShard("shard-1", "a"));
+        BuildInfo buildInfo = merger.getBuildInfo();
+
+        assertEquals(buildInfo.getModules().stream().map(Module::getId).collect(Collectors.toList()), Arrays.asList("a", "b", "c"));
+        // The artifacts of the same shard are kept once
+        assertEquals(buildInfo.getModule("a").getArtifacts().size(), 1);
+        assertEquals(buildInfo.getModule("b").getArtifacts().size(), 2);
+        assertEquals(buildInfo.getProperties().getProperty("shard-2"), "true");
+
+        // The dependency is kept once with the scopes and requested-by paths of all the shards
+        Dependency dependency = buildInfo.getModule("b").getDependencies().get(0);
+        assertEquals(buildInfo.getModule("b").getDependencies().size(), 1);
+        assertEquals(dependency.getScopes(), new HashSet<>(Arrays.asList("compile", "shard-1", "shard-2")));
+        assertEquals(dependency.getRequestedBy().length, 2);
+        assertSame(merger.getModule("b"), buildInfo.getModule("b"));
+        assertNull(merger.getModule("d"));
+    }
+
+    public void testMergeFiles() throws IOException {
+        File dir = Files.createTempDirectory("build-info-merger").toFile();
+        try {
+            BuildInfoMerger merger = new BuildInfoMerger();
+            assertNull(merger.getBuildInfo());
+            for (int i = 0; i < 10; i++) {
+                File file = new File(dir, "build-info-" + i + ".json");
+                BuildInfoExtractorUtils.saveBuildInfoToFile(createShard("shard-" + i, "module-" + (i % 3)), file);
+                merger.merge(file);
+            }
+            BuildInfo buildInfo = merger.getBuildInfo();
+            assertEquals(buildInfo.getName(), "build");
+            assertEquals(buildInfo.getModules().size(), 3);
+            assertEquals(buildInfo.getModule("module-0").getArtifacts().size(), 4);
+            assertEquals(buildInfo.getModule("module-0").getDependencies().get(0).getRequestedBy().length, 4);
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    private static BuildInfo createShard(String shard, String... moduleIds) {
+        BuildInfoBuilder builder = new BuildInfoBuilder("build").number("1").started("2023-01-01T00:00:00.000+0000")
+                .addProperty(shard, "true");
+        for (String moduleId : moduleIds) {
+            builder.addModule(new ModuleBuilder().id(moduleId)
+                    .addArtifact(new ArtifactBuilder(moduleId + "-" + shard + ".jar").sha1(moduleId + shard).build())
+                    .addDependency(new DependencyBuilder().id("dependency").sha1("dependency-sha1")
+                            .scopes(new HashSet<>(Arrays.asList("compile", shard)))
+                            .requestedBy(new String[][]{{moduleId, shard}}).build())
+                    .build());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,171 @@
+package org.jfrog.build.extractor;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.jfrog.build.api.builder.ModuleType;
+import org.jfrog.build.api.dependency.BuildDependency;
+import org.jfrog.build.api.release.PromotionStatus;
+import org.jfrog.build.extractor.builder.ArtifactBuilder;
+import org.jfrog.build.extractor.builder.BuildInfoBuilder;
+import org.jfrog.build.extractor.builder.DependencyBuilder;
+import org.jfrog.build.extractor.builder.ModuleBuilder;
+import org.jfrog.build.extractor.ci.Agent;
+import org.jfrog.build.extractor.ci.Artifact;
+import org.jfrog.build.extractor.ci.BuildAgent;
+import org.jfrog.build.extractor.ci.BuildInfo;
+import org.jfrog.build.extractor.ci.BuildRetention;
+import org.jfrog.build.extractor.ci.Dependency;
+import org.jfrog.build.extractor.ci.Issue;
+import org.jfrog.build.extractor.ci.IssueTracker;
+import org.jfrog.build.extractor.ci.Issues;
+import org.jfrog.build.extractor.ci.MatrixParameter;
+import org.jfrog.build.extractor.ci.Module;
+import org.jfrog.build.extractor.ci.Vcs;
+import org.jfrog.build.extractor.clientConfiguration.util.JsonUtils;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.testng.Assert.*;
+
+@Test
+public class JsonMappersTest {
+
+    public void testReadersAreCached() {
+        assertSame(JsonMappers.readerFor(BuildInfo.class), JsonMappers.readerFor(BuildInfo.class));
+        assertSame(JsonMappers.readerFor(new TypeReference<Map<String, List<Module>>>() {
+                }),
+                JsonMappers.readerFor(new TypeReference<Map<String, List<Module>>>() {
+                }));
+        assertNotSame(JsonMappers.readerFor(BuildInfo.class), JsonMappers.readerFor(Module.class));
+    }
+
+    public void testSharedMapperConfiguration() throws IOException {
+        // Unknown properties are ignored and null values are not written
+        Module module = JsonMappers.readerFor(Module.class).readValue("{\"id\":\"module\",\"unknown\":1}");
+        assertEquals(module.getId(), "module");
+        String json = JsonMappers.writer().writeValueAsString(module);
+        assertFalse(json.contains("null"), json);
+        assertTrue(JsonMappers.prettyWriter().writeValueAsString(module).contains("\n"));
+    }
+
+    public void testCreatedJsonFactoryIsNotShared() throws IOException {
+        JsonFactory jsonFactory = JsonUtils.createJsonFactory();
+        assertNotSame(jsonFactory, JsonMappers.getJsonFactory());
+        jsonFactory.disable(JsonFactory.Feature.CANONICALIZE_FIELD_NAMES);
+        assertTrue(JsonMappers.getJsonFactory().isEnabled(JsonFactory.Feature.CANONICALIZE_FIELD_NAMES));
+        try (JsonParser parser = jsonFactory.createParser("{\"id\":\"module\"}")) {
+            assertEquals(parser.readValueAs(Module.class).getId(), "module");
+        }
+    }
+
+    public void testConcurrentRoundTrip() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<BuildInfo>> futures = IntStream.range(0, 100)
+                    .mapToObj(i -> executor.submit(() -> {
+                        BuildInfo buildInfo = createBuildInfo(i);
+                        String json = BuildInfoExtractorUtils.buildInfoToJsonString(buildInfo);
+                        return BuildInfoExtractorUtils.jsonStringToBuildInfo(json);
+                    }))
+                    .collect(Collectors.toList());
+            for (int i = 0; i < futures.size(); i++) {
+                BuildInfo buildInfo = futures.get(i).get();
+                assertEquals(buildInfo.getName(), "build-" + i);
+                assertEquals(buildInfo.getModules().get(0).getId(), "module-" + i);
+            }
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    public void testBuildInfoWriterMatchesBuildFormat() throws IOException {
+        BuildInfo buildInfo = createFullBuildInfo();
+
+        String json = JsonMappers.buildInfoWriter().writeValueAsString(buildInfo);
+        assertFalse(json.contains("localPath"), json);
+        assertFalse(json.contains("buildDependencies"), json);
+        assertFalse(json.contains("parentBuildId"), json);
+        assertEquals(JsonMappers.getMapper().readTree(json),
+                JsonMappers.getMapper().readTree(JsonMappers.writer().writeValueAsString(buildInfo.ToBuild())));
+        // The shared writer is not affected
+        String fullJson = JsonMappers.writer().writeValueAsString(buildInfo);
+        assertTrue(fullJson.contains("localPath"), fullJson);
+        assertTrue(fullJson.contains("buildDependencies"), fullJson);
+        assertTrue(fullJson.contains("parentBuildId"), fullJson);
+
+        // Only the last of modules with the same ID is written, like ToBuild() does
+        Module duplicate = new ModuleBuilder().id("module").type("maven").sha1("duplicate-sha1").build();
+        buildInfo.getModules().add(duplicate);
+        json = JsonMappers.buildInfoWriter().writeValueAsString(buildInfo);
+        assertEquals(JsonMappers.getMapper().readTree(json).get("modules").size(), 1);
+        assertTrue(json.contains("duplicate-sha1"), json);
+        assertEquals(JsonMappers.getMapper().readTree(json),
+                JsonMappers.getMapper().readTree(JsonMappers.writer().writeValueAsString(buildInfo.ToBuild())));
+    }
+
+    /**
+     * Creates a build-info with all its fields set.
+     */
+    private static BuildInfo createFullBuildInfo() {
+        Artifact artifact = new ArtifactBuilder("artifact.jar").type("jar").sha1("sha1").sha256("sha256").md5("md5")
+                .remotePath("org/acme/artifact.jar").originalDeploymentRepo("libs-release-local")
+                .addProperty("key", "value").build();
+        artifact.setLocalPath("/tmp/artifact.jar");
+        Artifact excludedArtifact = new ArtifactBuilder("excluded.jar").type("jar").sha1("sha1-excluded")
+                .localPath("/tmp/excluded.jar").build();
+        Dependency dependency = new DependencyBuilder().id("dependency").type("jar").scopes(Collections.singleton("compile"))
+                .sha1("sha1").sha256("sha256").md5("md5").localPath("/tmp/dependency.jar").remotePath("org/acme/dependency.jar")
+                .addRequestedBy(new String[]{"module"}).addProperty("key", "value").build();
+        Module module = new ModuleBuilder().id(" module ").type("Maven").repository("libs-release")
+                .sha1("module-sha1").md5("module-md5").addArtifact(artifact).addExcludedArtifact(excludedArtifact)
+                .addDependency(dependency).addProperty("key", "value").build();
+        module.setId(" module ");
+
+        BuildRetention buildRetention = new BuildRetention(true);
+        buildRetention.setCount(10);
+        buildRetention.setMinimumBuildDate(new Date(1672531200000L));
+        buildRetention.setBuildNumbersNotToBeDiscarded(Collections.singletonList("1"));
+        Issue issue = new Issue("JIRA-1", "http://jira/JIRA-1", "summary");
+        issue.setAggregated(true);
+        Issues issues = new Issues(new IssueTracker("jira", "8.0"), true, "Released", Collections.singleton(issue));
+        BuildDependency buildDependency = new BuildDependency();
+        buildDependency.setName("upstream");
+        buildDependency.setNumber("2");
+
+        BuildInfo buildInfo = new BuildInfoBuilder("build").number("1").project("project")
+                .agent(new Agent("agent", "1.0")).buildAgent(new BuildAgent("build-agent", "2.0"))
+                .started("2023-01-01T00:00:00.000+0000").durationMillis(1000).principal("principal")
+                .artifactoryPrincipal("admin").artifactoryPluginVersion("3.0").url("http://ci/build/1")
+                .parentName("parent").parentNumber("3").vcs(Collections.singletonList(new Vcs("http://vcs", "rev", "main", "message")))
+                .buildRetention(buildRetention).addRunParameters(new MatrixParameter("param", "value"))
+                .addStatus(new PromotionStatus("staged", "comment", "libs-release", "2023-01-01T00:00:00.000+0000", "user", "ci-user"))
+                .addProperty("buildInfo.env.key", "value").issues(issues).addModule(module).build();
+        buildInfo.setParentBuildId("parent-build-id");
+        buildInfo.addBuildDependency(buildDependency);
+        return buildInfo;
+    }
+
+    private static BuildInfo createBuildInfo(int i) {
+        Module module = new Module();
+        module.setId("module-" + i);
+        module.setType(ModuleType.GENERIC.toString());
+        BuildInfo buildInfo = new BuildInfo();
+        buildInfo.setName("build-" + i);
+        buildInfo.setNumber(String.valueOf(i));
+        buildInfo.setModules(Collections.singletonList(module));
+        return buildInfo;
+    }
+}
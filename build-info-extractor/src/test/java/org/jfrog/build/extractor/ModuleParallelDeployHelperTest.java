@@ -0,0 +1,125 @@
+package org.jfrog.build.extractor;
+
+import org.apache.commons.io.FileUtils;
+import org.jfrog.build.api.util.NullLog;
+import org.jfrog.build.client.ArtifactoryUploadResponse;
+import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
+import org.jfrog.build.extractor.clientConfiguration.deploy.DeployDetails;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+@Test
+public class ModuleParallelDeployHelperTest {
+    private File dir;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("module-parallel-deploy").toFile();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    public void testIsDescriptor() throws IOException {
+        assertTrue(ModuleParallelDeployHelper.isDescriptor(createDeployDetails("org/acme/a/1.0/a-1.0.pom", 1)));
+        assertTrue(ModuleParallelDeployHelper.isDescriptor(createDeployDetails("org/acme/a/1.0/a-1.0.module", 1)));
+        assertTrue(ModuleParallelDeployHelper.isDescriptor(createDeployDetails("org.acme/a/1.0/ivy-1.0.xml", 1)));
+        assertFalse(ModuleParallelDeployHelper.isDescriptor(createDeployDetails("org/acme/a/1.0/a-1.0.jar", 1)));
+        assertFalse(ModuleParallelDeployHelper.isDescriptor(createDeployDetails("org/acme/ivy/1.0/ivy-1.0.jar", 1)));
+    }
+
+    public void testDescriptorsAreDeployedLast() throws IOException {
+        Map<String, Set<DeployDetails>> artifactsByModule = new LinkedHashMap<>();
+        for (String module : new String[]{"a", "b"}) {
+            Set<DeployDetails> artifacts = new LinkedHashSet<>();
+            artifacts.add(createDeployDetails("org/acme/" + module + "/1.0/" + module + "-1.0.pom", 1));
+            for (int i = 0; i < 20; i++) {
+                artifacts.add(createDeployDetails("org/acme/" + module + "/1.0/" + module + "-1.0-" + i + ".jar", i + 1));
+            }
+            artifactsByModule.put(module, artifacts);
+        }
+        FakeArtifactoryManager artifactoryManager = new FakeArtifactoryManager(null);
+        new ModuleParallelDeployHelper().deployArtifacts(artifactoryManager, artifactsByModule, 4);
+
+        assertEquals(artifactoryManager.uploaded.size(), 42);
+        assertTrue(artifactoryManager.maxConcurrentUploads.get() > 1, "Artifacts of a module should be deployed concurrently");
+        for (String module : artifactsByModule.keySet()) {
+            int descriptorIndex = artifactoryManager.uploaded.indexOf("org/acme/" + module + "/1.0/" + module + "-1.0.pom");
+            for (int i = 0; i < 20; i++) {
+                assertTrue(artifactoryManager.uploaded.indexOf("org/acme/" + module + "/1.0/" + module + "-1.0-" + i + ".jar") < descriptorIndex);
+            }
+        }
+        artifactsByModule.values().forEach(artifacts -> artifacts.forEach(artifact -> assertTrue(artifact.getDeploySucceeded())));
+    }
+
+    public void testFailedBinarySkipsDescriptor() throws IOException {
+        Set<DeployDetails> artifacts = new LinkedHashSet<>();
+        artifacts.add(createDeployDetails("org/acme/a/1.0/a-1.0.pom", 1));
+        artifacts.add(createDeployDetails("org/acme/a/1.0/a-1.0.jar", 1));
+        artifacts.add(createDeployDetails("org/acme/a/1.0/a-1.0-sources.jar", 1));
+        FakeArtifactoryManager artifactoryManager = new FakeArtifactoryManager("org/acme/a/1.0/a-1.0-sources.jar");
+
+        RuntimeException exception = expectThrows(RuntimeException.class, () -> new ModuleParallelDeployHelper()
+                .deployArtifacts(artifactoryManager, Collections.singletonMap("a", artifacts), 2));
+        assertTrue(exception.getCause() instanceof IOException);
+        assertFalse(artifactoryManager.uploaded.contains("org/acme/a/1.0/a-1.0.pom"));
+    }
+
+    private DeployDetails createDeployDetails(String artifactPath, int size) throws IOException {
+        File file = new File(dir, artifactPath.replace('/', '_'));
+        FileUtils.writeByteArrayToFile(file, new byte[size * 100]);
+        return new DeployDetails.Builder().file(file).artifactPath(artifactPath).targetRepository("libs-release").build();
+    }
+
+    /**
+     * Records the uploaded paths in the order of completion.
+     */
+    private static class FakeArtifactoryManager extends ArtifactoryManager {
+        private final List<String> uploaded = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger concurrentUploads = new AtomicInteger();
+        private final AtomicInteger maxConcurrentUploads = new AtomicInteger();
+        private final String failingPath;
+
+        private FakeArtifactoryManager(String failingPath) {
+            super("http://localhost:8081/artifactory", new NullLog());
+            this.failingPath = failingPath;
+        }
+
+        @Override
+        public ArtifactoryUploadResponse upload(DeployDetails details, String logPrefix) throws IOException {
+            maxConcurrentUploads.accumulateAndGet(concurrentUploads.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+                if (details.getArtifactPath().equals(failingPath)) {
+                    throw new IOException("Upload failed");
+                }
+                uploaded.add(details.getArtifactPath());
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            } finally {
+                concurrentUploads.decrementAndGet();
+            }
+            ArtifactoryUploadResponse response = new ArtifactoryUploadResponse();
+            response.setPath(details.getArtifactPath());
+            response.setChecksums(new ArtifactoryUploadResponse.Checksums());
+            return response;
+        }
+    }
+}
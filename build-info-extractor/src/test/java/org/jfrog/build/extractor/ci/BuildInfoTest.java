@@ -170,4 +170,27 @@ public class BuildInfoTest {
         assertEquals(buildInfo.getBuildDependencies().size(), 2, "Second BuildDependency object should have been added.");
         assertEquals(CommonUtils.getLast(buildInfo.getBuildDependencies()), otherBuildDependency, "Unexpected buildInfo dependency object.");
     }
-}
\ No newline at end of file
+
+    public void testAppendMergesModulesById() {
+        BuildInfo buildInfo = new BuildInfo();
+        buildInfo.setModules(new ArrayList<>(Arrays.asList(createModule("a", "a1"), createModule("b", "b1"))));
+        BuildInfo other = new BuildInfo();
+        other.setModules(Arrays.asList(createModule("b", "b2"), createModule("c", "c1"), createModule("c", "c2")));
+
+        buildInfo.append(other);
+
+        assertEquals(buildInfo.getModules().size(), 3, "Modules with the same ID should have been merged.");
+        assertEquals(buildInfo.getModule("b").getArtifacts().size(), 2, "Unexpected merged artifacts.");
+        assertEquals(buildInfo.getModule("c").getArtifacts().size(), 2, "Unexpected merged artifacts.");
+    }
+
+    private static Module createModule(String id, String artifactName) {
+        Artifact artifact = new Artifact();
+        artifact.setName(artifactName);
+        artifact.setSha1(artifactName + "-sha1");
+        Module module = new Module();
+        module.setId(id);
+        module.setArtifacts(new ArrayList<>(Collections.singletonList(artifact)));
+        return module;
+    }
+}
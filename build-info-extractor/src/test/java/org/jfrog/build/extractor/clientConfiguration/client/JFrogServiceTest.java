@@ -0,0 +1,139 @@
+package org.jfrog.build.extractor.clientConfiguration.client;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.jfrog.build.api.util.NullLog;
+import org.jfrog.build.client.JFrogHttpClient;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+@Test
+public class JFrogServiceTest {
+    private static final int REQUESTS = 4;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private CountDownLatch inFlight;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        inFlight = new CountDownLatch(REQUESTS);
+        serverExecutor = Executors.newFixedThreadPool(REQUESTS);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(serverExecutor);
+        // Responds with the last path segment once all the requests are in flight, or with 404 for "missing"
+        server.createContext("/api/fake/", exchange -> {
+            String result = StringUtils.substringAfterLast(exchange.getRequestURI().getPath(), "/");
+            try {
+                if ("missing".equals(result)) {
+                    exchange.sendResponseHeaders(404, -1);
+                    return;
+                }
+                inFlight.countDown();
+                if (!inFlight.await(10, TimeUnit.SECONDS)) {
+                    exchange.sendResponseHeaders(408, -1);
+                    return;
+                }
+                byte[] body = result.getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream outputStream = exchange.getResponseBody()) {
+                    outputStream.write(body);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    public void testSubmit() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+        try (JFrogHttpClient client = createClient()) {
+            // All the services are in flight at the same time, so none of them blocks the caller
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                futures.add(new FakeService("result-" + i).submit(client, executor));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(futures.get(i).get(10, TimeUnit.SECONDS), "result-" + i);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void testSubmitFailure() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (JFrogHttpClient client = createClient()) {
+            CompletableFuture<String> future = new FakeService("missing").submit(client, executor);
+            ExecutionException exception = expectThrows(ExecutionException.class, future::get);
+            assertTrue(exception.getCause() instanceof IOException);
+            assertTrue(exception.getCause().getMessage().contains("404"), exception.getCause().getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void testSubmitRejected() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.shutdown();
+        try (JFrogHttpClient client = createClient()) {
+            CompletableFuture<String> future = new FakeService("result").submit(client, executor);
+            assertTrue(future.isCompletedExceptionally());
+        }
+    }
+
+    private JFrogHttpClient createClient() {
+        return new JFrogHttpClient("http://127.0.0.1:" + server.getAddress().getPort(), "token", new NullLog());
+    }
+
+    /**
+     * Requests the result from the fake server, and reads it from the response body.
+     */
+    private static class FakeService extends JFrogService<String> {
+        private final String expectedResult;
+
+        private FakeService(String expectedResult) {
+            super(new NullLog());
+            this.expectedResult = expectedResult;
+        }
+
+        @Override
+        public HttpRequestBase createRequest() {
+            return new HttpGet("api/fake/" + expectedResult);
+        }
+
+        @Override
+        protected void setResponse(InputStream stream) throws IOException {
+            result = IOUtils.toString(stream, StandardCharsets.UTF_8);
+        }
+    }
+}
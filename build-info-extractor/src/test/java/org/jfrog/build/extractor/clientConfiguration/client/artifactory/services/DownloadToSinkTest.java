@@ -0,0 +1,65 @@
+package org.jfrog.build.extractor.clientConfiguration.client.artifactory.services;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.jfrog.build.api.util.NullLog;
+import org.jfrog.build.extractor.clientConfiguration.util.DigestingFileSink;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
+
+@Test
+public class DownloadToSinkTest {
+    private static final Map<String, String> RANGE_HEADERS = Collections.singletonMap(HttpHeaders.RANGE, "bytes=4-7");
+    private File tempDir;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("download-to-sink").toFile();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(tempDir);
+    }
+
+    public void testPartialContent() throws IOException {
+        try (DigestingFileSink sink = new DigestingFileSink(new File(tempDir, "file").getPath(), 8)) {
+            DownloadToSink service = new DownloadToSink("repo/file", sink, 4, RANGE_HEADERS, new NullLog());
+            service.setStatusCode(HttpStatus.SC_PARTIAL_CONTENT);
+            service.setResponse(new ByteArrayInputStream(new byte[]{4, 5, 6, 7}));
+            assertEquals(service.getResult().longValue(), 4L);
+            assertEquals(sink.getWrittenEnd(4), 8L);
+        }
+    }
+
+    public void testFullContentForRangeRequestIsRejected() throws IOException {
+        try (DigestingFileSink sink = new DigestingFileSink(new File(tempDir, "file").getPath(), 8)) {
+            DownloadToSink service = new DownloadToSink("repo/file", sink, 4, RANGE_HEADERS, new NullLog());
+            service.setStatusCode(HttpStatus.SC_OK);
+            assertThrows(IOException.class, () -> service.setResponse(new ByteArrayInputStream(new byte[]{0, 1, 2, 3, 4, 5, 6, 7})));
+            // Nothing was written at the offset
+            assertEquals(sink.getWrittenEnd(4), 4L);
+        }
+    }
+
+    public void testFullContent() throws IOException {
+        try (DigestingFileSink sink = new DigestingFileSink(new File(tempDir, "file").getPath(), 4)) {
+            DownloadToSink service = new DownloadToSink("repo/file", sink, 0, null, new NullLog());
+            service.setStatusCode(HttpStatus.SC_OK);
+            service.setResponse(new ByteArrayInputStream(new byte[]{0, 1, 2, 3}));
+            assertEquals(service.getResult().longValue(), 4L);
+        }
+    }
+}
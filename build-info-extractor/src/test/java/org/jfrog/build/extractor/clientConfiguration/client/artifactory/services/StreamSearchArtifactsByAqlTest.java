@@ -0,0 +1,55 @@
+package org.jfrog.build.extractor.clientConfiguration.client.artifactory.services;
+
+import org.jfrog.build.api.search.AqlSearchResult;
+import org.jfrog.build.api.util.NullLog;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
+
+@Test
+public class StreamSearchArtifactsByAqlTest {
+    private static final String RESPONSE = "{\n" +
+            "  \"results\": [\n" +
+            "    {\"repo\": \"generic-local\", \"path\": \"a/b\", \"name\": \"file1.zip\", \"type\": \"file\", \"size\": 1024," +
+            "     \"actual_md5\": \"md5-1\", \"actual_sha1\": \"sha1-1\", \"sha256\": \"sha256-1\"," +
+            "     \"properties\": [{\"key\": \"build.name\", \"value\": \"build\"}, {\"key\": \"build.number\", \"value\": \"1\"}]},\n" +
+            "    {\"repo\": \"generic-local\", \"path\": \".\", \"name\": \"file2.zip\", \"actual_sha1\": \"sha1-2\"}\n" +
+            "  ],\n" +
+            "  \"range\": {\"start_pos\": 0, \"end_pos\": 2, \"total\": 2}\n" +
+            "}";
+
+    public void testStreamingResults() throws IOException {
+        List<AqlSearchResult.SearchEntry> entries = new ArrayList<>();
+        StreamSearchArtifactsByAql service = new StreamSearchArtifactsByAql("items.find()", entries::add, new NullLog());
+        service.setResponse(new ByteArrayInputStream(RESPONSE.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(service.getResult().intValue(), 2);
+        assertEquals(entries.size(), 2);
+        AqlSearchResult.SearchEntry first = entries.get(0);
+        assertEquals(first.getName(), "file1.zip");
+        assertEquals(first.getSize().longValue(), 1024L);
+        assertEquals(first.getActualMd5(), "md5-1");
+        assertEquals(first.getSha256(), "sha256-1");
+        assertEquals(first.getBuildName(), "build");
+        assertEquals(first.getBuildNumber(), "1");
+        assertEquals(entries.get(1).getPath(), ".");
+        assertEquals(entries.get(1).getActualSha1(), "sha1-2");
+    }
+
+    public void testHandlerFailureStopsParsing() {
+        List<AqlSearchResult.SearchEntry> entries = new ArrayList<>();
+        StreamSearchArtifactsByAql service = new StreamSearchArtifactsByAql("items.find()", entry -> {
+            entries.add(entry);
+            throw new IOException("Handler failed");
+        }, new NullLog());
+        assertThrows(IOException.class, () -> service.setResponse(new ByteArrayInputStream(RESPONSE.getBytes(StandardCharsets.UTF_8))));
+        assertEquals(entries.size(), 1);
+    }
+}
@@ -0,0 +1,41 @@
+package org.jfrog.build.extractor.clientConfiguration.deploy;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.testng.Assert.*;
+
+@Test
+public class BandwidthLimiterTest {
+
+    public void testBurstIsNotDelayed() throws IOException {
+        BandwidthLimiter limiter = new BandwidthLimiter(1024 * 1024);
+        long start = System.nanoTime();
+        limiter.acquire(512 * 1024);
+        assertTrue(System.nanoTime() - start < 200_000_000L);
+    }
+
+    public void testLimitedStream() throws IOException {
+        BandwidthLimiter limiter = new BandwidthLimiter(100 * 1024);
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        long start = System.nanoTime();
+        try (OutputStream outputStream = limiter.limit(target)) {
+            // The first 100 KB are sent immediately, and the next 50 KB take about half a second
+            byte[] buffer = new byte[10 * 1024];
+            for (int i = 0; i < 15; i++) {
+                outputStream.write(buffer);
+            }
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertEquals(target.size(), 150 * 1024);
+        assertTrue(elapsedMillis >= 400, "Expected the stream to be throttled, took " + elapsedMillis + "ms");
+        assertTrue(elapsedMillis < 5000, "Expected the stream to be throttled to the limit, took " + elapsedMillis + "ms");
+    }
+
+    public void testInvalidLimit() {
+        expectThrows(IllegalArgumentException.class, () -> new BandwidthLimiter(0));
+    }
+}
@@ -0,0 +1,147 @@
+package org.jfrog.build.extractor.clientConfiguration.deploy;
+
+import org.apache.commons.io.FileUtils;
+import org.jfrog.build.api.multiMap.Multimap;
+import org.jfrog.build.api.util.NullLog;
+import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.testng.Assert.*;
+
+@Test
+public class DeploymentJournalTest {
+    private File dir;
+    private File journalFile;
+    private FakeArtifactoryManager artifactoryManager;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("deployment-journal").toFile();
+        journalFile = new File(dir, "journal/deploy.jsonl");
+        artifactoryManager = new FakeArtifactoryManager();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    public void testResume() throws IOException {
+        try (DeploymentJournal journal = new DeploymentJournal(journalFile, false, new NullLog())) {
+            DeployDetails deployed = createDeployDetails("a-1.0-SNAPSHOT.jar", "sha1-a");
+            deployed.setSha256("sha256-a");
+            deployed.setArtifactPath("org/acme/a/1.0-SNAPSHOT/a-1.0-20240101.120000-1.jar");
+            journal.record(deployed, "org/acme/a/1.0-SNAPSHOT/a-1.0-SNAPSHOT.jar");
+        }
+
+        try (DeploymentJournal journal = new DeploymentJournal(journalFile, true, new NullLog())) {
+            DeployDetails artifact = createDeployDetails("a-1.0-SNAPSHOT.jar", "sha1-a");
+            assertTrue(journal.isDeployed(artifact));
+            assertTrue(journal.skipIfDeployed(artifact, artifactoryManager));
+            assertTrue(artifact.getDeploySucceeded());
+            assertEquals(artifact.getSha256(), "sha256-a");
+            assertEquals(artifact.getArtifactPath(), "org/acme/a/1.0-SNAPSHOT/a-1.0-20240101.120000-1.jar");
+
+            DeployDetails modified = createDeployDetails("a-1.0-SNAPSHOT.jar", "sha1-modified");
+            assertFalse(journal.skipIfDeployed(modified, artifactoryManager));
+            assertNull(modified.getDeploySucceeded());
+            assertFalse(journal.skipIfDeployed(createDeployDetails("b-1.0-SNAPSHOT.jar", "sha1-b"), artifactoryManager));
+        }
+        assertTrue(artifactoryManager.propertiesSet.isEmpty());
+    }
+
+    public void testResumeWithOtherProperties() throws IOException {
+        try (DeploymentJournal journal = new DeploymentJournal(journalFile, false, new NullLog())) {
+            DeployDetails deployed = createDeployDetails("a-1.0-SNAPSHOT.jar", "sha1-a", "1");
+            deployed.setArtifactPath("org/acme/a/1.0-SNAPSHOT/a-1.0-20240101.120000-1.jar");
+            journal.record(deployed, "org/acme/a/1.0-SNAPSHOT/a-1.0-SNAPSHOT.jar");
+        }
+
+        // Another build deploys identical artifacts
+        try (DeploymentJournal journal = new DeploymentJournal(journalFile, true, new NullLog())) {
+            DeployDetails artifact = createDeployDetails("a-1.0-SNAPSHOT.jar", "sha1-a", "2");
+            assertTrue(journal.skipIfDeployed(artifact, artifactoryManager));
+            assertTrue(artifact.getDeploySucceeded());
+        }
+        Multimap<String, String> properties = artifactoryManager.propertiesSet.remove(
+                "libs-snapshot/org/acme/a/1.0-SNAPSHOT/a-1.0-20240101.120000-1.jar");
+        assertNotNull(properties);
+        assertTrue(properties.get("build.number").contains("2"));
+
+        // The journal was updated with the properties of the last build
+        try (DeploymentJournal journal = new DeploymentJournal(journalFile, true, new NullLog())) {
+            assertTrue(journal.skipIfDeployed(createDeployDetails("a-1.0-SNAPSHOT.jar", "sha1-a", "2"), artifactoryManager));
+        }
+        assertTrue(artifactoryManager.propertiesSet.isEmpty());
+    }
+
+    public void testNoResumeDiscardsJournal() throws IOException {
+        try (DeploymentJournal journal = new DeploymentJournal(journalFile, false, new NullLog())) {
+            DeployDetails deployed = createDeployDetails("a-1.0-SNAPSHOT.jar", "sha1-a");
+            journal.record(deployed, deployed.getArtifactPath());
+        }
+        try (DeploymentJournal journal = new DeploymentJournal(journalFile, false, new NullLog())) {
+            assertFalse(journal.isDeployed(createDeployDetails("a-1.0-SNAPSHOT.jar", "sha1-a")));
+        }
+        assertEquals(journalFile.length(), 0);
+    }
+
+    public void testCorruptedEntry() throws IOException {
+        try (DeploymentJournal journal = new DeploymentJournal(journalFile, false, new NullLog())) {
+            DeployDetails deployed = createDeployDetails("a-1.0-SNAPSHOT.jar", "sha1-a");
+            journal.record(deployed, deployed.getArtifactPath());
+        }
+        // A partially written entry of an interrupted deployment
+        FileUtils.writeStringToFile(journalFile, "{\"repo\":\"libs-snap", StandardCharsets.UTF_8, true);
+        try (DeploymentJournal journal = new DeploymentJournal(journalFile, true, new NullLog())) {
+            assertTrue(journal.isDeployed(createDeployDetails("a-1.0-SNAPSHOT.jar", "sha1-a")));
+            DeployDetails deployed = createDeployDetails("b-1.0-SNAPSHOT.jar", "sha1-b");
+            journal.record(deployed, deployed.getArtifactPath());
+        }
+        try (DeploymentJournal journal = new DeploymentJournal(journalFile, true, new NullLog())) {
+            assertTrue(journal.isDeployed(createDeployDetails("a-1.0-SNAPSHOT.jar", "sha1-a")));
+            assertTrue(journal.isDeployed(createDeployDetails("b-1.0-SNAPSHOT.jar", "sha1-b")));
+        }
+    }
+
+    public void testDisabledByDefault() throws IOException {
+        assertNull(DeploymentJournal.fromSystemProperties(new NullLog()));
+    }
+
+    private DeployDetails createDeployDetails(String name, String sha1) throws IOException {
+        return createDeployDetails(name, sha1, "1");
+    }
+
+    private DeployDetails createDeployDetails(String name, String sha1, String buildNumber) throws IOException {
+        File file = new File(dir, name);
+        FileUtils.writeStringToFile(file, sha1, StandardCharsets.UTF_8);
+        return new DeployDetails.Builder().file(file).artifactPath("org/acme/a/1.0-SNAPSHOT/" + name)
+                .targetRepository("libs-snapshot").sha1(sha1)
+                .addProperty("build.name", "build").addProperty("build.number", buildNumber).build();
+    }
+
+    /**
+     * Records the set properties.
+     */
+    private static class FakeArtifactoryManager extends ArtifactoryManager {
+        private final Map<String, Multimap<String, String>> propertiesSet = new HashMap<>();
+
+        private FakeArtifactoryManager() {
+            super("http://localhost:8081/artifactory", new NullLog());
+        }
+
+        @Override
+        public void setProperties(String relativePath, Multimap<String, String> properties, boolean encodeProperties) {
+            propertiesSet.put(relativePath, properties);
+        }
+    }
+}
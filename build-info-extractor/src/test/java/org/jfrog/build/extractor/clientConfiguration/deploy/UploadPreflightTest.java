@@ -0,0 +1,153 @@
+package org.jfrog.build.extractor.clientConfiguration.deploy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.jfrog.build.api.multiMap.Multimap;
+import org.jfrog.build.api.search.AqlSearchResult;
+import org.jfrog.build.api.search.AqlSearchResultHandler;
+import org.jfrog.build.api.util.NullLog;
+import org.jfrog.build.extractor.JsonMappers;
+import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.*;
+
+@Test
+public class UploadPreflightTest {
+    private File dir;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("upload-preflight").toFile();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    public void testCreateQuery() throws IOException {
+        String aql = UploadPreflight.createQuery(Arrays.asList(
+                createDeployDetails("libs-release", "org/acme/a/1.0/a-1.0.jar", "sha1"),
+                createDeployDetails("libs-release", "a.txt", "sha1"),
+                createDeployDetails("generic", "dir/b.zip", "sha1")));
+        assertTrue(aql.startsWith("items.find("));
+        JsonNode criteria = JsonMappers.getMapper().readTree(StringUtils.substringBetween(aql, "items.find(", ").include("));
+        JsonNode repos = criteria.get("$or");
+        assertEquals(repos.size(), 2);
+        assertEquals(repos.get(0).get("repo").asText(), "libs-release");
+        assertEquals(repos.get(0).get("$or").get(0).get("path").asText(), "org/acme/a/1.0");
+        assertEquals(repos.get(0).get("$or").get(0).get("name").asText(), "a-1.0.jar");
+        assertEquals(repos.get(0).get("$or").get(1).get("path").asText(), ".");
+        assertEquals(repos.get(0).get("$or").get(1).get("name").asText(), "a.txt");
+        assertEquals(repos.get(1).get("repo").asText(), "generic");
+        assertEquals(repos.get(1).get("$or").get(0).get("path").asText(), "dir");
+        assertTrue(aql.contains("\"actual_sha1\""));
+    }
+
+    public void testSkipIfDeployed() throws IOException {
+        FakeArtifactoryManager artifactoryManager = new FakeArtifactoryManager();
+        artifactoryManager.addItem("libs-release", "org/acme/a/1.0", "a-1.0.jar", "sha1-a");
+        artifactoryManager.addItem("libs-release", ".", "b.txt", "sha1-other");
+        DeployDetails identical = createDeployDetails("libs-release", "org/acme/a/1.0/a-1.0.jar", "sha1-a");
+        DeployDetails modified = createDeployDetails("libs-release", "b.txt", "sha1-b");
+        DeployDetails missing = createDeployDetails("libs-release", "c.txt", "sha1-c");
+
+        UploadPreflight preflight = new UploadPreflight(artifactoryManager, 100, new NullLog());
+        preflight.check(Arrays.asList(identical, modified, missing));
+
+        assertTrue(preflight.skipIfDeployed(identical, null));
+        assertTrue(identical.getDeploySucceeded());
+        assertEquals(identical.getSha256(), "sha256-sha1-a");
+        assertEquals(artifactoryManager.propertiesSet.get("libs-release/org/acme/a/1.0/a-1.0.jar").get("build.name").iterator().next(), "build");
+        assertFalse(preflight.skipIfDeployed(modified, null));
+        assertFalse(preflight.skipIfDeployed(missing, null));
+        assertNull(modified.getDeploySucceeded());
+        assertEquals(artifactoryManager.propertiesSet.size(), 1);
+    }
+
+    public void testBatches() throws IOException {
+        FakeArtifactoryManager artifactoryManager = new FakeArtifactoryManager();
+        List<DeployDetails> artifacts = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            artifacts.add(createDeployDetails("libs-release", "a-" + i + ".txt", "sha1"));
+        }
+        new UploadPreflight(artifactoryManager, 2, new NullLog()).check(artifacts);
+        assertEquals(artifactoryManager.queries.size(), 3);
+    }
+
+    public void testSearchFailure() throws IOException {
+        FakeArtifactoryManager artifactoryManager = new FakeArtifactoryManager();
+        artifactoryManager.addItem("libs-release", ".", "a.txt", "sha1");
+        artifactoryManager.failSearch = true;
+        DeployDetails artifact = createDeployDetails("libs-release", "a.txt", "sha1");
+        UploadPreflight preflight = new UploadPreflight(artifactoryManager, 100, new NullLog());
+        // The artifacts are uploaded as usual
+        preflight.check(Arrays.asList(artifact));
+        assertFalse(preflight.skipIfDeployed(artifact, null));
+    }
+
+    public void testDisabledByDefault() {
+        assertNull(UploadPreflight.fromSystemProperties(new FakeArtifactoryManager()));
+    }
+
+    private DeployDetails createDeployDetails(String repo, String artifactPath, String sha1) throws IOException {
+        File file = new File(dir, artifactPath.replace('/', '_'));
+        FileUtils.writeStringToFile(file, artifactPath, "UTF-8");
+        return new DeployDetails.Builder().file(file).artifactPath(artifactPath).targetRepository(repo).sha1(sha1)
+                .addProperty("build.name", "build").build();
+    }
+
+    /**
+     * Returns all the existing items for every query, and records the set properties.
+     */
+    private static class FakeArtifactoryManager extends ArtifactoryManager {
+        private final List<AqlSearchResult.SearchEntry> items = new ArrayList<>();
+        private final List<String> queries = new ArrayList<>();
+        private final Map<String, Multimap<String, String>> propertiesSet = new HashMap<>();
+        private boolean failSearch;
+
+        private FakeArtifactoryManager() {
+            super("http://localhost:8081/artifactory", new NullLog());
+        }
+
+        private void addItem(String repo, String path, String name, String sha1) {
+            AqlSearchResult.SearchEntry entry = new AqlSearchResult.SearchEntry();
+            entry.setRepo(repo);
+            entry.setPath(path);
+            entry.setName(name);
+            entry.setActualSha1(sha1);
+            entry.setSha256("sha256-" + sha1);
+            items.add(entry);
+        }
+
+        @Override
+        public int searchArtifactsByAql(String aql, AqlSearchResultHandler handler) throws IOException {
+            queries.add(aql);
+            if (failSearch) {
+                throw new IOException("AQL is not allowed");
+            }
+            for (AqlSearchResult.SearchEntry item : items) {
+                handler.handle(item);
+            }
+            return items.size();
+        }
+
+        @Override
+        public void setProperties(String relativePath, Multimap<String, String> properties, boolean encodeProperties) {
+            propertiesSet.put(relativePath, properties);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package org.jfrog.build.extractor.clientConfiguration.deploy;
+
+import org.apache.commons.io.FileUtils;
+import org.jfrog.build.api.util.NullLog;
+import org.jfrog.build.client.ArtifactoryUploadResponse;
+import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+@Test
+public class UploadSchedulerTest {
+    private static final String HOST = "localhost:8081";
+
+    private File dir;
+    private ExecutorService executor;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("upload-scheduler").toFile();
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        FileUtils.deleteDirectory(dir);
+    }
+
+    public void testGetHost() {
+        assertEquals(UploadScheduler.getHost("http://localhost:8081/artifactory"), "localhost:8081");
+        assertEquals(UploadScheduler.getHost("https://acme.jfrog.io/artifactory/"), "acme.jfrog.io");
+        assertEquals(UploadScheduler.getHost("not a url"), "not a url");
+    }
+
+    public void testMaxConcurrentPerHost() throws Exception {
+        UploadScheduler scheduler = new UploadScheduler(2);
+        FakeArtifactoryManager artifactoryManager = new FakeArtifactoryManager(new CountDownLatch(0));
+        List<Future<ArtifactoryUploadResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            DeployDetails details = createDeployDetails("a-" + i + ".jar", i);
+            futures.add(executor.submit(() -> scheduler.upload(artifactoryManager, details, null)));
+        }
+        for (Future<ArtifactoryUploadResponse> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        assertEquals(artifactoryManager.uploaded.size(), 10);
+        assertEquals(artifactoryManager.maxConcurrentUploads.get(), 2);
+        assertEquals(scheduler.getActiveUploads(HOST), 0);
+    }
+
+    public void testUnlimitedByDefault() throws Exception {
+        assertEquals(UploadScheduler.DEFAULT_MAX_CONCURRENT_PER_HOST, 0);
+        UploadScheduler scheduler = new UploadScheduler(UploadScheduler.DEFAULT_MAX_CONCURRENT_PER_HOST);
+        CountDownLatch release = new CountDownLatch(1);
+        FakeArtifactoryManager artifactoryManager = new FakeArtifactoryManager(release);
+        List<Future<ArtifactoryUploadResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            DeployDetails details = createDeployDetails("a-" + i + ".jar", i);
+            futures.add(executor.submit(() -> scheduler.upload(artifactoryManager, details, null)));
+        }
+        // All the uploads run together
+        waitFor(() -> artifactoryManager.concurrentUploads.get() == 10);
+        release.countDown();
+        for (Future<ArtifactoryUploadResponse> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        assertEquals(artifactoryManager.uploaded.size(), 10);
+        assertEquals(scheduler.getWaitingUploads(HOST), 0);
+    }
+
+    public void testLargestWaitingUploadFirst() throws Exception {
+        UploadScheduler scheduler = new UploadScheduler(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FakeArtifactoryManager artifactoryManager = new FakeArtifactoryManager(release);
+        List<Future<ArtifactoryUploadResponse>> futures = new ArrayList<>();
+        DeployDetails first = createDeployDetails("first.jar", 1);
+        futures.add(executor.submit(() -> scheduler.upload(artifactoryManager, first, null)));
+        waitFor(() -> scheduler.getActiveUploads(HOST) == 1);
+
+        int[] sizes = {1, 3, 2};
+        for (int i = 0; i < sizes.length; i++) {
+            DeployDetails details = createDeployDetails("size-" + sizes[i] + ".jar", sizes[i]);
+            futures.add(executor.submit(() -> scheduler.upload(artifactoryManager, details, null)));
+            int waiting = i + 1;
+            waitFor(() -> scheduler.getWaitingUploads(HOST) == waiting);
+        }
+        release.countDown();
+        for (Future<ArtifactoryUploadResponse> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        assertEquals(artifactoryManager.uploaded, Arrays.asList("first.jar", "size-3.jar", "size-2.jar", "size-1.jar"));
+    }
+
+    public void testHostsAreLimitedSeparately() throws Exception {
+        UploadScheduler scheduler = new UploadScheduler(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FakeArtifactoryManager firstHost = new FakeArtifactoryManager(release);
+        DeployDetails details = createDeployDetails("a.jar", 1);
+        Future<ArtifactoryUploadResponse> blocked = executor.submit(() -> scheduler.upload(firstHost, details, null));
+        waitFor(() -> scheduler.getActiveUploads(HOST) == 1);
+
+        FakeArtifactoryManager secondHost = new FakeArtifactoryManager("http://remote:8082/artifactory", new CountDownLatch(0));
+        scheduler.upload(secondHost, details, null);
+        assertEquals(secondHost.uploaded.size(), 1);
+        release.countDown();
+        blocked.get(10, TimeUnit.SECONDS);
+    }
+
+    private DeployDetails createDeployDetails(String artifactPath, int size) throws IOException {
+        File file = new File(dir, artifactPath);
+        FileUtils.writeByteArrayToFile(file, new byte[size * 100]);
+        return new DeployDetails.Builder().file(file).artifactPath(artifactPath).targetRepository("libs-release").build();
+    }
+
+    private static void waitFor(Condition condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.isMet()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the scheduler");
+            Thread.sleep(5);
+        }
+    }
+
+    private interface Condition {
+        boolean isMet();
+    }
+
+    /**
+     * Records the uploaded paths in the order of completion. Uploads block until the latch is released.
+     */
+    private static class FakeArtifactoryManager extends ArtifactoryManager {
+        private final List<String> uploaded = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger concurrentUploads = new AtomicInteger();
+        private final AtomicInteger maxConcurrentUploads = new AtomicInteger();
+        private final CountDownLatch release;
+
+        private FakeArtifactoryManager(CountDownLatch release) {
+            this("http://" + HOST + "/artifactory", release);
+        }
+
+        private FakeArtifactoryManager(String url, CountDownLatch release) {
+            super(url, new NullLog());
+            this.release = release;
+        }
+
+        @Override
+        public ArtifactoryUploadResponse upload(DeployDetails details, String logPrefix) throws IOException {
+            maxConcurrentUploads.accumulateAndGet(concurrentUploads.incrementAndGet(), Math::max);
+            try {
+                if (!release.await(10, TimeUnit.SECONDS)) {
+                    throw new IOException("Timed out");
+                }
+                Thread.sleep(5);
+                uploaded.add(details.getArtifactPath());
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            } finally {
+                concurrentUploads.decrementAndGet();
+            }
+            ArtifactoryUploadResponse response = new ArtifactoryUploadResponse();
+            response.setPath(details.getArtifactPath());
+            return response;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package org.jfrog.build.extractor.clientConfiguration.util;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpStatus;
+import org.jfrog.build.api.BuildInfoFields;
+import org.jfrog.build.api.search.AqlSearchResult;
 import org.jfrog.build.api.util.NullLog;
 import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
 import org.jfrog.filespecs.entities.FilesGroup;
@@ -10,6 +12,11 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import static org.jfrog.build.extractor.clientConfiguration.util.AqlHelper.LAST_RELEASE;
 import static org.jfrog.build.extractor.clientConfiguration.util.AqlHelper.LATEST;
@@ -42,4 +49,42 @@ public class AqlHelperTest {
             assertEquals(aqlHelper.buildNumber, expectedBuildNumber);
         }
     }
+
+    @Test
+    public void buildResultsFilterTest() throws IOException {
+        Set<String> buildArtifactsSha1 = new HashSet<>(Arrays.asList("sha1-a", "sha1-b", "sha1-c"));
+        AqlHelper.BuildResultsFilter filter = new AqlHelper.BuildResultsFilter(buildArtifactsSha1, "indiana", "2");
+        filter.add(createSearchEntry("a-other-build", "sha1-a", "other", "2"));
+        filter.add(createSearchEntry("a-same-build", "sha1-a", "indiana", "2"));
+        filter.add(createSearchEntry("a-same-name", "sha1-a", "indiana", "1"));
+        filter.add(createSearchEntry("b-same-name", "sha1-b", "indiana", "1"));
+        filter.add(createSearchEntry("b-no-build", "sha1-b", null, null));
+        filter.add(createSearchEntry("c-no-build-1", "sha1-c", null, null));
+        filter.add(createSearchEntry("c-no-build-2", "sha1-c", null, null));
+        filter.add(createSearchEntry("d-not-in-build", "sha1-d", "indiana", "2"));
+
+        List<String> names = new ArrayList<>();
+        assertEquals(filter.handleResults(entry -> names.add(entry.getName())), 4);
+        assertEquals(new HashSet<>(names), new HashSet<>(Arrays.asList("a-same-build", "b-same-name", "c-no-build-1", "c-no-build-2")));
+    }
+
+    private AqlSearchResult.SearchEntry createSearchEntry(String name, String sha1, String buildName, String buildNumber) {
+        AqlSearchResult.SearchEntry entry = new AqlSearchResult.SearchEntry();
+        entry.setName(name);
+        entry.setActualSha1(sha1);
+        List<AqlSearchResult.Property> properties = new ArrayList<>();
+        if (buildName != null) {
+            properties.add(createProperty(BuildInfoFields.BUILD_NAME, buildName));
+            properties.add(createProperty(BuildInfoFields.BUILD_NUMBER, buildNumber));
+        }
+        entry.setProperties(properties);
+        return entry;
+    }
+
+    private AqlSearchResult.Property createProperty(String key, String value) {
+        AqlSearchResult.Property property = new AqlSearchResult.Property();
+        property.setKey(key);
+        property.setValue(value);
+        return property;
+    }
 }
@@ -0,0 +1,153 @@
+package org.jfrog.build.extractor.clientConfiguration.util;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.message.BasicHeader;
+import org.jfrog.build.api.dependency.DownloadableArtifact;
+import org.jfrog.build.api.dependency.pattern.PatternType;
+import org.jfrog.build.api.util.NullLog;
+import org.jfrog.build.extractor.ci.Dependency;
+import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.jfrog.build.extractor.clientConfiguration.client.artifactory.services.Upload.MD5_HEADER_NAME;
+import static org.jfrog.build.extractor.clientConfiguration.client.artifactory.services.Upload.SHA1_HEADER_NAME;
+import static org.testng.Assert.*;
+
+@Test
+public class DependenciesDownloaderHelperTest {
+    private static final String REPO_URL = "http://localhost/artifactory/repo";
+    private File tempDir;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("dependencies-downloader").toFile();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(tempDir);
+    }
+
+    public void testParallelDownloadMatchesSerialDownload() throws IOException {
+        InMemoryArtifactoryManager artifactoryManager = new InMemoryArtifactoryManager();
+        Set<DownloadableArtifact> artifacts = new LinkedHashSet<>();
+        for (int i = 0; i < 30; i++) {
+            artifacts.add(createArtifact(artifactoryManager, "dir/file-" + i, "content of file " + i));
+        }
+        // A folder has no checksums and is not downloaded
+        artifacts.add(new DownloadableArtifact(REPO_URL, "", "folder", "", "folder", PatternType.NORMAL));
+        // Two artifacts with the same local path
+        artifacts.add(createArtifact(artifactoryManager, "a/duplicate", "first duplicate"));
+        artifacts.add(createArtifact(artifactoryManager, "b/duplicate", "second duplicate"));
+        artifacts.forEach(artifact -> {
+            if (artifact.getFilePath().endsWith("duplicate")) {
+                artifact.setRelativeDirPath("duplicate");
+            }
+        });
+
+        List<Dependency> serial = download(artifactoryManager, artifacts, "serial", 1);
+        List<Dependency> parallel = download(artifactoryManager, artifacts, "parallel", 4);
+        assertEquals(parallel.size(), 32);
+        assertEquals(getSha1s(parallel), getSha1s(serial));
+        assertEquals(FileUtils.readFileToString(new File(tempDir, "parallel/duplicate"), StandardCharsets.UTF_8), "second duplicate");
+    }
+
+    public void testParallelDownloadFailure() {
+        InMemoryArtifactoryManager artifactoryManager = new InMemoryArtifactoryManager();
+        Set<DownloadableArtifact> artifacts = new LinkedHashSet<>();
+        for (int i = 0; i < 10; i++) {
+            artifacts.add(createArtifact(artifactoryManager, "dir/file-" + i, "content of file " + i));
+        }
+        artifactoryManager.contents.put(REPO_URL + "/dir/file-5", "corrupted".getBytes(StandardCharsets.UTF_8));
+        IOException exception = expectThrows(IOException.class, () -> download(artifactoryManager, artifacts, "parallel", 4));
+        assertTrue(exception.getMessage().contains("checksum"), exception.getMessage());
+    }
+
+    public void testSearchMetadataSkipsHeadRequests() throws IOException {
+        InMemoryArtifactoryManager artifactoryManager = new InMemoryArtifactoryManager();
+        Set<DownloadableArtifact> artifacts = new LinkedHashSet<>();
+        for (int i = 0; i < 5; i++) {
+            DownloadableArtifact artifact = createArtifact(artifactoryManager, "dir/file-" + i, "content of file " + i);
+            byte[] content = artifactoryManager.contents.get(REPO_URL + "/" + artifact.getFilePath());
+            artifact.setSize((long) content.length);
+            artifact.setMd5(DigestUtils.md5Hex(content));
+            artifact.setSha1(DigestUtils.sha1Hex(content));
+            artifacts.add(artifact);
+        }
+        // Missing metadata falls back to a HEAD request
+        artifacts.add(createArtifact(artifactoryManager, "dir/no-metadata", "no metadata"));
+
+        List<Dependency> dependencies = download(artifactoryManager, artifacts, "workspace", 1);
+        assertEquals(dependencies.size(), 6);
+        assertEquals(artifactoryManager.headRequests.get(), 1);
+    }
+
+    private List<Dependency> download(ArtifactoryManager artifactoryManager, Set<DownloadableArtifact> artifacts,
+                                      String workingDirectory, int downloadThreads) throws IOException {
+        DependenciesDownloaderImpl downloader = new DependenciesDownloaderImpl(artifactoryManager,
+                new File(tempDir, workingDirectory).getPath(), new NullLog());
+        DependenciesDownloaderHelper helper = new DependenciesDownloaderHelper(downloader, new NullLog());
+        helper.setDownloadThreads(downloadThreads);
+        return helper.downloadDependencies(artifacts);
+    }
+
+    private DownloadableArtifact createArtifact(InMemoryArtifactoryManager artifactoryManager, String filePath, String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        artifactoryManager.contents.put(REPO_URL + "/" + filePath, bytes);
+        artifactoryManager.headers.put(REPO_URL + "/" + filePath, new Header[]{
+                new BasicHeader(MD5_HEADER_NAME, DigestUtils.md5Hex(bytes)),
+                new BasicHeader(SHA1_HEADER_NAME, DigestUtils.sha1Hex(bytes)),
+                new BasicHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(bytes.length))
+        });
+        return new DownloadableArtifact(REPO_URL, "", filePath, "", filePath, PatternType.NORMAL);
+    }
+
+    private List<String> getSha1s(List<Dependency> dependencies) {
+        return dependencies.stream().map(Dependency::getSha1).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Serves artifacts from memory.
+     */
+    private static class InMemoryArtifactoryManager extends ArtifactoryManager {
+        private final Map<String, byte[]> contents = new HashMap<>();
+        private final Map<String, Header[]> headers = new HashMap<>();
+        private final AtomicInteger headRequests = new AtomicInteger();
+
+        private InMemoryArtifactoryManager() {
+            super("http://localhost", new NullLog());
+        }
+
+        @Override
+        public Header[] downloadHeaders(String downloadFrom) {
+            headRequests.incrementAndGet();
+            return headers.getOrDefault(downloadFrom, new Header[0]);
+        }
+
+        @Override
+        public long downloadToSink(String downloadFrom, DigestingFileSink sink, long offset, Map<String, String> headers)
+                throws IOException {
+            byte[] content = contents.get(downloadFrom);
+            sink.write(offset, content, content.length);
+            return content.length;
+        }
+    }
+}
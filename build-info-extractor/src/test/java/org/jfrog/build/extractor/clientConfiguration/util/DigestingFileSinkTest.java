@@ -0,0 +1,106 @@
+package org.jfrog.build.extractor.clientConfiguration.util;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.jfrog.build.api.util.FileChecksumCalculator.*;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
+
+@Test
+public class DigestingFileSinkTest {
+    private File tempDir;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("digesting-sink").toFile();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(tempDir);
+    }
+
+    public void testSequentialWrites() throws IOException {
+        byte[] content = createContent(100_000);
+        File destination = new File(tempDir, "sequential/file");
+        try (DigestingFileSink sink = new DigestingFileSink(destination.getPath(), 0)) {
+            for (int offset = 0; offset < content.length; offset += 4096) {
+                int length = Math.min(4096, content.length - offset);
+                sink.write(offset, Arrays.copyOfRange(content, offset, offset + length), length);
+            }
+            assertChecksums(sink.getChecksums(), content);
+        }
+        assertEquals(Files.readAllBytes(destination.toPath()), content);
+    }
+
+    public void testConcurrentRanges() throws Exception {
+        byte[] content = createContent(300_001);
+        File destination = new File(tempDir, "file");
+        int rangesCount = 3;
+        int rangeSize = content.length / rangesCount;
+        try (DigestingFileSink sink = new DigestingFileSink(destination.getPath(), content.length)) {
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < rangesCount; i++) {
+                int start = i * rangeSize;
+                int end = i == rangesCount - 1 ? content.length : start + rangeSize;
+                threads.add(new Thread(() -> writeRange(sink, content, start, end)));
+            }
+            // Start the last ranges first, so most of the bytes are written ahead of the digested offset
+            Collections.reverse(threads);
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertChecksums(sink.getChecksums(), content);
+        }
+        assertEquals(Files.readAllBytes(destination.toPath()), content);
+    }
+
+    public void testMissingRange() throws IOException {
+        byte[] content = createContent(1000);
+        File destination = new File(tempDir, "file");
+        try (DigestingFileSink sink = new DigestingFileSink(destination.getPath(), content.length)) {
+            sink.write(500, Arrays.copyOfRange(content, 500, 1000), 500);
+            assertThrows(IOException.class, sink::getChecksums);
+        }
+    }
+
+    private void writeRange(DigestingFileSink sink, byte[] content, int start, int end) {
+        try {
+            for (int offset = start; offset < end; offset += 1000) {
+                int length = Math.min(1000, end - offset);
+                sink.write(offset, Arrays.copyOfRange(content, offset, offset + length), length);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private byte[] createContent(int size) {
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+
+    private void assertChecksums(Map<String, String> checksums, byte[] content) {
+        assertEquals(checksums.get(MD5_ALGORITHM), DigestUtils.md5Hex(content));
+        assertEquals(checksums.get(SHA1_ALGORITHM), DigestUtils.sha1Hex(content));
+        assertEquals(checksums.get(SHA256_ALGORITHM), DigestUtils.sha256Hex(content));
+    }
+}
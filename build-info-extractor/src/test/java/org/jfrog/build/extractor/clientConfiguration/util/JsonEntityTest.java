@@ -0,0 +1,61 @@
+package org.jfrog.build.extractor.clientConfiguration.util;
+
+import org.apache.commons.io.IOUtils;
+import org.jfrog.build.extractor.builder.BuildInfoBuilder;
+import org.jfrog.build.extractor.builder.ModuleBuilder;
+import org.jfrog.build.extractor.ci.BuildInfo;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.jfrog.build.extractor.BuildInfoExtractorUtils.jsonStringToBuildInfo;
+import static org.testng.Assert.*;
+
+@Test
+public class JsonEntityTest {
+
+    public void testCompactJson() throws IOException {
+        BuildInfo buildInfo = createBuildInfo();
+        JsonEntity entity = new JsonEntity(buildInfo, "application/json", false);
+        assertNull(entity.getContentEncoding());
+        assertEquals(entity.getContentLength(), -1);
+        assertTrue(entity.isRepeatable());
+
+        String json = write(entity);
+        assertFalse(json.contains("\n"));
+        assertEquals(jsonStringToBuildInfo(json).getModules().get(0).getId(), "module");
+        // The entity is repeatable, so writing it again produces the same content
+        assertEquals(write(entity), json);
+        assertEquals(IOUtils.toString(entity.getContent(), StandardCharsets.UTF_8), json);
+    }
+
+    public void testGzipJson() throws IOException {
+        BuildInfo buildInfo = createBuildInfo();
+        JsonEntity entity = new JsonEntity(buildInfo, "application/json", true);
+        assertEquals(entity.getContentEncoding().getValue(), "gzip");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entity.writeTo(out);
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            String json = IOUtils.toString(in, StandardCharsets.UTF_8);
+            assertEquals(json, write(new JsonEntity(buildInfo, "application/json", false)));
+        }
+    }
+
+    private static String write(JsonEntity entity) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entity.writeTo(out);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static BuildInfo createBuildInfo() {
+        return new BuildInfoBuilder("build").number("1").started("2023-01-01T00:00:00.000+0000")
+                .addModule(new ModuleBuilder().id("module").build())
+                .build();
+    }
+}
@@ -0,0 +1,114 @@
+package org.jfrog.build.extractor.clientConfiguration.util;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jfrog.build.api.search.AqlSearchResult;
+import org.jfrog.build.api.search.AqlSearchResultHandler;
+import org.jfrog.build.api.util.NullLog;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.testng.Assert.*;
+
+@Test
+public class PaginatedAqlSearcherTest {
+    private static final String AQL = "items.find({\"repo\":\"generic-local\"}).include(\"name\",\"repo\",\"path\",\"actual_sha1\")";
+
+    @DataProvider
+    private Object[][] paginationProvider() {
+        return new Object[][]{
+                // Results count, page size, parallel pages
+                {0, 10, 3},
+                {9, 10, 3},
+                {10, 10, 3},
+                {95, 10, 3},
+                {95, 10, 1},
+                {95, 0, 3},
+        };
+    }
+
+    @Test(dataProvider = "paginationProvider")
+    public void testResultsOrder(int resultsCount, int pageSize, int parallelPages) throws IOException {
+        FakePageSearcher pageSearcher = new FakePageSearcher(resultsCount);
+        List<String> names = new ArrayList<>();
+        int count = new PaginatedAqlSearcher(pageSearcher, pageSize, parallelPages, new NullLog())
+                .search(AQL, entry -> names.add(entry.getName()));
+        assertEquals(count, resultsCount);
+        assertEquals(names, pageSearcher.names);
+    }
+
+    public void testNotPageableQueries() {
+        assertTrue(PaginatedAqlSearcher.isPageable(AQL));
+        assertTrue(PaginatedAqlSearcher.isPageable("items.find({\"repo\":\"generic-local\"})"));
+        assertFalse(PaginatedAqlSearcher.isPageable(AQL + ".limit(10)"));
+        assertFalse(PaginatedAqlSearcher.isPageable(AQL + ".sort({\"$asc\":[\"name\"]})"));
+        assertFalse(PaginatedAqlSearcher.isPageable("items.find({\"repo\":\"generic-local\"}).include(\"actual_sha1\")"));
+    }
+
+    public void testCrossDomainIncludesAreNotPageable() {
+        String find = "items.find({\"repo\":\"generic-local\"})";
+        // The include of spec searches with a build filter
+        assertFalse(PaginatedAqlSearcher.isPageable(find + ".include(\"name\",\"repo\",\"path\",\"actual_md5\",\"actual_sha1\",\"sha256\",\"size\",\"type\",\"property\")"));
+        assertFalse(PaginatedAqlSearcher.isPageable(find + ".include(\"name\",\"repo\",\"path\",\"property.*\")"));
+        assertFalse(PaginatedAqlSearcher.isPageable(find + ".include(\"name\",\"repo\",\"path\",\"@npm.name\")"));
+        assertFalse(PaginatedAqlSearcher.isPageable(find + ".include(\"name\",\"repo\",\"path\",\"stat.downloads\")"));
+        assertFalse(PaginatedAqlSearcher.isPageable(find + ".include(\"*\")"));
+        assertTrue(PaginatedAqlSearcher.isPageable(find + ".include(\"name\",\"repo\",\"path\",\"actual_md5\",\"size\")"));
+    }
+
+    public void testDisabledByDefault() {
+        assertEquals(PaginatedAqlSearcher.getPageSizeFromSystemProperties(), 0);
+    }
+
+    public void testPageFailure() {
+        FakePageSearcher pageSearcher = new FakePageSearcher(100);
+        pageSearcher.failingOffset = 30;
+        assertThrows(IOException.class, () -> new PaginatedAqlSearcher(pageSearcher, 10, 3, new NullLog()).search(AQL, entry -> {
+        }));
+    }
+
+    /**
+     * Serves the requested page of the results, after a random delay.
+     */
+    private static class FakePageSearcher implements PaginatedAqlSearcher.PageSearcher {
+        private final List<String> names = new ArrayList<>();
+        private final Random random = new Random();
+        private volatile long failingOffset = -1;
+
+        private FakePageSearcher(int resultsCount) {
+            for (int i = 0; i < resultsCount; i++) {
+                names.add(String.format("file-%05d", i));
+            }
+        }
+
+        @Override
+        public int search(String aql, AqlSearchResultHandler handler) throws IOException {
+            List<String> page = names;
+            if (aql.contains(".offset(")) {
+                assertTrue(aql.startsWith(AQL + ".sort("), aql);
+                int offset = Integer.parseInt(StringUtils.substringBetween(aql, ".offset(", ")"));
+                int limit = Integer.parseInt(StringUtils.substringBetween(aql, ".limit(", ")"));
+                if (offset == failingOffset) {
+                    throw new IOException("Page failed");
+                }
+                page = offset >= names.size() ? Collections.emptyList() : names.subList(offset, Math.min(names.size(), offset + limit));
+            }
+            try {
+                Thread.sleep(random.nextInt(5));
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            for (String name : page) {
+                AqlSearchResult.SearchEntry entry = new AqlSearchResult.SearchEntry();
+                entry.setName(name);
+                handler.handle(entry);
+            }
+            return page.size();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package org.jfrog.build.extractor.clientConfiguration.util;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.http.HttpHeaders;
+import org.jfrog.build.api.util.NullLog;
+import org.jfrog.build.client.RetryPolicy;
+import org.jfrog.build.extractor.clientConfiguration.client.artifactory.ArtifactoryManager;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.jfrog.build.api.util.FileChecksumCalculator.SHA1_ALGORITHM;
+import static org.testng.Assert.*;
+
+@Test
+public class RangedDownloaderTest {
+    private File tempDir;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("ranged-downloader").toFile();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(tempDir);
+    }
+
+    @DataProvider
+    private Object[][] splitProvider() {
+        return new Object[][]{
+                // File size, part size, max parts, expected parts
+                {5_120_000L, 8L * 1024 * 1024, 128, 2},
+                {100L * 1024 * 1024, 8L * 1024 * 1024, 128, 13},
+                {4L * 1024 * 1024 * 1024, 8L * 1024 * 1024, 128, 128},
+                {3L, 1L, 128, 3},
+                {2L, 8L, 128, 2},
+        };
+    }
+
+    @Test(dataProvider = "splitProvider")
+    public void testSplit(long fileSize, long partSize, int maxParts, int expectedParts) {
+        RangedDownloader rangedDownloader = new RangedDownloader(1, partSize, maxParts, 0, 0, new NullLog());
+        List<RangedDownloader.Range> ranges = rangedDownloader.split(fileSize);
+        assertEquals(ranges.size(), expectedParts);
+        long expectedStart = 0;
+        for (RangedDownloader.Range range : ranges) {
+            assertEquals(range.start, expectedStart);
+            assertTrue(range.end > range.start);
+            // Ranges sizes differ by one byte at most
+            assertTrue(range.end - range.start - fileSize / expectedParts <= 1);
+            expectedStart = range.end;
+        }
+        assertEquals(expectedStart, fileSize);
+    }
+
+    public void testFailedRangesAreResumed() throws IOException {
+        byte[] content = new byte[1_000_000];
+        new Random(1).nextBytes(content);
+        FlakyArtifactoryManager artifactoryManager = new FlakyArtifactoryManager(content, 1);
+        RangedDownloader rangedDownloader = new RangedDownloader(4, 100_000, 128, 0, 2, new NullLog());
+        File destination = new File(tempDir, "file");
+        try (DigestingFileSink sink = new DigestingFileSink(destination.getPath(), content.length)) {
+            rangedDownloader.download(artifactoryManager, "repo/file", content.length, sink);
+            Map<String, String> checksums = sink.getChecksums();
+            assertEquals(checksums.get(SHA1_ALGORITHM), DigestUtils.sha1Hex(content));
+        }
+        assertEquals(Files.readAllBytes(destination.toPath()), content);
+        // Every retry continued from the middle of its range
+        assertEquals(artifactoryManager.requests.size(), 20);
+    }
+
+    public void testRetriesAreDelayedByRetryPolicy() throws IOException {
+        byte[] content = new byte[10_000];
+        FlakyArtifactoryManager artifactoryManager = new FlakyArtifactoryManager(content, 2);
+        List<Integer> attempts = Collections.synchronizedList(new ArrayList<>());
+        RetryPolicy retryPolicy = (attempt, retryAfterMillis) -> {
+            attempts.add(attempt);
+            return 50;
+        };
+        RangedDownloader rangedDownloader = new RangedDownloader(1, 10_000, 128, 0, 2, retryPolicy, new NullLog());
+        long start = System.nanoTime();
+        try (DigestingFileSink sink = new DigestingFileSink(new File(tempDir, "file").getPath(), content.length)) {
+            rangedDownloader.download(artifactoryManager, "repo/file", content.length, sink);
+        }
+        // Two ranges, each retried twice with an increasing retry number
+        assertEquals(attempts, Arrays.asList(1, 2, 1, 2));
+        assertTrue(System.nanoTime() - start >= 200_000_000L);
+    }
+
+    public void testRangeFailsAfterRetries() throws IOException {
+        byte[] content = new byte[10_000];
+        FlakyArtifactoryManager artifactoryManager = new FlakyArtifactoryManager(content, Integer.MAX_VALUE);
+        RangedDownloader rangedDownloader = new RangedDownloader(2, 1000, 128, 0, 1, new NullLog());
+        try (DigestingFileSink sink = new DigestingFileSink(new File(tempDir, "file").getPath(), content.length)) {
+            assertThrows(IOException.class, () -> rangedDownloader.download(artifactoryManager, "repo/file", content.length, sink));
+        }
+    }
+
+    /**
+     * Serves ranges of the content. The first requests of every range write half of the range and fail.
+     */
+    private static class FlakyArtifactoryManager extends ArtifactoryManager {
+        private final Set<String> requests = Collections.synchronizedSet(new HashSet<>());
+        private final byte[] content;
+        private final int failuresPerRange;
+        private final Map<Integer, Integer> failures = Collections.synchronizedMap(new HashMap<>());
+
+        private FlakyArtifactoryManager(byte[] content, int failuresPerRange) {
+            super("http://localhost", new NullLog());
+            this.content = content;
+            this.failuresPerRange = failuresPerRange;
+        }
+
+        @Override
+        public long downloadToSink(String downloadFrom, DigestingFileSink sink, long offset, Map<String, String> headers)
+                throws IOException {
+            String range = headers.get(HttpHeaders.RANGE);
+            assertTrue(requests.add(range), "Range requested twice: " + range);
+            String[] bounds = range.substring("bytes=".length()).split("-");
+            int start = Integer.parseInt(bounds[0]);
+            int end = Integer.parseInt(bounds[1]) + 1;
+            assertEquals(start, offset);
+            int length = end - start;
+            int failuresCount = failures.merge(end, 1, Integer::sum);
+            if (failuresCount <= failuresPerRange) {
+                length /= 2;
+            }
+            byte[] buffer = new byte[length];
+            System.arraycopy(content, start, buffer, 0, length);
+            sink.write(start, buffer, length);
+            if (length < end - start) {
+                throw new IOException("Connection reset");
+            }
+            return length;
+        }
+    }
+}
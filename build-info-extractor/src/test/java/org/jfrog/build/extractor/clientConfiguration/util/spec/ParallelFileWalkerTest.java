@@ -0,0 +1,98 @@
+package org.jfrog.build.extractor.clientConfiguration.util.spec;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.testng.Assert.*;
+
+@Test
+public class ParallelFileWalkerTest {
+    private Path root;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("parallel-file-walker");
+        for (String path : new String[]{"a.txt", "dir1/b.txt", "dir1/sub/c.txt", "dir2/d.txt", "dir2/sub/deep/e.txt"}) {
+            FileUtils.writeStringToFile(root.resolve(path).toFile(), path, "UTF-8");
+        }
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(root.toFile());
+    }
+
+    public void testWalkAll() throws Exception {
+        assertEquals(walk(-1, (dir, depth) -> true),
+                toSet("a.txt:0", "dir1/b.txt:1", "dir1/sub/c.txt:2", "dir2/d.txt:1", "dir2/sub/deep/e.txt:3"));
+    }
+
+    public void testMaxDepth() throws Exception {
+        assertEquals(walk(0, (dir, depth) -> true), toSet("a.txt:0"));
+        assertEquals(walk(1, (dir, depth) -> true), toSet("a.txt:0", "dir1/b.txt:1", "dir2/d.txt:1"));
+    }
+
+    public void testDirectoryFilter() throws Exception {
+        Set<String> walkedDirs = ConcurrentHashMap.newKeySet();
+        Set<String> files = walk(-1, (dir, depth) -> {
+            walkedDirs.add(relativize(dir));
+            return !dir.getFileName().toString().equals("dir2");
+        });
+        assertEquals(files, toSet("a.txt:0", "dir1/b.txt:1", "dir1/sub/c.txt:2"));
+        // The pruned directory is never listed
+        assertEquals(walkedDirs, toSet("dir1", "dir1/sub", "dir2"));
+    }
+
+    public void testSymlinkCycle() throws Exception {
+        try {
+            Files.createSymbolicLink(root.resolve("dir1/sub/loop"), root.resolve("dir1"));
+        } catch (UnsupportedOperationException | IOException e) {
+            // Symbolic links are not supported by the file-system
+            return;
+        }
+        Set<String> files = walk(-1, (dir, depth) -> true);
+        assertTrue(files.contains("dir1/sub/loop/b.txt:3"));
+        assertFalse(files.contains("dir1/sub/loop/sub/loop/b.txt:5"));
+    }
+
+    public void testHandlerFailure() {
+        IOException exception = expectThrows(IOException.class, () -> new ParallelFileWalker(4).walk(root, -1,
+                (dir, depth) -> true, (file, depth) -> {
+                    throw new IOException("Failed handling " + file);
+                }));
+        assertTrue(exception.getMessage().startsWith("Failed handling"));
+    }
+
+    public void testMissingRoot() throws Exception {
+        Set<String> files = ConcurrentHashMap.newKeySet();
+        new ParallelFileWalker(4).walk(root.resolve("missing"), -1, (dir, depth) -> true,
+                (file, depth) -> files.add(relativize(file)));
+        assertTrue(files.isEmpty());
+    }
+
+    private Set<String> walk(int maxDepth, ParallelFileWalker.DirectoryFilter directoryFilter) throws Exception {
+        Set<String> files = ConcurrentHashMap.newKeySet();
+        new ParallelFileWalker(4).walk(root, maxDepth, directoryFilter,
+                (file, depth) -> assertTrue(files.add(relativize(file) + ":" + depth)));
+        return files;
+    }
+
+    private String relativize(Path path) {
+        return root.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    private static Set<String> toSet(String... values) {
+        return new HashSet<>(Arrays.asList(values));
+    }
+}
@@ -0,0 +1,223 @@
+package org.jfrog.build.extractor.producerConsumer;
+
+import org.jfrog.build.api.producerConsumer.ProducerConsumerItem;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.api.util.NullLog;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.testng.Assert.*;
+
+@Test
+public class ProducerConsumerExecutorTest {
+
+    public void testAllItemsConsumed() throws Exception {
+        Set<Integer> consumed = ConcurrentHashMap.newKeySet();
+        ConsumerRunnableBase[] consumers = new ConsumerRunnableBase[4];
+        for (int i = 0; i < consumers.length; i++) {
+            consumers[i] = new TestConsumer(item -> assertTrue(consumed.add(item.value)));
+        }
+        ProducerConsumerExecutor executor = new ProducerConsumerExecutor(new NullLog(),
+                new ProducerRunnableBase[]{new TestProducer(0, 500), new TestProducer(500, 1000)}, consumers, 2);
+        executor.start();
+
+        assertEquals(consumed.size(), 1000);
+        ProducerConsumerExecutor.Metrics metrics = executor.getMetrics();
+        assertEquals(metrics.getItemsProduced(), 1000);
+        assertEquals(metrics.getItemsConsumed(), 1000);
+        assertEquals(metrics.getQueueDepth(), 0);
+    }
+
+    public void testTakeBatch() throws Exception {
+        Set<Integer> consumed = ConcurrentHashMap.newKeySet();
+        AtomicInteger maxBatchSize = new AtomicInteger();
+        ConsumerRunnableBase[] consumers = new ConsumerRunnableBase[3];
+        for (int i = 0; i < consumers.length; i++) {
+            consumers[i] = new BatchConsumer(batch -> {
+                maxBatchSize.accumulateAndGet(batch.size(), Math::max);
+                batch.forEach(item -> assertTrue(consumed.add(((TestItem) item).value)));
+            });
+        }
+        ProducerConsumerExecutor executor = new ProducerConsumerExecutor(new NullLog(),
+                new ProducerRunnableBase[]{new TestProducer(0, 1000)}, consumers, 100);
+        executor.start();
+
+        assertEquals(consumed.size(), 1000);
+        assertTrue(maxBatchSize.get() <= 10);
+        assertEquals(executor.getMetrics().getItemsConsumed(), 1000);
+    }
+
+    public void testThreadFactory() throws Exception {
+        AtomicInteger createdThreads = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            createdThreads.incrementAndGet();
+            return new Thread(runnable);
+        };
+        Set<String> threadNames = ConcurrentHashMap.newKeySet();
+        ProducerConsumerExecutor executor = new ProducerConsumerExecutor(new NullLog(),
+                new ProducerRunnableBase[]{new TestProducer(0, 10)},
+                new ConsumerRunnableBase[]{new TestConsumer(item -> threadNames.add(Thread.currentThread().getName()))},
+                10, threadFactory);
+        executor.start();
+
+        assertEquals(createdThreads.get(), 2);
+        assertEquals(threadNames.iterator().next(), "consumer_0");
+    }
+
+    public void testVirtualThreadFactory() throws Exception {
+        ThreadFactory threadFactory = ProducerConsumerExecutor.createVirtualThreadFactory();
+        if (threadFactory == null) {
+            // Virtual threads are not supported by the JVM
+            return;
+        }
+        Set<Integer> consumed = ConcurrentHashMap.newKeySet();
+        new ProducerConsumerExecutor(new NullLog(), new ProducerRunnableBase[]{new TestProducer(0, 100)},
+                new ConsumerRunnableBase[]{new TestConsumer(item -> consumed.add(item.value))}, 10, threadFactory).start();
+        assertEquals(consumed.size(), 100);
+    }
+
+    public void testCancel() throws Exception {
+        CountDownLatch consuming = new CountDownLatch(1);
+        AtomicInteger consumed = new AtomicInteger();
+        ProducerConsumerExecutor executor = new ProducerConsumerExecutor(new NullLog(),
+                new ProducerRunnableBase[]{new TestProducer(0, Integer.MAX_VALUE)},
+                new ConsumerRunnableBase[]{new TestConsumer(item -> {
+                    consuming.countDown();
+                    consumed.incrementAndGet();
+                })}, 10);
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            try {
+                executor.start();
+            } catch (Exception e) {
+                failure.set(e);
+            }
+        });
+        thread.start();
+        assertTrue(consuming.await(10, TimeUnit.SECONDS));
+
+        executor.cancel(10, TimeUnit.SECONDS);
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(thread.isAlive());
+        assertTrue(failure.get() instanceof CancellationException);
+        assertTrue(consumed.get() < Integer.MAX_VALUE);
+    }
+
+    public void testConsumerFailure() {
+        ProducerConsumerExecutor executor = new ProducerConsumerExecutor(new NullLog(),
+                new ProducerRunnableBase[]{new TestProducer(0, 1000)},
+                new ConsumerRunnableBase[]{new TestConsumer(item -> {
+                    throw new RuntimeException("Failed consuming " + item.value);
+                })}, 10);
+        Exception exception = expectThrows(Exception.class, executor::start);
+        assertTrue(exception.getMessage().startsWith("Error occurred during operation"));
+    }
+
+    private static class TestItem implements ProducerConsumerItem {
+        private final int value;
+
+        private TestItem(int value) {
+            this.value = value;
+        }
+    }
+
+    private static class TestProducer extends ProducerRunnableBase {
+        private final int from;
+        private final int to;
+
+        private TestProducer(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public void producerRun() throws InterruptedException {
+            for (int i = from; i < to; i++) {
+                executor.put(new TestItem(i));
+            }
+        }
+    }
+
+    private interface ItemHandler {
+        void handle(TestItem item);
+    }
+
+    private static class TestConsumer extends ConsumerRunnableBase {
+        private final ItemHandler handler;
+        private ProducerConsumerExecutor executor;
+
+        private TestConsumer(ItemHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void consumerRun() {
+            while (!Thread.interrupted()) {
+                try {
+                    ProducerConsumerItem item = executor.take();
+                    if (item == executor.TERMINATE) {
+                        break;
+                    }
+                    handler.handle((TestItem) item);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void setExecutor(ProducerConsumerExecutor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void setLog(Log log) {
+        }
+    }
+
+    private interface BatchHandler {
+        void handle(List<ProducerConsumerItem> batch);
+    }
+
+    private static class BatchConsumer extends ConsumerRunnableBase {
+        private final BatchHandler handler;
+        private ProducerConsumerExecutor executor;
+
+        private BatchConsumer(BatchHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void consumerRun() {
+            while (!Thread.interrupted()) {
+                try {
+                    List<ProducerConsumerItem> batch = executor.takeBatch(10);
+                    if (batch.isEmpty()) {
+                        break;
+                    }
+                    handler.handle(batch);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void setExecutor(ProducerConsumerExecutor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void setLog(Log log) {
+        }
+    }
+}